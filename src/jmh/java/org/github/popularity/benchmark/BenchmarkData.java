@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import org.github.popularity.GithubRepoDataServiceApplication;
+import org.github.popularity.model.Language;
+import org.github.popularity.repo.LanguageDictionary;
+import org.github.popularity.scoring.ScoringStrategy;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.OffsetDateTime;
+
+import static org.github.popularity.constant.GithubConstants.DATA_FIELD_ID;
+import static org.github.popularity.constant.GithubConstants.DATA_FIELD_ITEMS;
+
+/**
+ * Benchmark payloads built from the Github search response test resource.
+ *
+ * @author Kevin Ratnasekera
+ */
+public final class BenchmarkData {
+
+  private static final String TEST_FILE = "test.json";
+
+  // seeded repos are created between these dates, pushed within a year after creation
+  public static final OffsetDateTime SEED_CREATED_FROM = OffsetDateTime.parse("2010-01-01T00:00:00Z");
+  public static final OffsetDateTime SEED_CREATED_TO = OffsetDateTime.parse("2025-01-01T00:00:00Z");
+
+  private static final int SEED_BATCH_SIZE = 100000;
+
+  private static final String SEED_GITHUB_REPOS = "INSERT INTO github_repo (repository_id, url, created_date, language, "
+          + "score, scored_date, stargazers_count, forks_count, updated_date, score_valid_until, fingerprint) "
+          + "SELECT X, CONCAT('https://github.com/benchmark/repo-', X, '.git'), ? + MOD(X * 7919, ?), %s, "
+          + "MOD(X, 101), ?, MOD(X * 13, 200000), MOD(X * 17, 5000), ? + MOD(X * 7919, ?) + MOD(X * 31, 31536000), "
+          + "?, X FROM SYSTEM_RANGE(?, ?)";
+
+  // background jobs are disabled so that only the benchmarked calls touch the database
+  private static final String[] APPLICATION_ARGS = {
+          "--spring.main.web-application-type=none",
+          "--spring.main.banner-mode=off",
+          "--github.data.fetch.enabled=false",
+          "--github.rescoring.enabled=false",
+          "--github.rollup.check.enabled=false",
+          "--logging.level.org.github.popularity=WARN"
+  };
+
+  private BenchmarkData() {
+  }
+
+  /**
+   * Github search response page with given number of items, test resource items are repeated with distinct ids.
+   *
+   * @param size
+   *
+   * @return page as UTF-8 JSON
+   */
+  public static byte[] searchPage(int size) throws IOException {
+    ObjectMapper mapper = new ObjectMapper();
+    JsonNode root;
+    try (InputStream inputStream = BenchmarkData.class.getClassLoader().getResourceAsStream(TEST_FILE)) {
+      root = mapper.readTree(inputStream);
+    }
+    ArrayNode items = (ArrayNode) root.get(DATA_FIELD_ITEMS);
+    ArrayNode pageItems = mapper.createArrayNode();
+    for (int i = 0; i < size; i++) {
+      ObjectNode item = items.get(i % items.size()).deepCopy();
+      item.put(DATA_FIELD_ID, item.get(DATA_FIELD_ID).asLong() + i);
+      pageItems.add(item);
+    }
+    ((ObjectNode) root).set(DATA_FIELD_ITEMS, pageItems);
+    return mapper.writeValueAsBytes(root);
+  }
+
+  /**
+   * Start application context on its in-memory database.
+   *
+   * @return ConfigurableApplicationContext
+   */
+  public static ConfigurableApplicationContext startApplication() {
+    return SpringApplication.run(GithubRepoDataServiceApplication.class, APPLICATION_ARGS);
+  }
+
+  /**
+   * Seed given number of Github repos, spread over supported languages and over created dates between
+   * SEED_CREATED_FROM and SEED_CREATED_TO. Rows are generated by the database in batches.
+   *
+   * @param jdbcTemplate
+   * @param languageDictionary
+   * @param rows
+   */
+  public static void seedGithubRepos(JdbcTemplate jdbcTemplate,
+                                     LanguageDictionary languageDictionary,
+                                     int rows) {
+    Language[] languages = Language.values();
+    StringBuilder languageCode = new StringBuilder("CASE MOD(X, ").append(languages.length).append(")");
+    for (int i = 0; i < languages.length; i++) {
+      languageCode.append(" WHEN ").append(i).append(" THEN ")
+              .append(languageDictionary.findCode(languages[i].getLanguage()));
+    }
+    languageCode.append(" END");
+    String sql = String.format(SEED_GITHUB_REPOS, languageCode);
+    long createdFrom = SEED_CREATED_FROM.toEpochSecond();
+    long createdSpan = SEED_CREATED_TO.toEpochSecond() - createdFrom;
+    long scoredDate = SEED_CREATED_TO.toEpochSecond();
+    for (long from = 1; from <= rows; from += SEED_BATCH_SIZE) {
+      long to = Math.min(rows, from + SEED_BATCH_SIZE - 1);
+      jdbcTemplate.update(sql, createdFrom, createdSpan, scoredDate, createdFrom, createdSpan,
+              ScoringStrategy.SCORE_VALID_FOREVER, from, to);
+    }
+  }
+
+}
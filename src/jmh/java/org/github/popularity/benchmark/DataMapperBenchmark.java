@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.github.popularity.dto.GithubSearchResponseDTO;
+import org.github.popularity.mapper.DataMapper;
+import org.github.popularity.model.GithubRepo;
+import org.github.popularity.scoring.ScoringStrategy;
+import org.github.popularity.scoring.WeightedScoringStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static org.github.popularity.constant.GithubConstants.DATA_FIELD_CLONE_URL;
+import static org.github.popularity.constant.GithubConstants.DATA_FIELD_CREATED_AT;
+import static org.github.popularity.constant.GithubConstants.DATA_FIELD_FORKS_COUNT;
+import static org.github.popularity.constant.GithubConstants.DATA_FIELD_ID;
+import static org.github.popularity.constant.GithubConstants.DATA_FIELD_ITEMS;
+import static org.github.popularity.constant.GithubConstants.DATA_FIELD_LANGUAGE;
+import static org.github.popularity.constant.GithubConstants.DATA_FIELD_PUSHED_AT;
+import static org.github.popularity.constant.GithubConstants.DATA_FIELD_STARGAZERS_COUNT;
+
+/**
+ * Mapping cost of a Github search response page. Token level mapper is compared against the tree model mapping it
+ * replaced, which built a new ObjectMapper and a JSON tree of the whole page. Run with the gc profiler for bytes
+ * allocated per page.
+ *
+ * @author Kevin Ratnasekera
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataMapperBenchmark {
+
+  @Param({"100"})
+  private int pageSize;
+
+  private DataMapper dataMapper = new DataMapper();
+  private ScoringStrategy scoringStrategy = new WeightedScoringStrategy();
+  private byte[] page;
+
+  @Setup
+  public void setup() throws IOException {
+    page = BenchmarkData.searchPage(pageSize);
+  }
+
+  @Benchmark
+  public List<GithubRepo> toGithubRepo() throws IOException {
+    return dataMapper.toGithubRepo(new ByteArrayInputStream(page), scoringStrategy);
+  }
+
+  @Benchmark
+  public GithubSearchResponseDTO toGithubSearchResponseDTO() throws IOException {
+    return dataMapper.toGithubSearchResponseDTO(new ByteArrayInputStream(page), scoringStrategy);
+  }
+
+  @Benchmark
+  public List<GithubRepo> toGithubRepoTreeModel() throws IOException {
+    // mapping as done before token level parsing
+    JsonNode root = new ObjectMapper().readTree(page);
+    OffsetDateTime scoredTime = OffsetDateTime.now();
+    List<GithubRepo> items = new ArrayList<>();
+    for (JsonNode node : root.get(DATA_FIELD_ITEMS)) {
+      GithubRepo githubRepo = new GithubRepo();
+      githubRepo.setLanguage(node.get(DATA_FIELD_LANGUAGE).asText().toLowerCase(Locale.ROOT));
+      githubRepo.setCreatedDate(OffsetDateTime.parse(node.get(DATA_FIELD_CREATED_AT).asText()).toEpochSecond());
+      githubRepo.setRepositoryId(node.get(DATA_FIELD_ID).asLong());
+      githubRepo.setUrl(node.get(DATA_FIELD_CLONE_URL).asText());
+      githubRepo.setStargazersCount(node.get(DATA_FIELD_STARGAZERS_COUNT).asLong());
+      githubRepo.setForksCount(node.get(DATA_FIELD_FORKS_COUNT).asLong());
+      OffsetDateTime updatedDate = OffsetDateTime.parse(node.get(DATA_FIELD_PUSHED_AT).asText());
+      githubRepo.setUpdatedDate(updatedDate.toEpochSecond());
+      githubRepo.setScore(scoringStrategy.score(githubRepo.getStargazersCount(),
+              githubRepo.getForksCount(), updatedDate, scoredTime));
+      githubRepo.setScoredDate(scoredTime.toEpochSecond());
+      githubRepo.setScoreValidUntil(scoringStrategy.scoreValidUntil(githubRepo.getStargazersCount(),
+              githubRepo.getForksCount(), githubRepo.getUpdatedDate(), githubRepo.getScoredDate()));
+      githubRepo.setFingerprint(dataMapper.fingerprint(githubRepo));
+      items.add(githubRepo);
+    }
+    return items;
+  }
+
+}
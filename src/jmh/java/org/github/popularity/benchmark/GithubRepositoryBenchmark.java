@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.benchmark;
+
+import org.github.popularity.mapper.SearchCursor;
+import org.github.popularity.repo.GithubRepoPage;
+import org.github.popularity.repo.GithubRepository;
+import org.github.popularity.repo.LanguageDictionary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Database search queries against an in-memory H2 seeded with rows of all supported languages. Created date picks a
+ * wide ( most rows of the language ) or a narrow range.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class GithubRepositoryBenchmark {
+
+  private static final int PAGE_SIZE = 20;
+
+  @Param({"1000000"})
+  private int rows;
+
+  @Param({"java"})
+  private String language;
+
+  @Param({"2011-01-01", "2024-06-01"})
+  private String createdDate;
+
+  private ConfigurableApplicationContext context;
+  private GithubRepository githubRepository;
+  private Short languageCode;
+  private long createdFrom;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    context = BenchmarkData.startApplication();
+    githubRepository = context.getBean(GithubRepository.class);
+    LanguageDictionary languageDictionary = context.getBean(LanguageDictionary.class);
+    BenchmarkData.seedGithubRepos(context.getBean(JdbcTemplate.class), languageDictionary, rows);
+    // seeded rows bypass the repository, count rollups are built from them
+    githubRepository.repairCountRollups();
+    languageCode = languageDictionary.findCode(language);
+    createdFrom = LocalDate.parse(createdDate).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public GithubRepoPage fetchGithubRepoPage(Page page) {
+    return githubRepository.fetchGithubRepoPage(languageCode, createdFrom, PAGE_SIZE, page.offset);
+  }
+
+  @Benchmark
+  public GithubRepoPage fetchGithubRepoPageAfter(Page page) {
+    return githubRepository.fetchGithubRepoPageAfter(languageCode, createdFrom, page.cursor.getCreatedDate(),
+            page.cursor.getRepositoryId(), PAGE_SIZE);
+  }
+
+  @Benchmark
+  public GithubRepoPage fetchTopGithubRepoPage() {
+    return githubRepository.fetchTopGithubRepoPage(languageCode, createdFrom, PAGE_SIZE);
+  }
+
+  // only fetch depends on the page position
+  @State(Scope.Benchmark)
+  public static class Page {
+
+    @Param({"0", "50000"})
+    private int offset;
+
+    // cursor of same page as offset
+    private SearchCursor cursor;
+
+    @Setup(Level.Trial)
+    public void setup(GithubRepositoryBenchmark benchmark) {
+      cursor = offset == 0 ? new SearchCursor(Long.MIN_VALUE, Long.MIN_VALUE)
+              : SearchCursor.after(benchmark.githubRepository.fetchGithubRepoPage(benchmark.languageCode,
+              benchmark.createdFrom, 1, offset - 1).getGithubRepos().get(0));
+    }
+
+  }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.benchmark;
+
+import org.github.popularity.scoring.ScoringStrategy;
+import org.github.popularity.scoring.WeightedScoringStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScoringBenchmark {
+
+  @Param({"10000"})
+  private int batchSize;
+
+  private ScoringStrategy scoringStrategy = new WeightedScoringStrategy();
+  private long scoredDate;
+  private long[] stargazersCounts;
+  private long[] forksCounts;
+  private long[] lastUpdated;
+  private double[] scores;
+
+  @Setup
+  public void setup() {
+    // stars, forks and days since last push spread over all attribute levels
+    Random random = new Random(42);
+    scoredDate = BenchmarkData.SEED_CREATED_TO.toEpochSecond();
+    stargazersCounts = new long[batchSize];
+    forksCounts = new long[batchSize];
+    lastUpdated = new long[batchSize];
+    scores = new double[batchSize];
+    for (int i = 0; i < batchSize; i++) {
+      stargazersCounts[i] = (long) Math.pow(10, random.nextDouble() * 6);
+      forksCounts[i] = (long) Math.pow(10, random.nextDouble() * 4);
+      lastUpdated[i] = scoredDate - random.nextInt(120 * 86400);
+    }
+  }
+
+  @Benchmark
+  public double[] scoreBatch() {
+    scoringStrategy.score(stargazersCounts, forksCounts, lastUpdated, scoredDate, scores, batchSize);
+    return scores;
+  }
+
+  @Benchmark
+  public double[] scorePerRepo() {
+    for (int i = 0; i < batchSize; i++) {
+      scores[i] = scoringStrategy.score(stargazersCounts[i], forksCounts[i], lastUpdated[i], scoredDate);
+    }
+    return scores;
+  }
+
+  @Benchmark
+  public double[] scoreDateTime() {
+    // boxed date time variant used at the API boundary
+    OffsetDateTime scoredDateTime = Instant.ofEpochSecond(scoredDate).atOffset(ZoneOffset.UTC);
+    for (int i = 0; i < batchSize; i++) {
+      scores[i] = scoringStrategy.score(stargazersCounts[i], forksCounts[i],
+              Instant.ofEpochSecond(lastUpdated[i]).atOffset(ZoneOffset.UTC), scoredDateTime);
+    }
+    return scores;
+  }
+
+}
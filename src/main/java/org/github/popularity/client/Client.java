@@ -18,9 +18,12 @@ package org.github.popularity.client;
 
 import java.io.IOException;
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.concurrent.CompletableFuture;
 
 /**
- * Github Client Interface.
+ * Github Client Interface. Async variants complete on the http client's threads without tying up a caller thread
+ * per request, default implementations call the blocking variants.
  *
  * @author Kevin Ratnasekera
  */
@@ -41,4 +44,103 @@ public interface Client {
                              int offset,
                              int limit) throws IOException;
 
+  /**
+   * Send Github search query for repositories created within given window, both ends inclusive.
+   *
+   * @param language
+   * @param createdFrom
+   * @param createdTo
+   * @param page Github search page number, starts from 1
+   * @param limit
+   *
+   * @return Response
+   */
+  Response sendSearchRequest(String language,
+                             OffsetDateTime createdFrom,
+                             OffsetDateTime createdTo,
+                             int page,
+                             int limit) throws IOException;
+
+  /**
+   * Send Github search query for repositories created within given window, optionally as a conditional request
+   * which is answered with 304 Not Modified when result page did not change since last response.
+   *
+   * @param language
+   * @param createdFrom
+   * @param createdTo
+   * @param page Github search page number, starts from 1
+   * @param limit
+   * @param conditional
+   *
+   * @return Response
+   */
+  default Response sendSearchRequest(String language,
+                                     OffsetDateTime createdFrom,
+                                     OffsetDateTime createdTo,
+                                     int page,
+                                     int limit,
+                                     boolean conditional) throws IOException {
+    return sendSearchRequest(language, createdFrom, createdTo, page, limit);
+  }
+
+  /**
+   * Send Github search query for Github given below parameters without blocking.
+   *
+   * @param language
+   * @param createdDate
+   * @param offset
+   * @param limit
+   *
+   * @return CompletableFuture of Response, completed exceptionally with IOException on IO error
+   */
+  default CompletableFuture<Response> sendSearchRequestAsync(String language,
+                                                             LocalDate createdDate,
+                                                             int offset,
+                                                             int limit) {
+    CompletableFuture<Response> future = new CompletableFuture<>();
+    try {
+      future.complete(sendSearchRequest(language, createdDate, offset, limit));
+    } catch (IOException ex) {
+      future.completeExceptionally(ex);
+    }
+    return future;
+  }
+
+  /**
+   * Send Github search query for repositories created within given window without blocking, optionally as a
+   * conditional request.
+   *
+   * @param language
+   * @param createdFrom
+   * @param createdTo
+   * @param page Github search page number, starts from 1
+   * @param limit
+   * @param conditional
+   *
+   * @return CompletableFuture of Response, completed exceptionally with IOException on IO error
+   */
+  default CompletableFuture<Response> sendSearchRequestAsync(String language,
+                                                             OffsetDateTime createdFrom,
+                                                             OffsetDateTime createdTo,
+                                                             int page,
+                                                             int limit,
+                                                             boolean conditional) {
+    CompletableFuture<Response> future = new CompletableFuture<>();
+    try {
+      future.complete(sendSearchRequest(language, createdFrom, createdTo, page, limit, conditional));
+    } catch (IOException ex) {
+      future.completeExceptionally(ex);
+    }
+    return future;
+  }
+
+  /**
+   * Keep validators of a full response, so that next conditional request of same page may be answered with 304.
+   * Called once response content is stored, content lost before it is stored must be fetched in full again.
+   *
+   * @param responseValidators
+   */
+  default void storeValidators(ResponseValidators responseValidators) {
+  }
+
 }
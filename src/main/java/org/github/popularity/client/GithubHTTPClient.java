@@ -16,54 +16,235 @@
  */
 package org.github.popularity.client;
 
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import okhttp3.Request;
+import org.github.popularity.model.HttpCacheEntry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.io.IOException;
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.github.popularity.constant.GithubConstants.GITHUB_API_VERSION_KEY;
 import static org.github.popularity.constant.GithubConstants.GITHUB_API_VERSION_VALUE;
 import static org.github.popularity.constant.GithubConstants.GITHUB_API_ACCEPT_KEY;
 import static org.github.popularity.constant.GithubConstants.GITHUB_API_CONTENT_TYPE;
+import static org.github.popularity.constant.GithubConstants.GITHUB_API_ETAG_KEY;
+import static org.github.popularity.constant.GithubConstants.GITHUB_API_IF_MODIFIED_SINCE_KEY;
+import static org.github.popularity.constant.GithubConstants.GITHUB_API_IF_NONE_MATCH_KEY;
+import static org.github.popularity.constant.GithubConstants.GITHUB_API_LAST_MODIFIED_KEY;
 import static org.github.popularity.constant.GithubConstants.GITHUB_REPOSITORY_SEARCH_QUERY;
+import static org.github.popularity.constant.GithubConstants.GITHUB_REPOSITORY_WINDOW_SEARCH_QUERY;
 import static org.github.popularity.constant.GithubConstants.GITHUB_API_AUTHORIZATION_API_KEY_PREFIX;
 import static org.github.popularity.constant.GithubConstants.GITHUB_API_UNAUTHORIZED;
 import static org.github.popularity.constant.GithubConstants.GITHUB_API_AUTHORIZATION_KEY;
 
 /**
- * Github HTTP Client Implementation.
+ * Github HTTP Client Implementation. Window search requests are conditional, validators of last response are kept
+ * in the response cache and a 304 Not Modified response is returned to caller with an empty body. Success bodies
+ * are streamed, callers close a response once done with it. Async requests are queued on the OkHttp dispatcher,
+ * which limits requests in flight overall and per host.
  *
  * @author Kevin Ratnasekera
  */
 @Component
 public class GithubHTTPClient implements Client {
 
+  // Github search qualifier date time format, 'Z' avoids '+' offset being decoded as space in query string
+  private static final DateTimeFormatter SEARCH_DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'");
+
   @Value("${github.base.url}")
   private String githubBaseUrl;
 
   @Value("${github.api.key}")
   private String githubAPIKey;
 
+  @Value("${github.http.max.requests}")
+  private Integer maxRequests;
+
+  @Value("${github.http.max.requests.per.host}")
+  private Integer maxRequestsPerHost;
+
+  @Value("${github.http.connection.pool.size}")
+  private Integer connectionPoolSize;
+
+  @Value("${github.http.keep.alive.seconds}")
+  private Long keepAliveSeconds;
+
+  @Value("${github.http.connect.timeout.millis}")
+  private Long connectTimeoutMillis;
+
+  @Value("${github.http.read.timeout.millis}")
+  private Long readTimeoutMillis;
+
+  @Value("${github.http.call.timeout.millis}")
+  private Long callTimeoutMillis;
+
+  @Value("${github.http.http2.enabled}")
+  private Boolean http2Enabled;
+
+  @Autowired
+  private ResponseCache responseCache;
+
   private OkHttpClient client;
 
   @PostConstruct
   public void init() {
-    client = new OkHttpClient();
+    Dispatcher dispatcher = new Dispatcher();
+    dispatcher.setMaxRequests(maxRequests);
+    dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+    client = new OkHttpClient.Builder()
+            .dispatcher(dispatcher)
+            .connectionPool(new ConnectionPool(connectionPoolSize, keepAliveSeconds, TimeUnit.SECONDS))
+            .connectTimeout(connectTimeoutMillis, TimeUnit.MILLISECONDS)
+            .readTimeout(readTimeoutMillis, TimeUnit.MILLISECONDS)
+            .callTimeout(callTimeoutMillis, TimeUnit.MILLISECONDS)
+            // HTTP/2 is negotiated over TLS, many requests share a single connection
+            .protocols(http2Enabled ? Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                    : Collections.singletonList(Protocol.HTTP_1_1))
+            .build();
+  }
+
+  @PreDestroy
+  public void cleanUp() {
+    client.dispatcher().cancelAll();
+    client.dispatcher().executorService().shutdown();
+    client.connectionPool().evictAll();
   }
 
   public HTTPResponse sendSearchRequest(String language,
                                         LocalDate createdDate,
                                         int offset,
                                         int limit) throws IOException {
-    String url = githubBaseUrl + GITHUB_REPOSITORY_SEARCH_QUERY
+    return send(searchUrl(language, createdDate, offset, limit), null);
+  }
+
+  public HTTPResponse sendSearchRequest(String language,
+                                        OffsetDateTime createdFrom,
+                                        OffsetDateTime createdTo,
+                                        int page,
+                                        int limit) throws IOException {
+    return sendSearchRequest(language, createdFrom, createdTo, page, limit, true);
+  }
+
+  @Override
+  public HTTPResponse sendSearchRequest(String language,
+                                        OffsetDateTime createdFrom,
+                                        OffsetDateTime createdTo,
+                                        int page,
+                                        int limit,
+                                        boolean conditional) throws IOException {
+    String url = windowSearchUrl(language, createdFrom, createdTo, page, limit);
+    if (!conditional) {
+      return send(url, null);
+    }
+    HttpCacheEntry httpCacheEntry = responseCache.find(url);
+    return cached(url, httpCacheEntry, send(url, httpCacheEntry));
+  }
+
+  @Override
+  public CompletableFuture<Response> sendSearchRequestAsync(String language,
+                                                            LocalDate createdDate,
+                                                            int offset,
+                                                            int limit) {
+    return sendAsync(searchUrl(language, createdDate, offset, limit), null, false);
+  }
+
+  @Override
+  public CompletableFuture<Response> sendSearchRequestAsync(String language,
+                                                            OffsetDateTime createdFrom,
+                                                            OffsetDateTime createdTo,
+                                                            int page,
+                                                            int limit,
+                                                            boolean conditional) {
+    String url = windowSearchUrl(language, createdFrom, createdTo, page, limit);
+    return sendAsync(url, conditional ? responseCache.find(url) : null, conditional);
+  }
+
+  private String searchUrl(String language,
+                           LocalDate createdDate,
+                           int offset,
+                           int limit) {
+    return githubBaseUrl + GITHUB_REPOSITORY_SEARCH_QUERY
             .replace("{language}", language)
             .replace("{date}", createdDate.toString())
             .replace("{limit}", String.valueOf(limit))
             .replace("{offset}", String.valueOf(offset));
+  }
+
+  private String windowSearchUrl(String language,
+                                 OffsetDateTime createdFrom,
+                                 OffsetDateTime createdTo,
+                                 int page,
+                                 int limit) {
+    return githubBaseUrl + GITHUB_REPOSITORY_WINDOW_SEARCH_QUERY
+            .replace("{language}", language)
+            .replace("{from}", SEARCH_DATE_TIME_FORMAT.format(createdFrom.withOffsetSameInstant(ZoneOffset.UTC)))
+            .replace("{to}", SEARCH_DATE_TIME_FORMAT.format(createdTo.withOffsetSameInstant(ZoneOffset.UTC)))
+            .replace("{limit}", String.valueOf(limit))
+            .replace("{offset}", String.valueOf(page));
+  }
+
+  @Override
+  public void storeValidators(ResponseValidators responseValidators) {
+    responseCache.store(responseValidators.getUrl(), responseValidators.getEtag(),
+            responseValidators.getLastModified(), responseValidators.getContentLength());
+  }
+
+  // record cache hit on 304, a 200 response carries its validators until caller has stored its content
+  private HTTPResponse cached(String url, HttpCacheEntry httpCacheEntry, HTTPResponse response) {
+    if (response.getStatus() == HttpStatus.NOT_MODIFIED.value() && Objects.nonNull(httpCacheEntry)) {
+      responseCache.hit(httpCacheEntry);
+    } else if (response.getStatus() == HttpStatus.OK.value()) {
+      response.setValidators(url, response.getHeader(GITHUB_API_ETAG_KEY),
+              response.getHeader(GITHUB_API_LAST_MODIFIED_KEY));
+    }
+    return response;
+  }
+
+  private HTTPResponse send(String url, HttpCacheEntry httpCacheEntry) throws IOException {
+    return new HTTPResponse(client.newCall(request(url, httpCacheEntry)).execute());
+  }
+
+  private CompletableFuture<Response> sendAsync(String url, HttpCacheEntry httpCacheEntry, boolean conditional) {
+    CompletableFuture<Response> future = new CompletableFuture<>();
+    client.newCall(request(url, httpCacheEntry)).enqueue(new Callback() {
+      @Override
+      public void onFailure(Call call, IOException ex) {
+        future.completeExceptionally(ex);
+      }
+
+      @Override
+      public void onResponse(Call call, okhttp3.Response response) {
+        try {
+          HTTPResponse httpResponse = new HTTPResponse(response);
+          future.complete(conditional ? cached(url, httpCacheEntry, httpResponse) : httpResponse);
+        } catch (IOException | RuntimeException ex) {
+          future.completeExceptionally(ex);
+        }
+      }
+    });
+    return future;
+  }
+
+  private Request request(String url, HttpCacheEntry httpCacheEntry) {
     Request.Builder requestBuilder = new Request.Builder()
             .addHeader(GITHUB_API_VERSION_KEY, GITHUB_API_VERSION_VALUE)
             .addHeader(GITHUB_API_ACCEPT_KEY, GITHUB_API_CONTENT_TYPE);
@@ -71,10 +252,17 @@ public class GithubHTTPClient implements Client {
       requestBuilder.addHeader(GITHUB_API_AUTHORIZATION_KEY,
               GITHUB_API_AUTHORIZATION_API_KEY_PREFIX + githubAPIKey);
     }
-    Request request = requestBuilder
+    if (Objects.nonNull(httpCacheEntry)) {
+      if (Objects.nonNull(httpCacheEntry.getEtag())) {
+        requestBuilder.addHeader(GITHUB_API_IF_NONE_MATCH_KEY, httpCacheEntry.getEtag());
+      }
+      if (Objects.nonNull(httpCacheEntry.getLastModified())) {
+        requestBuilder.addHeader(GITHUB_API_IF_MODIFIED_SINCE_KEY, httpCacheEntry.getLastModified());
+      }
+    }
+    return requestBuilder
             .url(url)
             .build();
-    return new HTTPResponse(client.newCall(request).execute());
   }
 
 }
@@ -16,11 +16,16 @@
  */
 package org.github.popularity.client;
 
-
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
 
 /**
- * Github HTTP Client Response Implementation.
+ * Github HTTP Client Response Implementation. Success bodies are streamed from the connection when read, error and
+ * not modified bodies are small and read right away so that their connection is released.
  *
  * @author Kevin Ratnasekera
  */
@@ -28,17 +33,37 @@ public class HTTPResponse implements Response {
 
   private okhttp3.Response response;
   private String body;
+  // nullable, validators of a conditional success response
+  private String validatorsUrl;
+  private String etag;
+  private String lastModified;
+  // size of a success body once it has been read to its end
+  private long contentLength = -1;
 
   public HTTPResponse(okhttp3.Response response) throws IOException {
     this.response = response;
-    this.body = response.body().string();
+    if (!response.isSuccessful()) {
+      this.body = response.body().string();
+    }
   }
 
   @Override
-  public String getBody() {
+  public String getBody() throws IOException {
+    if (Objects.isNull(body)) {
+      body = response.body().string();
+      bodyRead(body.getBytes(StandardCharsets.UTF_8).length);
+    }
     return body;
   }
 
+  @Override
+  public InputStream getBodyStream() {
+    if (Objects.nonNull(body)) {
+      return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+    return new CountingInputStream(response.body().byteStream());
+  }
+
   @Override
   public int getStatus() {
     return response.code();
@@ -49,4 +74,72 @@ public class HTTPResponse implements Response {
     return response.headers().get(key);
   }
 
+  @Override
+  public void close() {
+    response.close();
+  }
+
+  @Override
+  public ResponseValidators getValidators() {
+    if (Objects.isNull(validatorsUrl) || contentLength < 0) {
+      return null;
+    }
+    return new ResponseValidators(validatorsUrl, etag, lastModified, contentLength);
+  }
+
+  void setValidators(String url, String etag, String lastModified) {
+    this.validatorsUrl = url;
+    this.etag = etag;
+    this.lastModified = lastModified;
+  }
+
+  private void bodyRead(long contentLength) {
+    this.contentLength = contentLength;
+  }
+
+  // counts bytes of a streamed body, closing it releases the connection
+  private class CountingInputStream extends FilterInputStream {
+
+    private long count;
+
+    CountingInputStream(InputStream inputStream) {
+      super(inputStream);
+    }
+
+    @Override
+    public int read() throws IOException {
+      int value = super.read();
+      if (value < 0) {
+        bodyRead(count);
+      } else {
+        count++;
+      }
+      return value;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      int read = super.read(buffer, offset, length);
+      if (read < 0) {
+        bodyRead(count);
+      } else {
+        count += read;
+      }
+      return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long skipped = super.skip(n);
+      count += skipped;
+      return skipped;
+    }
+
+    @Override
+    public void close() {
+      response.close();
+    }
+
+  }
+
 }
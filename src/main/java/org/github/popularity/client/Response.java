@@ -16,14 +16,19 @@
  */
 package org.github.popularity.client;
 
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 
 /**
- * Github search API Response.
+ * Github search API Response. Body may be streamed from the connection, a response is closed once its body is
+ * no longer needed.
  *
  * @author Kevin Ratnasekera
  */
-public interface Response {
+public interface Response extends Closeable {
 
   /**
    * Return Github Search response Body.
@@ -32,6 +37,15 @@ public interface Response {
    */
   String getBody() throws IOException;
 
+  /**
+   * Return Github Search response Body as a stream, body can be read only once.
+   *
+   * @return InputStream
+   */
+  default InputStream getBodyStream() throws IOException {
+    return new ByteArrayInputStream(getBody().getBytes(StandardCharsets.UTF_8));
+  }
+
   /**
    * Return Github Search response status.
    *
@@ -46,4 +60,20 @@ public interface Response {
    */
   String getHeader(String key);
 
+  /**
+   * Return validators of a conditional success response whose body has been read to its end.
+   *
+   * @return ResponseValidators, null if response is not cached or body is not fully read.
+   */
+  default ResponseValidators getValidators() {
+    return null;
+  }
+
+  /**
+   * Release connection held by a response body which has not been read.
+   */
+  @Override
+  default void close() {
+  }
+
 }
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.client;
+
+import org.github.popularity.model.HttpCacheEntry;
+import org.github.popularity.repo.HttpCacheEntryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ETag / Last-Modified validators of Github responses per request URL, persisted so that they survive restarts.
+ * Unchanged pages are answered with 304 Not Modified, which Github does not count against the rate limit.
+ *
+ * @author Kevin Ratnasekera
+ */
+@Component
+public class ResponseCache {
+
+  @Autowired
+  private HttpCacheEntryRepository httpCacheEntryRepository;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong bytesSaved = new AtomicLong();
+
+  /**
+   * Find validators of last response of given URL.
+   *
+   * @param url
+   *
+   * @return HttpCacheEntry, null if URL never cached.
+   */
+  public HttpCacheEntry find(String url) {
+    return httpCacheEntryRepository.findByUrl(url);
+  }
+
+  /**
+   * Record a not modified response of given cached entry.
+   *
+   * @param httpCacheEntry
+   */
+  public void hit(HttpCacheEntry httpCacheEntry) {
+    hits.incrementAndGet();
+    if (Objects.nonNull(httpCacheEntry.getContentLength())) {
+      bytesSaved.addAndGet(httpCacheEntry.getContentLength());
+    }
+  }
+
+  /**
+   * Record a full response of given URL and store its validators, if any.
+   *
+   * @param url
+   * @param etag
+   * @param lastModified
+   * @param contentLength
+   */
+  public void store(String url, String etag, String lastModified, long contentLength) {
+    misses.incrementAndGet();
+    if (Objects.isNull(etag) && Objects.isNull(lastModified)) {
+      return;
+    }
+    HttpCacheEntry httpCacheEntry = httpCacheEntryRepository.findByUrl(url);
+    if (Objects.isNull(httpCacheEntry)) {
+      httpCacheEntry = new HttpCacheEntry();
+      httpCacheEntry.setUrl(url);
+    }
+    httpCacheEntry.setEtag(etag);
+    httpCacheEntry.setLastModified(lastModified);
+    httpCacheEntry.setContentLength(contentLength);
+    httpCacheEntry.setUpdatedDate(OffsetDateTime.now(ZoneOffset.UTC));
+    try {
+      httpCacheEntryRepository.save(httpCacheEntry);
+    } catch (DataIntegrityViolationException ex) {
+      // same URL stored concurrently, either validator is good for next request
+    }
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  public long getBytesSaved() {
+    return bytesSaved.get();
+  }
+
+  public double getHitRatio() {
+    long lookups = hits.get() + misses.get();
+    return lookups == 0 ? 0 : hits.get() / (double) lookups;
+  }
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.client;
+
+/**
+ * ETag / Last-Modified validators of a full response, kept by response cache once response content is stored.
+ *
+ * @author Kevin Ratnasekera
+ */
+public class ResponseValidators {
+
+  private final String url;
+  private final String etag;
+  private final String lastModified;
+  private final long contentLength;
+
+  public ResponseValidators(String url, String etag, String lastModified, long contentLength) {
+    this.url = url;
+    this.etag = etag;
+    this.lastModified = lastModified;
+    this.contentLength = contentLength;
+  }
+
+  public String getUrl() {
+    return url;
+  }
+
+  public String getEtag() {
+    return etag;
+  }
+
+  public String getLastModified() {
+    return lastModified;
+  }
+
+  public long getContentLength() {
+    return contentLength;
+  }
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import static org.github.popularity.constant.GithubConstants.SERVER_POOL_GRACEFUL_TERMINATION_DURATION;
+
+/**
+ * Executors managed by the application context, shut down with the context.
+ *
+ * @author Kevin Ratnasekera
+ */
+@Configuration
+public class ExecutorConfig {
+
+  @Value("${github.ingestion.job.pool.size}")
+  private Integer ingestionJobPoolSize;
+
+  /**
+   * Executor of background data fetch jobs, jobs beyond pool size wait in queue. Running jobs are interrupted
+   * on shutdown so that they stop at a checkpoint.
+   *
+   * @return ThreadPoolTaskExecutor
+   */
+  @Bean
+  public ThreadPoolTaskExecutor ingestionJobExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(ingestionJobPoolSize);
+    executor.setMaxPoolSize(ingestionJobPoolSize);
+    executor.setThreadNamePrefix("ingestion-job-");
+    executor.setWaitForTasksToCompleteOnShutdown(false);
+    executor.setAwaitTerminationSeconds(SERVER_POOL_GRACEFUL_TERMINATION_DURATION);
+    return executor;
+  }
+
+}
@@ -25,6 +25,7 @@ public class GithubConstants {
 
   // github api
   public static final String GITHUB_REPOSITORY_SEARCH_QUERY = "/search/repositories?q=language:{language}+created:>{date}&page={offset}&per_page={limit}&sort=updated&order=desc";
+  public static final String GITHUB_REPOSITORY_WINDOW_SEARCH_QUERY = "/search/repositories?q=language:{language}+created:{from}..{to}&page={offset}&per_page={limit}&sort=updated&order=desc";
   public static final String GITHUB_API_VERSION_KEY = "X-GitHub-Api-Version";
   public static final String GITHUB_API_VERSION_VALUE = "2022-11-28";
   public static final String GITHUB_API_CONTENT_TYPE = "application/vnd.github+json";
@@ -32,11 +33,26 @@ public class GithubConstants {
   public static final String GITHUB_API_AUTHORIZATION_API_KEY_PREFIX = "Bearer ";
   public static final String GITHUB_API_ACCEPT_KEY = "Accept";
   public static final String GITHUB_API_UNAUTHORIZED = "unauthorized";
+  public static final String GITHUB_API_ETAG_KEY = "ETag";
+  public static final String GITHUB_API_LAST_MODIFIED_KEY = "Last-Modified";
+  public static final String GITHUB_API_IF_NONE_MATCH_KEY = "If-None-Match";
+  public static final String GITHUB_API_IF_MODIFIED_SINCE_KEY = "If-Modified-Since";
+  public static final String GITHUB_API_RETRY_AFTER_KEY = "Retry-After";
+  public static final String GITHUB_API_RATE_LIMIT_REMAINING_KEY = "x-ratelimit-remaining";
+  public static final String GITHUB_API_RATE_LIMIT_RESET_KEY = "x-ratelimit-reset";
 
   // data fetch
   public static final int GITHUB_SEARCH_PAGE_SIZE = 100;
-  public static final Integer SERVER_POOL_SIZE = 1;
+  public static final int GITHUB_SEARCH_RESULT_CAP = 1000;
+  public static final double GITHUB_SEARCH_WINDOW_SPLIT_HEADROOM = 1.25;
+  public static final int GITHUB_SEARCH_WINDOW_MAX_SPLIT = 16;
+  public static final Integer SCHEDULER_TICK_SECONDS = 60;
+  public static final int INGESTION_JOB_HISTORY_SIZE = 100;
+  public static final int MAX_INGESTION_JOB_CONCURRENCY = 16;
   public static final Integer SERVER_POOL_GRACEFUL_TERMINATION_DURATION = 10;
+  public static final int GITHUB_RATE_LIMIT_RESET_GRACE_SECONDS = 1;
+  public static final int GITHUB_RATE_LIMIT_MAX_RETRIES = 3;
+  public static final int GITHUB_SECONDARY_RATE_LIMIT_WAIT_SECONDS = 60;
 
   // popularity score api
   public static final int MAX_API_PAGE_SIZE = 30;
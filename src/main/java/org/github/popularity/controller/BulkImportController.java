@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.controller;
+
+import org.github.popularity.dto.BulkImportRequestDTO;
+import org.github.popularity.exception.BadRequestException;
+import org.github.popularity.mapper.DataMapper;
+import org.github.popularity.worker.IngestionJob;
+import org.github.popularity.worker.IngestionJobManager;
+import org.github.popularity.worker.RateLimitBudget;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Objects;
+
+/**
+ * Admin endpoint to bulk import Github repo dumps from the import directory. Imports run as background jobs, tracked,
+ * paused and cancelled through the ingestion jobs endpoints.
+ *
+ * @author Kevin Ratnasekera
+ */
+@RestController
+@RequestMapping(path = "/api/v1/ingestion/imports")
+public class BulkImportController {
+
+  private Logger logger = LoggerFactory.getLogger(BulkImportController.class);
+
+  // components
+  @Autowired
+  private IngestionJobManager ingestionJobManager;
+  @Autowired
+  private DataMapper dataMapper;
+  @Autowired
+  private RateLimitBudget rateLimitBudget;
+
+  @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity importFile(@RequestBody BulkImportRequestDTO request) {
+    logger.info("Bulk import request received. file: {}", request.getFile());
+    if (Objects.isNull(request.getFile()) || request.getFile().trim().isEmpty()) {
+      throw new BadRequestException("Request validations failed.");
+    }
+    IngestionJob ingestionJob = ingestionJobManager.submitImport(request.getFile());
+    return ResponseEntity.status(HttpStatus.ACCEPTED).body(dataMapper.toIngestionJobDTO(ingestionJob, rateLimitBudget));
+  }
+
+}
@@ -16,13 +16,16 @@
  */
 package org.github.popularity.controller;
 
-import org.github.popularity.client.Client;
+import org.github.popularity.client.ResponseCache;
 import org.github.popularity.exception.BadRequestException;
 import org.github.popularity.mapper.DataMapper;
-import org.github.popularity.model.Language;
-import org.github.popularity.repo.GithubRepository;
+import org.github.popularity.mapper.ScoreCursor;
+import org.github.popularity.mapper.SearchCursor;
+import org.github.popularity.repo.LanguageDictionary;
 import org.github.popularity.service.GithubRepoDataService;
-import org.github.popularity.worker.GithubDataProcessor;
+import org.github.popularity.worker.IngestionMetrics;
+import org.github.popularity.worker.IngestionScheduler;
+import org.github.popularity.worker.RateLimitBudget;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,17 +40,15 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import javax.annotation.PostConstruct;
-import javax.annotation.PreDestroy;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 import static org.github.popularity.constant.GithubConstants.MAX_API_PAGE_SIZE;
-import static org.github.popularity.constant.GithubConstants.SERVER_POOL_GRACEFUL_TERMINATION_DURATION;
-import static org.github.popularity.constant.GithubConstants.SERVER_POOL_SIZE;
 
 /**
  * Github Repository Data Controller.
@@ -64,67 +65,111 @@ public class GithubRepoDataController {
   @Autowired
   private GithubRepoDataService githubRepoDataService;
   @Autowired
-  private GithubRepository githubRepository;
-  @Autowired
-  private Client client;
+  private IngestionScheduler ingestionScheduler;
   @Autowired
   private DataMapper dataMapper;
+  @Autowired
+  private RateLimitBudget rateLimitBudget;
+  @Autowired
+  private IngestionMetrics ingestionMetrics;
+  @Autowired
+  private ResponseCache responseCache;
+  @Autowired
+  private LanguageDictionary languageDictionary;
 
   // env variables
-  @Value("${github.search.language}")
-  private String githubSearchLanguage;
+  @Value("${github.search.languages}")
+  private String githubSearchLanguages;
   @Value("${github.search.created.date}")
   private String githubSearchCreatedDate;
   @Value("${github.data.fetch.enabled}")
   private Boolean githubDataFetchEnabled;
 
-  // thread pool to execute background data fetch
-  private ExecutorService serverThreadPool;
-
   @PostConstruct
   public void init() {
-    this.serverThreadPool = Executors.newFixedThreadPool(SERVER_POOL_SIZE);
-    if (Objects.nonNull(DateTimeFormatter.ISO_LOCAL_DATE.parse(githubSearchCreatedDate)) &&
-            Objects.nonNull(Language.convert(githubSearchLanguage)) && githubDataFetchEnabled) {
-      GithubDataProcessor githubDataProcessor = new GithubDataProcessor(githubRepository, client, dataMapper,
-              githubSearchLanguage, githubSearchCreatedDate);
-      this.serverThreadPool.submit(githubDataProcessor);
+    List<String> languages = Arrays.stream(githubSearchLanguages.split(","))
+            .map(String::trim)
+            .filter(language -> !language.isEmpty())
+            .collect(Collectors.toList());
+    if (Objects.isNull(DateTimeFormatter.ISO_LOCAL_DATE.parse(githubSearchCreatedDate)) || !githubDataFetchEnabled) {
+      return;
     }
-  }
-
-  @PreDestroy
-  public void cleanUp() {
-    try {
-      this.serverThreadPool.awaitTermination(SERVER_POOL_GRACEFUL_TERMINATION_DURATION, TimeUnit.SECONDS);
-    } catch (InterruptedException e) {
-      logger.error("Waiting on termination interrupted for thread pool serverThreadPool.", e);
+    List<String> unsupported = languages.stream()
+            .filter(language -> !languageDictionary.isSupported(language))
+            .collect(Collectors.toList());
+    if (!unsupported.isEmpty()) {
+      // other configured languages are still fetched
+      logger.error("Languages {} are not supported, skipping them from background data fetch. Add them to " +
+              "SEARCH_SUPPORTED_LANGUAGES to fetch them.", unsupported);
+      languages.removeAll(unsupported);
+    }
+    if (!languages.isEmpty()) {
+      ingestionScheduler.start(languages, githubSearchCreatedDate);
     }
   }
 
   @GetMapping(path = "/search/repositories", produces = MediaType.APPLICATION_JSON_VALUE)
   public ResponseEntity searchRepositoriesDatabase(@RequestParam("language") String language,
                                                    @RequestParam("createdDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdDate,
-                                                   @RequestParam("offset") int offset,
-                                                   @RequestParam("limit") int limit) {
-    logger.info("Client request received for async endpoint. language: {} created date: {} offset: {} limit: {}", language, createdDate, offset, limit);
+                                                   @RequestParam(value = "offset", defaultValue = "0") int offset,
+                                                   @RequestParam("limit") int limit,
+                                                   @RequestParam(value = "cursor", required = false) String cursor) {
+    logger.info("Client request received for async endpoint. language: {} created date: {} offset: {} limit: {} cursor: {}", language, createdDate, offset, limit, cursor);
     validateParameters(language, createdDate, limit);
+    if (Objects.nonNull(cursor)) {
+      return ResponseEntity.ok(githubRepoDataService.searchFromDatabase(language, createdDate, toSearchCursor(cursor), limit));
+    }
     return ResponseEntity.ok(githubRepoDataService.searchFromDatabase(language, createdDate, offset, limit));
   }
 
+  @GetMapping(path = "/search/repositories/top", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity searchTopRepositoriesDatabase(@RequestParam("language") String language,
+                                                      @RequestParam("createdDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdDate,
+                                                      @RequestParam("limit") int limit,
+                                                      @RequestParam(value = "cursor", required = false) String cursor) {
+    logger.info("Client request received for top endpoint. language: {} created date: {} limit: {} cursor: {}", language, createdDate, limit, cursor);
+    validateParameters(language, createdDate, limit);
+    if (Objects.nonNull(cursor)) {
+      return ResponseEntity.ok(githubRepoDataService.searchTopFromDatabase(language, createdDate, toScoreCursor(cursor), limit));
+    }
+    return ResponseEntity.ok(githubRepoDataService.searchTopFromDatabase(language, createdDate, limit));
+  }
+
   @GetMapping(path = "/search/repositories/sync", produces = MediaType.APPLICATION_JSON_VALUE)
-  public ResponseEntity searchRepositoriesAPI(@RequestParam("language") String language,
-                                              @RequestParam("createdDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdDate,
-                                              @RequestParam("offset") int offset,
-                                              @RequestParam("limit") int limit) {
+  public CompletableFuture<ResponseEntity> searchRepositoriesAPI(@RequestParam("language") String language,
+                                                                 @RequestParam("createdDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdDate,
+                                                                 @RequestParam("offset") int offset,
+                                                                 @RequestParam("limit") int limit) {
     logger.info("Client request received for sync endpoint. language: {} created date:  {} offset: {} limit: {}", language, createdDate, offset, limit);
     validateParameters(language, createdDate, limit);
-    return ResponseEntity.ok(githubRepoDataService.searchFromAPI(language, createdDate, offset, limit));
+    return githubRepoDataService.searchFromAPI(language, createdDate, offset, limit).thenApply(ResponseEntity::ok);
+  }
+
+  @GetMapping(path = "/ingestion/metrics", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity ingestionMetrics() {
+    return ResponseEntity.ok(dataMapper.toIngestionMetricsDTO(ingestionMetrics, rateLimitBudget, responseCache));
+  }
+
+  private SearchCursor toSearchCursor(String cursor) {
+    try {
+      return SearchCursor.decode(cursor);
+    } catch (IllegalArgumentException ex) {
+      throw new BadRequestException("Request validations failed.");
+    }
+  }
+
+  private ScoreCursor toScoreCursor(String cursor) {
+    try {
+      return ScoreCursor.decode(cursor);
+    } catch (IllegalArgumentException ex) {
+      throw new BadRequestException("Request validations failed.");
+    }
   }
 
   private void validateParameters(String language,
                                   LocalDate createdDate,
                                   int limit) {
-    if (Objects.isNull(Language.convert(language))
+    if (!languageDictionary.isSupported(language)
             || Objects.isNull(createdDate)
             || limit > MAX_API_PAGE_SIZE) {
       // improve error message so that client aware what went wrong.
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.controller;
+
+import org.github.popularity.dto.IngestionJobRequestDTO;
+import org.github.popularity.exception.BadRequestException;
+import org.github.popularity.exception.NotFoundException;
+import org.github.popularity.mapper.DataMapper;
+import org.github.popularity.repo.LanguageDictionary;
+import org.github.popularity.worker.IngestionJob;
+import org.github.popularity.worker.IngestionJobManager;
+import org.github.popularity.worker.RateLimitBudget;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import static org.github.popularity.constant.GithubConstants.MAX_INGESTION_JOB_CONCURRENCY;
+
+/**
+ * Admin endpoints to submit, list, pause and cancel background data fetch jobs.
+ *
+ * @author Kevin Ratnasekera
+ */
+@RestController
+@RequestMapping(path = "/api/v1/ingestion/jobs")
+public class IngestionJobController {
+
+  private Logger logger = LoggerFactory.getLogger(IngestionJobController.class);
+
+  // components
+  @Autowired
+  private IngestionJobManager ingestionJobManager;
+  @Autowired
+  private DataMapper dataMapper;
+  @Autowired
+  private RateLimitBudget rateLimitBudget;
+  @Autowired
+  private LanguageDictionary languageDictionary;
+
+  @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity submitJob(@RequestBody IngestionJobRequestDTO request) {
+    logger.info("Ingestion job request received. language: {} created from: {} created to: {} concurrency: {}",
+            request.getLanguage(), request.getCreatedFrom(), request.getCreatedTo(), request.getConcurrency());
+    validateRequest(request);
+    OffsetDateTime createdFrom = request.getCreatedFrom().atStartOfDay().atOffset(ZoneOffset.UTC);
+    // created to date is inclusive
+    OffsetDateTime createdTo = Objects.isNull(request.getCreatedTo()) ? null
+            : request.getCreatedTo().plusDays(1).atStartOfDay().atOffset(ZoneOffset.UTC).minusSeconds(1);
+    IngestionJob ingestionJob = ingestionJobManager.submit(request.getLanguage(),
+            createdFrom, createdTo, request.getConcurrency());
+    return ResponseEntity.status(HttpStatus.ACCEPTED).body(dataMapper.toIngestionJobDTO(ingestionJob, rateLimitBudget));
+  }
+
+  @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity listJobs() {
+    return ResponseEntity.ok(ingestionJobManager.list().stream()
+            .map(ingestionJob -> dataMapper.toIngestionJobDTO(ingestionJob, rateLimitBudget))
+            .collect(Collectors.toList()));
+  }
+
+  @GetMapping(path = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity getJob(@PathVariable("id") long id) {
+    return ResponseEntity.ok(dataMapper.toIngestionJobDTO(found(id, ingestionJobManager.find(id)), rateLimitBudget));
+  }
+
+  @PostMapping(path = "/{id}/pause", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity pauseJob(@PathVariable("id") long id) {
+    return ResponseEntity.ok(dataMapper.toIngestionJobDTO(found(id, ingestionJobManager.pause(id)), rateLimitBudget));
+  }
+
+  @PostMapping(path = "/{id}/resume", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity resumeJob(@PathVariable("id") long id) {
+    return ResponseEntity.ok(dataMapper.toIngestionJobDTO(found(id, ingestionJobManager.resume(id)), rateLimitBudget));
+  }
+
+  @DeleteMapping(path = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity cancelJob(@PathVariable("id") long id) {
+    return ResponseEntity.ok(dataMapper.toIngestionJobDTO(found(id, ingestionJobManager.cancel(id)), rateLimitBudget));
+  }
+
+  private IngestionJob found(long id,
+                             IngestionJob ingestionJob) {
+    if (Objects.isNull(ingestionJob)) {
+      throw new NotFoundException("Ingestion job " + id + " not found.");
+    }
+    return ingestionJob;
+  }
+
+  private void validateRequest(IngestionJobRequestDTO request) {
+    if (!languageDictionary.isSupported(request.getLanguage())
+            || Objects.isNull(request.getCreatedFrom())
+            || (Objects.nonNull(request.getCreatedTo()) && request.getCreatedTo().isBefore(request.getCreatedFrom()))
+            || (Objects.nonNull(request.getConcurrency())
+            && (request.getConcurrency() < 1 || request.getConcurrency() > MAX_INGESTION_JOB_CONCURRENCY))) {
+      throw new BadRequestException("Request validations failed.");
+    }
+  }
+
+}
@@ -16,6 +16,8 @@
  */
 package org.github.popularity.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
 /**
@@ -27,6 +29,9 @@ public class GithubSearchResponseDTO {
 
   private Long totalCount;
   private List<GithubRepoDTO> items;
+  // continuation token of next page, only for database search when page is full
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private String nextCursor;
 
   public Long getTotalCount() {
     return totalCount;
@@ -44,4 +49,12 @@ public class GithubSearchResponseDTO {
     this.items = items;
   }
 
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  public void setNextCursor(String nextCursor) {
+    this.nextCursor = nextCursor;
+  }
+
 }
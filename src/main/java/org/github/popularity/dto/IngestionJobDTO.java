@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Background data fetch or bulk import job response DTO, fields of the other kind of job are left out.
+ *
+ * @author Kevin Ratnasekera
+ */
+public class IngestionJobDTO {
+
+  private Long id;
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private String language;
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private String importFile;
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private OffsetDateTime createdFrom;
+  private OffsetDateTime createdTo;
+  private Integer concurrency;
+  private String status;
+  private Long pagesDone;
+  private Long pagesTotal;
+  private Long reposIngested;
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private Long failedLines;
+  private Double reposPerSecond;
+  private Long etaSeconds;
+  private Long rateLimitRemaining;
+  private Long rateLimitReset;
+  private OffsetDateTime submittedDate;
+  private OffsetDateTime startedDate;
+  private OffsetDateTime finishedDate;
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public String getLanguage() {
+    return language;
+  }
+
+  public void setLanguage(String language) {
+    this.language = language;
+  }
+
+  public String getImportFile() {
+    return importFile;
+  }
+
+  public void setImportFile(String importFile) {
+    this.importFile = importFile;
+  }
+
+  public OffsetDateTime getCreatedFrom() {
+    return createdFrom;
+  }
+
+  public void setCreatedFrom(OffsetDateTime createdFrom) {
+    this.createdFrom = createdFrom;
+  }
+
+  public OffsetDateTime getCreatedTo() {
+    return createdTo;
+  }
+
+  public void setCreatedTo(OffsetDateTime createdTo) {
+    this.createdTo = createdTo;
+  }
+
+  public Integer getConcurrency() {
+    return concurrency;
+  }
+
+  public void setConcurrency(Integer concurrency) {
+    this.concurrency = concurrency;
+  }
+
+  public String getStatus() {
+    return status;
+  }
+
+  public void setStatus(String status) {
+    this.status = status;
+  }
+
+  public Long getPagesDone() {
+    return pagesDone;
+  }
+
+  public void setPagesDone(Long pagesDone) {
+    this.pagesDone = pagesDone;
+  }
+
+  public Long getPagesTotal() {
+    return pagesTotal;
+  }
+
+  public void setPagesTotal(Long pagesTotal) {
+    this.pagesTotal = pagesTotal;
+  }
+
+  public Long getReposIngested() {
+    return reposIngested;
+  }
+
+  public void setReposIngested(Long reposIngested) {
+    this.reposIngested = reposIngested;
+  }
+
+  public Long getFailedLines() {
+    return failedLines;
+  }
+
+  public void setFailedLines(Long failedLines) {
+    this.failedLines = failedLines;
+  }
+
+  public Double getReposPerSecond() {
+    return reposPerSecond;
+  }
+
+  public void setReposPerSecond(Double reposPerSecond) {
+    this.reposPerSecond = reposPerSecond;
+  }
+
+  public Long getEtaSeconds() {
+    return etaSeconds;
+  }
+
+  public void setEtaSeconds(Long etaSeconds) {
+    this.etaSeconds = etaSeconds;
+  }
+
+  public Long getRateLimitRemaining() {
+    return rateLimitRemaining;
+  }
+
+  public void setRateLimitRemaining(Long rateLimitRemaining) {
+    this.rateLimitRemaining = rateLimitRemaining;
+  }
+
+  public Long getRateLimitReset() {
+    return rateLimitReset;
+  }
+
+  public void setRateLimitReset(Long rateLimitReset) {
+    this.rateLimitReset = rateLimitReset;
+  }
+
+  public OffsetDateTime getSubmittedDate() {
+    return submittedDate;
+  }
+
+  public void setSubmittedDate(OffsetDateTime submittedDate) {
+    this.submittedDate = submittedDate;
+  }
+
+  public OffsetDateTime getStartedDate() {
+    return startedDate;
+  }
+
+  public void setStartedDate(OffsetDateTime startedDate) {
+    this.startedDate = startedDate;
+  }
+
+  public OffsetDateTime getFinishedDate() {
+    return finishedDate;
+  }
+
+  public void setFinishedDate(OffsetDateTime finishedDate) {
+    this.finishedDate = finishedDate;
+  }
+
+}
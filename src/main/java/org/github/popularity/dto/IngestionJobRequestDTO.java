@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Background data fetch job submission request DTO.
+ *
+ * @author Kevin Ratnasekera
+ */
+public class IngestionJobRequestDTO {
+
+  private String language;
+  private LocalDate createdFrom;
+  private LocalDate createdTo;
+  private Integer concurrency;
+
+  public String getLanguage() {
+    return language;
+  }
+
+  public void setLanguage(String language) {
+    this.language = language;
+  }
+
+  public LocalDate getCreatedFrom() {
+    return createdFrom;
+  }
+
+  public void setCreatedFrom(LocalDate createdFrom) {
+    this.createdFrom = createdFrom;
+  }
+
+  public LocalDate getCreatedTo() {
+    return createdTo;
+  }
+
+  public void setCreatedTo(LocalDate createdTo) {
+    this.createdTo = createdTo;
+  }
+
+  public Integer getConcurrency() {
+    return concurrency;
+  }
+
+  public void setConcurrency(Integer concurrency) {
+    this.concurrency = concurrency;
+  }
+
+}
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.dto;
+
+/**
+ * Background data fetch metrics response DTO.
+ *
+ * @author Kevin Ratnasekera
+ */
+public class IngestionMetricsDTO {
+
+  private Long pagesFetched;
+  private Long reposIngested;
+  private Double reposPerMinute;
+  private Long rateLimitHits;
+  private Long failedPages;
+  private Long rateLimitRemaining;
+  private Long rateLimitReset;
+  private Long retriedRequests;
+  private Long deadLetterPages;
+  private Long unchangedPages;
+  private Long unchangedRowsSkipped;
+  private Double cacheHitRatio;
+  private Long cacheBytesSaved;
+  private Long rowsRescored;
+  private Double rescoreRowsPerSecond;
+
+  public Long getPagesFetched() {
+    return pagesFetched;
+  }
+
+  public void setPagesFetched(Long pagesFetched) {
+    this.pagesFetched = pagesFetched;
+  }
+
+  public Long getReposIngested() {
+    return reposIngested;
+  }
+
+  public void setReposIngested(Long reposIngested) {
+    this.reposIngested = reposIngested;
+  }
+
+  public Double getReposPerMinute() {
+    return reposPerMinute;
+  }
+
+  public void setReposPerMinute(Double reposPerMinute) {
+    this.reposPerMinute = reposPerMinute;
+  }
+
+  public Long getRateLimitHits() {
+    return rateLimitHits;
+  }
+
+  public void setRateLimitHits(Long rateLimitHits) {
+    this.rateLimitHits = rateLimitHits;
+  }
+
+  public Long getFailedPages() {
+    return failedPages;
+  }
+
+  public void setFailedPages(Long failedPages) {
+    this.failedPages = failedPages;
+  }
+
+  public Long getRateLimitRemaining() {
+    return rateLimitRemaining;
+  }
+
+  public void setRateLimitRemaining(Long rateLimitRemaining) {
+    this.rateLimitRemaining = rateLimitRemaining;
+  }
+
+  public Long getRateLimitReset() {
+    return rateLimitReset;
+  }
+
+  public void setRateLimitReset(Long rateLimitReset) {
+    this.rateLimitReset = rateLimitReset;
+  }
+
+  public Long getRetriedRequests() {
+    return retriedRequests;
+  }
+
+  public void setRetriedRequests(Long retriedRequests) {
+    this.retriedRequests = retriedRequests;
+  }
+
+  public Long getDeadLetterPages() {
+    return deadLetterPages;
+  }
+
+  public void setDeadLetterPages(Long deadLetterPages) {
+    this.deadLetterPages = deadLetterPages;
+  }
+
+  public Long getUnchangedPages() {
+    return unchangedPages;
+  }
+
+  public void setUnchangedPages(Long unchangedPages) {
+    this.unchangedPages = unchangedPages;
+  }
+
+  public Long getUnchangedRowsSkipped() {
+    return unchangedRowsSkipped;
+  }
+
+  public void setUnchangedRowsSkipped(Long unchangedRowsSkipped) {
+    this.unchangedRowsSkipped = unchangedRowsSkipped;
+  }
+
+  public Double getCacheHitRatio() {
+    return cacheHitRatio;
+  }
+
+  public void setCacheHitRatio(Double cacheHitRatio) {
+    this.cacheHitRatio = cacheHitRatio;
+  }
+
+  public Long getCacheBytesSaved() {
+    return cacheBytesSaved;
+  }
+
+  public void setCacheBytesSaved(Long cacheBytesSaved) {
+    this.cacheBytesSaved = cacheBytesSaved;
+  }
+
+  public Long getRowsRescored() {
+    return rowsRescored;
+  }
+
+  public void setRowsRescored(Long rowsRescored) {
+    this.rowsRescored = rowsRescored;
+  }
+
+  public Double getRescoreRowsPerSecond() {
+    return rescoreRowsPerSecond;
+  }
+
+  public void setRescoreRowsPerSecond(Double rescoreRowsPerSecond) {
+    this.rescoreRowsPerSecond = rescoreRowsPerSecond;
+  }
+
+}
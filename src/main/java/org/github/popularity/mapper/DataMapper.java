@@ -17,17 +17,24 @@
 
 package org.github.popularity.mapper;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.github.popularity.client.ResponseCache;
 import org.github.popularity.dto.GithubRepoDTO;
 import org.github.popularity.dto.GithubSearchResponseDTO;
+import org.github.popularity.dto.IngestionJobDTO;
+import org.github.popularity.dto.IngestionMetricsDTO;
 import org.github.popularity.model.GithubRepo;
 import org.github.popularity.scoring.ScoringStrategy;
+import org.github.popularity.worker.IngestionJob;
+import org.github.popularity.worker.IngestionMetrics;
+import org.github.popularity.worker.RateLimitBudget;
 import org.springframework.stereotype.Component;
 
-import java.time.OffsetDateTime;
-import java.time.ZoneOffset;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
@@ -52,56 +59,171 @@ import static org.github.popularity.constant.GithubConstants.DATA_FIELD_TOTAL_CO
 @Component
 public class DataMapper {
 
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  // factory is thread safe and keeps its field name symbol tables warm, shared by all mapping threads
+  private final JsonFactory jsonFactory = new JsonFactory();
+
   public GithubRepoDTO toGithubRepoDTO(GithubRepo githubRepo) {
     return getGithubRepoDTO(githubRepo);
   }
 
   public List<GithubRepo> toGithubRepo(String searchResponse,
-                                       ScoringStrategy scoringStrategy) throws JsonProcessingException {
-    ObjectMapper mapper = new ObjectMapper();
-    JsonNode root = mapper.readTree(searchResponse);
-    JsonNode itemsNode = root.get(DATA_FIELD_ITEMS);
-    OffsetDateTime scoredTime = OffsetDateTime.now(ZoneOffset.UTC);
+                                       ScoringStrategy scoringStrategy) throws IOException {
+    try (JsonParser parser = jsonFactory.createParser(searchResponse)) {
+      return toGithubRepo(parser, scoringStrategy);
+    }
+  }
+
+  /**
+   * Map a Github search response read straight from given stream, search items are parsed one at a time so that
+   * whole response is never held in memory. Stream is closed once read.
+   *
+   * @param searchResponse
+   * @param scoringStrategy
+   *
+   * @return List of GithubRepo
+   */
+  public List<GithubRepo> toGithubRepo(InputStream searchResponse,
+                                       ScoringStrategy scoringStrategy) throws IOException {
+    try (JsonParser parser = jsonFactory.createParser(searchResponse)) {
+      return toGithubRepo(parser, scoringStrategy);
+    }
+  }
+
+  private List<GithubRepo> toGithubRepo(JsonParser parser,
+                                        ScoringStrategy scoringStrategy) throws IOException {
+    long scoredTime = EpochTime.now();
     List<GithubRepo> items = new ArrayList<>();
-    if (itemsNode.isArray()) {
-      for (JsonNode node : itemsNode) {
-        GithubRepo githubRepo = new GithubRepo();
-        githubRepo.setLanguage(node.get(DATA_FIELD_LANGUAGE).asText().toLowerCase(Locale.ROOT));
-        githubRepo.setCreatedDate(OffsetDateTime.parse(node.get(DATA_FIELD_CREATED_AT).asText()));
-        githubRepo.setRepositoryId(node.get(DATA_FIELD_ID).asLong());
-        githubRepo.setUrl(node.get(DATA_FIELD_CLONE_URL).asText());
-        githubRepo.setStargazersCount(node.get(DATA_FIELD_STARGAZERS_COUNT).asLong());
-        githubRepo.setForksCount(node.get(DATA_FIELD_FORKS_COUNT).asLong());
-        githubRepo.setUpdatedDate(OffsetDateTime.parse(node.get(DATA_FIELD_PUSHED_AT).asText()));
-        githubRepo.setScore(scoringStrategy.score(githubRepo.getStargazersCount(),
-                githubRepo.getForksCount(), githubRepo.getUpdatedDate()));
-        githubRepo.setScoredDate(scoredTime);
-        items.add(githubRepo);
+    readSearchResponse(parser, itemParser -> items.add(scored(readGithubRepo(itemParser), scoringStrategy, scoredTime)));
+    return items;
+  }
+
+  /**
+   * Map a single Github search item, such as a line of a newline delimited JSON repository dump.
+   *
+   * @param item JSON object with search item fields
+   * @param scoringStrategy
+   * @param scoredTime epoch second
+   *
+   * @return GithubRepo
+   */
+  public GithubRepo toGithubRepoItem(String item,
+                                     ScoringStrategy scoringStrategy,
+                                     long scoredTime) throws IOException {
+    try (JsonParser parser = jsonFactory.createParser(item)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new JsonParseException(parser, "Github search item is not a JSON object.");
       }
+      return scored(readGithubRepo(parser), scoringStrategy, scoredTime);
     }
-    return items;
   }
 
-  public GithubSearchResponseDTO toGithubSearchResponseDTO(String searchResponse,
-                                                           ScoringStrategy scoringStrategy) throws JsonProcessingException {
-    ObjectMapper mapper = new ObjectMapper();
-    JsonNode root = mapper.readTree(searchResponse);
-    JsonNode itemsNode = root.get(DATA_FIELD_ITEMS);
-    List<GithubRepoDTO> items = new ArrayList<>();
-    if (itemsNode.isArray()) {
-      for (JsonNode node : itemsNode) {
-        GithubRepoDTO githubRepoDTO = new GithubRepoDTO();
-        githubRepoDTO.setLanguage(node.get(DATA_FIELD_LANGUAGE).asText().toLowerCase(Locale.ROOT));
-        githubRepoDTO.setCreatedDate(OffsetDateTime.parse(node.get(DATA_FIELD_CREATED_AT).asText()));
-        githubRepoDTO.setRepositoryId(node.get(DATA_FIELD_ID).asLong());
-        githubRepoDTO.setUrl(node.get(DATA_FIELD_CLONE_URL).asText());
-        githubRepoDTO.setScore(scoringStrategy.score(node.get(DATA_FIELD_STARGAZERS_COUNT).asLong(),
-                node.get(DATA_FIELD_FORKS_COUNT).asLong(), OffsetDateTime.parse(node.get(DATA_FIELD_PUSHED_AT).asText())));
-        items.add(githubRepoDTO);
+  private GithubRepo scored(GithubRepo githubRepo,
+                            ScoringStrategy scoringStrategy,
+                            long scoredTime) {
+    githubRepo.setScore(scoringStrategy.score(githubRepo.getStargazersCount(),
+            githubRepo.getForksCount(), githubRepo.getUpdatedDate(), scoredTime));
+    githubRepo.setScoredDate(scoredTime);
+    githubRepo.setScoreValidUntil(scoringStrategy.scoreValidUntil(githubRepo.getStargazersCount(),
+            githubRepo.getForksCount(), githubRepo.getUpdatedDate(), scoredTime));
+    githubRepo.setFingerprint(fingerprint(githubRepo));
+    return githubRepo;
+  }
+
+  /**
+   * Read the fields we map from a search item, parser is positioned at start of the item object. Github repo objects
+   * are large, every other field and nested object such as owner is skipped without being materialized.
+   *
+   * @param parser
+   *
+   * @return GithubRepo without score
+   */
+  private GithubRepo readGithubRepo(JsonParser parser) throws IOException {
+    GithubRepo githubRepo = new GithubRepo();
+    boolean createdAt = false;
+    boolean pushedAt = false;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      parser.nextToken();
+      switch (field) {
+        case DATA_FIELD_LANGUAGE:
+          githubRepo.setLanguage(parser.getText().toLowerCase(Locale.ROOT));
+          break;
+        case DATA_FIELD_CREATED_AT:
+          githubRepo.setCreatedDate(readEpochSecond(parser));
+          createdAt = true;
+          break;
+        case DATA_FIELD_ID:
+          githubRepo.setRepositoryId(parser.getValueAsLong());
+          break;
+        case DATA_FIELD_CLONE_URL:
+          githubRepo.setUrl(parser.getText());
+          break;
+        case DATA_FIELD_STARGAZERS_COUNT:
+          githubRepo.setStargazersCount(parser.getValueAsLong());
+          break;
+        case DATA_FIELD_FORKS_COUNT:
+          githubRepo.setForksCount(parser.getValueAsLong());
+          break;
+        case DATA_FIELD_PUSHED_AT:
+          githubRepo.setUpdatedDate(readEpochSecond(parser));
+          pushedAt = true;
+          break;
+        default:
+          parser.skipChildren();
       }
     }
+    if (Objects.isNull(githubRepo.getLanguage()) || !createdAt
+            || Objects.isNull(githubRepo.getRepositoryId()) || Objects.isNull(githubRepo.getUrl())
+            || Objects.isNull(githubRepo.getStargazersCount()) || Objects.isNull(githubRepo.getForksCount())
+            || !pushedAt) {
+      throw new JsonParseException(parser, "Github search item is missing a required field.");
+    }
+    return githubRepo;
+  }
+
+  // timestamp read from parser's own buffer, no String is created for it
+  private long readEpochSecond(JsonParser parser) throws IOException {
+    return EpochTime.parse(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+  }
+
+  public GithubSearchResponseDTO toGithubSearchResponseDTO(String searchResponse,
+                                                           ScoringStrategy scoringStrategy) throws IOException {
+    try (JsonParser parser = jsonFactory.createParser(searchResponse)) {
+      return toGithubSearchResponseDTO(parser, scoringStrategy);
+    }
+  }
+
+  /**
+   * Map a Github search response read straight from given stream, stream is closed once read.
+   *
+   * @param searchResponse
+   * @param scoringStrategy
+   *
+   * @return GithubSearchResponseDTO
+   */
+  public GithubSearchResponseDTO toGithubSearchResponseDTO(InputStream searchResponse,
+                                                           ScoringStrategy scoringStrategy) throws IOException {
+    try (JsonParser parser = jsonFactory.createParser(searchResponse)) {
+      return toGithubSearchResponseDTO(parser, scoringStrategy);
+    }
+  }
+
+  private GithubSearchResponseDTO toGithubSearchResponseDTO(JsonParser parser,
+                                                            ScoringStrategy scoringStrategy) throws IOException {
+    long scoredTime = EpochTime.now();
+    List<GithubRepoDTO> items = new ArrayList<>();
+    long totalCount = readSearchResponse(parser, itemParser -> {
+      GithubRepo githubRepo = readGithubRepo(itemParser);
+      GithubRepoDTO githubRepoDTO = getGithubRepoDTO(githubRepo);
+      githubRepoDTO.setScore(scoringStrategy.score(githubRepo.getStargazersCount(), githubRepo.getForksCount(),
+              githubRepo.getUpdatedDate(), scoredTime));
+      items.add(githubRepoDTO);
+    });
     GithubSearchResponseDTO githubSearchResponseDTO = new GithubSearchResponseDTO();
-    githubSearchResponseDTO.setTotalCount(root.get(DATA_FIELD_TOTAL_COUNT).asLong());
+    githubSearchResponseDTO.setTotalCount(totalCount);
     githubSearchResponseDTO.setItems(items);
     return githubSearchResponseDTO;
   }
@@ -120,20 +242,144 @@ public class DataMapper {
     return githubSearchResponseDTO;
   }
 
-  public Long toTotalCount(String searchResponse) throws JsonProcessingException {
-    ObjectMapper mapper = new ObjectMapper();
-    JsonNode root = mapper.readTree(searchResponse);
-    return root.get(DATA_FIELD_TOTAL_COUNT).asLong();
+  public Long toTotalCount(String searchResponse) throws IOException {
+    try (JsonParser parser = jsonFactory.createParser(searchResponse)) {
+      return readSearchResponse(parser, null);
+    }
+  }
+
+  public Long toTotalCount(InputStream searchResponse) throws IOException {
+    try (JsonParser parser = jsonFactory.createParser(searchResponse)) {
+      return readSearchResponse(parser, null);
+    }
+  }
+
+  /**
+   * Walk a Github search response token by token, handing parser to given item reader at start of each search item.
+   * Input is read to its end.
+   *
+   * @param parser
+   * @param itemReader nullable, items are skipped when absent
+   *
+   * @return total count of search response
+   */
+  private long readSearchResponse(JsonParser parser,
+                                  ItemReader itemReader) throws IOException {
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      throw new JsonParseException(parser, "Github search response is not a JSON object.");
+    }
+    long totalCount = 0;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      JsonToken token = parser.nextToken();
+      if (DATA_FIELD_TOTAL_COUNT.equals(field)) {
+        totalCount = parser.getValueAsLong();
+      } else if (DATA_FIELD_ITEMS.equals(field) && token == JsonToken.START_ARRAY && Objects.nonNull(itemReader)) {
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+          itemReader.read(parser);
+        }
+      } else {
+        parser.skipChildren();
+      }
+    }
+    // read on to end of input, a streamed body is only known to be complete there and its validators cached
+    if (parser.nextToken() != null) {
+      throw new JsonParseException(parser, "Unexpected content after Github search response.");
+    }
+    return totalCount;
+  }
+
+  public IngestionMetricsDTO toIngestionMetricsDTO(IngestionMetrics metrics,
+                                                   RateLimitBudget rateLimitBudget,
+                                                   ResponseCache responseCache) {
+    IngestionMetricsDTO ingestionMetricsDTO = new IngestionMetricsDTO();
+    ingestionMetricsDTO.setPagesFetched(metrics.getPagesFetched());
+    ingestionMetricsDTO.setReposIngested(metrics.getReposIngested());
+    ingestionMetricsDTO.setReposPerMinute(metrics.getReposPerMinute());
+    ingestionMetricsDTO.setRateLimitHits(metrics.getRateLimitHits());
+    ingestionMetricsDTO.setFailedPages(metrics.getFailedPages());
+    ingestionMetricsDTO.setRateLimitRemaining(rateLimitBudget.getRemaining());
+    ingestionMetricsDTO.setRateLimitReset(rateLimitBudget.getResetEpochSecond());
+    ingestionMetricsDTO.setRetriedRequests(metrics.getRetriedRequests());
+    ingestionMetricsDTO.setDeadLetterPages(metrics.getDeadLetterPages());
+    ingestionMetricsDTO.setUnchangedPages(metrics.getUnchangedPages());
+    ingestionMetricsDTO.setUnchangedRowsSkipped(metrics.getUnchangedRowsSkipped());
+    ingestionMetricsDTO.setCacheHitRatio(responseCache.getHitRatio());
+    ingestionMetricsDTO.setCacheBytesSaved(responseCache.getBytesSaved());
+    ingestionMetricsDTO.setRowsRescored(metrics.getRowsRescored());
+    ingestionMetricsDTO.setRescoreRowsPerSecond(metrics.getRescoreRowsPerSecond());
+    return ingestionMetricsDTO;
+  }
+
+  public IngestionJobDTO toIngestionJobDTO(IngestionJob ingestionJob,
+                                           RateLimitBudget rateLimitBudget) {
+    IngestionJobDTO ingestionJobDTO = new IngestionJobDTO();
+    ingestionJobDTO.setId(ingestionJob.getId());
+    ingestionJobDTO.setLanguage(ingestionJob.getLanguage());
+    ingestionJobDTO.setImportFile(ingestionJob.getImportFile());
+    ingestionJobDTO.setCreatedFrom(ingestionJob.getCreatedFrom());
+    ingestionJobDTO.setCreatedTo(ingestionJob.getCreatedTo());
+    ingestionJobDTO.setConcurrency(ingestionJob.getConcurrency());
+    ingestionJobDTO.setStatus(ingestionJob.getStatus().name());
+    ingestionJobDTO.setPagesDone(ingestionJob.getPagesDone());
+    ingestionJobDTO.setPagesTotal(ingestionJob.getPagesTotal());
+    ingestionJobDTO.setReposIngested(ingestionJob.getReposIngested());
+    if (Objects.nonNull(ingestionJob.getImportFile())) {
+      ingestionJobDTO.setFailedLines(ingestionJob.getFailedLines());
+    }
+    ingestionJobDTO.setReposPerSecond(ingestionJob.getReposPerSecond());
+    ingestionJobDTO.setEtaSeconds(ingestionJob.getEtaSeconds());
+    ingestionJobDTO.setRateLimitRemaining(rateLimitBudget.getRemaining());
+    ingestionJobDTO.setRateLimitReset(rateLimitBudget.getResetEpochSecond());
+    ingestionJobDTO.setSubmittedDate(ingestionJob.getSubmittedDate());
+    ingestionJobDTO.setStartedDate(ingestionJob.getStartedDate());
+    ingestionJobDTO.setFinishedDate(ingestionJob.getFinishedDate());
+    return ingestionJobDTO;
+  }
+
+  /**
+   * 64 bit FNV-1a hash of upstream fields of given Github repo. Score columns are derived and left out, so
+   * rows only differing in score are considered unchanged.
+   *
+   * @param githubRepo
+   *
+   * @return fingerprint
+   */
+  public long fingerprint(GithubRepo githubRepo) {
+    long hash = FNV_OFFSET_BASIS;
+    hash = fingerprint(hash, githubRepo.getRepositoryId());
+    hash = fingerprint(hash, githubRepo.getUrl());
+    hash = fingerprint(hash, githubRepo.getCreatedDate());
+    hash = fingerprint(hash, githubRepo.getLanguage());
+    hash = fingerprint(hash, githubRepo.getStargazersCount());
+    hash = fingerprint(hash, githubRepo.getForksCount());
+    return fingerprint(hash, githubRepo.getUpdatedDate());
+  }
+
+  private long fingerprint(long hash, Object value) {
+    String text = String.valueOf(value);
+    for (int i = 0; i < text.length(); i++) {
+      hash = (hash ^ text.charAt(i)) * FNV_PRIME;
+    }
+    // field separator
+    return (hash ^ 0xff) * FNV_PRIME;
   }
 
   private GithubRepoDTO getGithubRepoDTO(GithubRepo item) {
     GithubRepoDTO githubRepoDTO = new GithubRepoDTO();
     githubRepoDTO.setLanguage(item.getLanguage());
-    githubRepoDTO.setCreatedDate(item.getCreatedDate());
+    githubRepoDTO.setCreatedDate(EpochTime.toOffsetDateTime(item.getCreatedDate()));
     githubRepoDTO.setRepositoryId(item.getRepositoryId());
     githubRepoDTO.setUrl(item.getUrl());
     githubRepoDTO.setScore(item.getScore());
     return githubRepoDTO;
   }
 
+  // reads a single search item off the parser, up to its end object token
+  private interface ItemReader {
+
+    void read(JsonParser parser) throws IOException;
+
+  }
+
 }
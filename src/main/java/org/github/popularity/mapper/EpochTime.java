@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.mapper;
+
+import java.nio.CharBuffer;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Objects;
+
+/**
+ * Epoch second time values. Github timestamps are parsed straight to epoch seconds without intermediate objects,
+ * date time objects are created only at the API boundary.
+ *
+ * @author Kevin Ratnasekera
+ */
+public final class EpochTime {
+
+  // length of Github timestamp yyyy-MM-ddTHH:mm:ssZ
+  private static final int GITHUB_TIMESTAMP_LENGTH = 20;
+  private static final long SECONDS_PER_DAY = 86400;
+  // days from 0000-03-01 to 1970-01-01
+  private static final long DAYS_0000_TO_1970 = 719468;
+  // out of range timestamp fields, not a reachable epoch second of a four digit year
+  private static final long INVALID_TIMESTAMP = Long.MIN_VALUE;
+
+  private EpochTime() {
+  }
+
+  /**
+   * Parse a UTC timestamp in Github's fixed yyyy-MM-ddTHH:mm:ssZ format to epoch seconds. Other ISO-8601 forms,
+   * such as an explicit offset or fractional seconds, fall back to OffsetDateTime parsing.
+   *
+   * @param text
+   *
+   * @return epoch second
+   */
+  public static long parse(CharSequence text) {
+    if (text.length() == GITHUB_TIMESTAMP_LENGTH
+            && text.charAt(4) == '-' && text.charAt(7) == '-' && text.charAt(10) == 'T'
+            && text.charAt(13) == ':' && text.charAt(16) == ':' && text.charAt(19) == 'Z') {
+      long epochSecond = epochSecond(digits(text, 0, 4), digits(text, 5, 2), digits(text, 8, 2),
+              digits(text, 11, 2), digits(text, 14, 2), digits(text, 17, 2));
+      if (epochSecond != INVALID_TIMESTAMP) {
+        return epochSecond;
+      }
+    }
+    // not in Github's format, or not a valid date which OffsetDateTime reports
+    return OffsetDateTime.parse(text).toEpochSecond();
+  }
+
+  /**
+   * Same as {@link #parse(CharSequence)} for a range of a character buffer, without copying it.
+   *
+   * @param chars
+   * @param offset
+   * @param length
+   *
+   * @return epoch second
+   */
+  public static long parse(char[] chars, int offset, int length) {
+    return parse(CharBuffer.wrap(chars, offset, length));
+  }
+
+  public static OffsetDateTime toOffsetDateTime(long epochSecond) {
+    return Instant.ofEpochSecond(epochSecond).atOffset(ZoneOffset.UTC);
+  }
+
+  public static Long toEpochSecond(OffsetDateTime dateTime) {
+    return Objects.isNull(dateTime) ? null : dateTime.toEpochSecond();
+  }
+
+  /**
+   * Day since epoch of given epoch second, days start at UTC midnight.
+   *
+   * @param epochSecond
+   */
+  public static long toEpochDay(long epochSecond) {
+    return Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+  }
+
+  /**
+   * First epoch second of given day since epoch.
+   *
+   * @param epochDay
+   */
+  public static long toEpochSecond(long epochDay) {
+    return epochDay * SECONDS_PER_DAY;
+  }
+
+  public static long now() {
+    return System.currentTimeMillis() / 1000;
+  }
+
+  // INVALID_TIMESTAMP when a field is out of range
+  private static long epochSecond(int year, int month, int day, int hour, int minute, int second) {
+    if (year >= 0 && month >= 1 && month <= 12 && day >= 1 && day <= lengthOfMonth(year, month)
+            && hour >= 0 && hour < 24 && minute >= 0 && minute < 60 && second >= 0 && second < 60) {
+      return epochDay(year, month, day) * SECONDS_PER_DAY + hour * 3600 + minute * 60 + second;
+    }
+    return INVALID_TIMESTAMP;
+  }
+
+  // negative when a character is not a digit
+  private static int digits(CharSequence text, int offset, int count) {
+    int value = 0;
+    for (int i = offset; i < offset + count; i++) {
+      int digit = text.charAt(i) - '0';
+      if (digit < 0 || digit > 9) {
+        return -1;
+      }
+      value = value * 10 + digit;
+    }
+    return value;
+  }
+
+  private static int lengthOfMonth(int year, int month) {
+    if (month == 2) {
+      return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+    }
+    return (month == 4 || month == 6 || month == 9 || month == 11) ? 30 : 31;
+  }
+
+  // days since epoch of a proleptic Gregorian date, years counted from March so leap day is last day of a year
+  private static long epochDay(int year, int month, int day) {
+    long y = month <= 2 ? year - 1 : year;
+    long era = (y >= 0 ? y : y - 399) / 400;
+    long yearOfEra = y - era * 400;
+    long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+    long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    return era * 146097 + dayOfEra - DAYS_0000_TO_1970;
+  }
+
+}
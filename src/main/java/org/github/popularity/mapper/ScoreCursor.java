@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.mapper;
+
+import org.github.popularity.model.GithubRepo;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Continuation token of top repos search, position of last repo of a page in ( score descending, repository id )
+ * order. Encoded as an opaque URL safe string, next page is read with a seek on that position.
+ *
+ * @author Kevin Ratnasekera
+ */
+public final class ScoreCursor {
+
+  private static final int ENCODED_BYTES = 2 * Long.BYTES;
+
+  private final double score;
+  private final long repositoryId;
+
+  public ScoreCursor(double score, long repositoryId) {
+    this.score = score;
+    this.repositoryId = repositoryId;
+  }
+
+  /**
+   * Cursor positioned after given repo.
+   *
+   * @param githubRepo
+   *
+   * @return ScoreCursor
+   */
+  public static ScoreCursor after(GithubRepo githubRepo) {
+    return new ScoreCursor(githubRepo.getScore(), githubRepo.getRepositoryId());
+  }
+
+  /**
+   * Decode a token returned by {@link #encode()}.
+   *
+   * @param token
+   *
+   * @return ScoreCursor
+   * @throws IllegalArgumentException if token is not a valid cursor
+   */
+  public static ScoreCursor decode(String token) {
+    byte[] bytes = Base64.getUrlDecoder().decode(Objects.requireNonNull(token));
+    if (bytes.length != ENCODED_BYTES) {
+      throw new IllegalArgumentException("Invalid score cursor " + token + ".");
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    double score = buffer.getDouble();
+    if (Double.isNaN(score)) {
+      throw new IllegalArgumentException("Invalid score cursor " + token + ".");
+    }
+    return new ScoreCursor(score, buffer.getLong());
+  }
+
+  public String encode() {
+    ByteBuffer buffer = ByteBuffer.allocate(ENCODED_BYTES).putDouble(score).putLong(repositoryId);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+  }
+
+  public double getScore() {
+    return score;
+  }
+
+  public long getRepositoryId() {
+    return repositoryId;
+  }
+
+}
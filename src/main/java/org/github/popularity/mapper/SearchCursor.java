@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.mapper;
+
+import org.github.popularity.model.GithubRepo;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Continuation token of database search, position of last repo of a page in ( created date, repository id ) order.
+ * Encoded as an opaque URL safe string, next page is read with a seek on that position instead of an offset.
+ *
+ * @author Kevin Ratnasekera
+ */
+public final class SearchCursor {
+
+  private static final int ENCODED_BYTES = 2 * Long.BYTES;
+
+  private final long createdDate;
+  private final long repositoryId;
+
+  public SearchCursor(long createdDate, long repositoryId) {
+    this.createdDate = createdDate;
+    this.repositoryId = repositoryId;
+  }
+
+  /**
+   * Cursor positioned after given repo.
+   *
+   * @param githubRepo
+   *
+   * @return SearchCursor
+   */
+  public static SearchCursor after(GithubRepo githubRepo) {
+    return new SearchCursor(githubRepo.getCreatedDate(), githubRepo.getRepositoryId());
+  }
+
+  /**
+   * Decode a token returned by {@link #encode()}.
+   *
+   * @param token
+   *
+   * @return SearchCursor
+   * @throws IllegalArgumentException if token is not a valid cursor
+   */
+  public static SearchCursor decode(String token) {
+    byte[] bytes = Base64.getUrlDecoder().decode(Objects.requireNonNull(token));
+    if (bytes.length != ENCODED_BYTES) {
+      throw new IllegalArgumentException("Invalid search cursor " + token + ".");
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    return new SearchCursor(buffer.getLong(), buffer.getLong());
+  }
+
+  public String encode() {
+    ByteBuffer buffer = ByteBuffer.allocate(ENCODED_BYTES).putLong(createdDate).putLong(repositoryId);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+  }
+
+  public long getCreatedDate() {
+    return createdDate;
+  }
+
+  public long getRepositoryId() {
+    return repositoryId;
+  }
+
+}
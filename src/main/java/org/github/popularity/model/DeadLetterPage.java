@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.model;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.time.OffsetDateTime;
+
+/**
+ * Search page which failed for good after retries Domain Class. Dead letter pages are retried by a later
+ * data fetch run instead of crawling their whole window again.
+ *
+ * @author Kevin Ratnasekera
+ */
+@Table(name = "dead_letter_page", indexes = {@Index(columnList = "page_key", unique = true), @Index(columnList = "language")})
+@Entity
+public class DeadLetterPage {
+
+  @Id
+  @GeneratedValue(strategy= GenerationType.IDENTITY)
+  private long id;
+  @Column(name = "page_key")
+  private String pageKey;
+  @Column(name = "language")
+  private String language;
+  @Column(name = "window_start")
+  private OffsetDateTime windowStart;
+  @Column(name = "window_end")
+  private OffsetDateTime windowEnd;
+  // zero based page number within window
+  @Column(name = "page")
+  private Integer page;
+  // last response status, null on IO error
+  @Column(name = "status")
+  private Integer status;
+  @Column(name = "error", length = 1024)
+  private String error;
+  @Column(name = "attempts")
+  private Integer attempts;
+  @Column(name = "created_date")
+  private OffsetDateTime createdDate;
+  @Column(name = "updated_date")
+  private OffsetDateTime updatedDate;
+
+  public long getId() {
+    return id;
+  }
+
+  public void setId(long id) {
+    this.id = id;
+  }
+
+  public String getPageKey() {
+    return pageKey;
+  }
+
+  public void setPageKey(String pageKey) {
+    this.pageKey = pageKey;
+  }
+
+  public String getLanguage() {
+    return language;
+  }
+
+  public void setLanguage(String language) {
+    this.language = language;
+  }
+
+  public OffsetDateTime getWindowStart() {
+    return windowStart;
+  }
+
+  public void setWindowStart(OffsetDateTime windowStart) {
+    this.windowStart = windowStart;
+  }
+
+  public OffsetDateTime getWindowEnd() {
+    return windowEnd;
+  }
+
+  public void setWindowEnd(OffsetDateTime windowEnd) {
+    this.windowEnd = windowEnd;
+  }
+
+  public Integer getPage() {
+    return page;
+  }
+
+  public void setPage(Integer page) {
+    this.page = page;
+  }
+
+  public Integer getStatus() {
+    return status;
+  }
+
+  public void setStatus(Integer status) {
+    this.status = status;
+  }
+
+  public String getError() {
+    return error;
+  }
+
+  public void setError(String error) {
+    this.error = error;
+  }
+
+  public Integer getAttempts() {
+    return attempts;
+  }
+
+  public void setAttempts(Integer attempts) {
+    this.attempts = attempts;
+  }
+
+  public OffsetDateTime getCreatedDate() {
+    return createdDate;
+  }
+
+  public void setCreatedDate(OffsetDateTime createdDate) {
+    this.createdDate = createdDate;
+  }
+
+  public OffsetDateTime getUpdatedDate() {
+    return updatedDate;
+  }
+
+  public void setUpdatedDate(OffsetDateTime updatedDate) {
+    this.updatedDate = updatedDate;
+  }
+
+}
@@ -17,13 +17,13 @@
 package org.github.popularity.model;
 
 import javax.persistence.Column;
+import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Index;
 import javax.persistence.Table;
-import java.time.OffsetDateTime;
 import java.util.Objects;
 
 /**
@@ -31,7 +31,7 @@ import java.util.Objects;
  *
  * @author Kevin Ratnasekera
  */
-@Table(name = "github_repo", indexes = {@Index(columnList = "language"), @Index(columnList = "repository_id", unique = true), @Index(columnList = "created_date ASC")})
+@Table(name = "github_repo", indexes = {@Index(columnList = "language, created_date, repository_id"), @Index(columnList = "language, score DESC, repository_id"), @Index(columnList = "repository_id", unique = true), @Index(columnList = "created_date ASC"), @Index(columnList = "score_valid_until")})
 @Entity
 public class GithubRepo {
 
@@ -42,20 +42,31 @@ public class GithubRepo {
   private Long repositoryId;
   @Column(name = "url")
   private String url;
+  // epoch second
   @Column(name = "created_date")
-  private OffsetDateTime createdDate;
+  private long createdDate;
+  // stored as language dictionary code
   @Column(name = "language")
+  @Convert(converter = LanguageConverter.class)
   private String language;
   @Column(name = "score")
   private Double score;
+  // epoch second
   @Column(name = "scored_date")
-  private OffsetDateTime scoredDate;
+  private long scoredDate;
   @Column(name = "stargazers_count")
   private Long stargazersCount;
   @Column(name = "forks_count")
   private Long forksCount;
+  // epoch second
   @Column(name = "updated_date")
-  private OffsetDateTime updatedDate;
+  private long updatedDate;
+  // epoch second after which score may change, ScoringStrategy.SCORE_VALID_FOREVER when score no longer changes
+  @Column(name = "score_valid_until")
+  private long scoreValidUntil;
+  // hash of upstream fields, unchanged rows are not written again
+  @Column(name = "fingerprint")
+  private Long fingerprint;
 
   public long getId() {
     return id;
@@ -81,11 +92,11 @@ public class GithubRepo {
     this.url = url;
   }
 
-  public OffsetDateTime getCreatedDate() {
+  public long getCreatedDate() {
     return createdDate;
   }
 
-  public void setCreatedDate(OffsetDateTime createdDate) {
+  public void setCreatedDate(long createdDate) {
     this.createdDate = createdDate;
   }
 
@@ -105,11 +116,11 @@ public class GithubRepo {
     this.score = score;
   }
 
-  public OffsetDateTime getScoredDate() {
+  public long getScoredDate() {
     return scoredDate;
   }
 
-  public void setScoredDate(OffsetDateTime scoredDate) {
+  public void setScoredDate(long scoredDate) {
     this.scoredDate = scoredDate;
   }
 
@@ -129,14 +140,30 @@ public class GithubRepo {
     this.forksCount = forksCount;
   }
 
-  public OffsetDateTime getUpdatedDate() {
+  public long getUpdatedDate() {
     return updatedDate;
   }
 
-  public void setUpdatedDate(OffsetDateTime updatedDate) {
+  public void setUpdatedDate(long updatedDate) {
     this.updatedDate = updatedDate;
   }
 
+  public long getScoreValidUntil() {
+    return scoreValidUntil;
+  }
+
+  public void setScoreValidUntil(long scoreValidUntil) {
+    this.scoreValidUntil = scoreValidUntil;
+  }
+
+  public Long getFingerprint() {
+    return fingerprint;
+  }
+
+  public void setFingerprint(Long fingerprint) {
+    this.fingerprint = fingerprint;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
@@ -144,17 +171,19 @@ public class GithubRepo {
     GithubRepo that = (GithubRepo) o;
     return Objects.equals(repositoryId, that.repositoryId)
             && Objects.equals(url, that.url)
-            && Objects.equals(createdDate, that.createdDate)
+            && createdDate == that.createdDate
             && Objects.equals(language, that.language)
-            && Objects.equals(score, that.score) && Objects.equals(scoredDate, that.scoredDate)
+            && Objects.equals(score, that.score) && scoredDate == that.scoredDate
             && Objects.equals(stargazersCount, that.stargazersCount)
             && Objects.equals(forksCount, that.forksCount)
-            && Objects.equals(updatedDate, that.updatedDate);
+            && updatedDate == that.updatedDate
+            && scoreValidUntil == that.scoreValidUntil
+            && Objects.equals(fingerprint, that.fingerprint);
   }
 
   @Override
   public int hashCode() {
     return Objects.hash(repositoryId, url, createdDate, language, score, scoredDate,
-            stargazersCount, forksCount, updatedDate);
+            stargazersCount, forksCount, updatedDate, scoreValidUntil, fingerprint);
   }
 }
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.model;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.time.OffsetDateTime;
+
+/**
+ * Validators of last Github response per request URL Domain Class, used for conditional requests.
+ *
+ * @author Kevin Ratnasekera
+ */
+@Table(name = "http_cache_entry", indexes = {@Index(columnList = "url", unique = true)})
+@Entity
+public class HttpCacheEntry {
+
+  @Id
+  @GeneratedValue(strategy= GenerationType.IDENTITY)
+  private long id;
+  @Column(name = "url", length = 2048)
+  private String url;
+  @Column(name = "etag")
+  private String etag;
+  @Column(name = "last_modified")
+  private String lastModified;
+  // size of last full response body, counted as saved when Github answers not modified
+  @Column(name = "content_length")
+  private Long contentLength;
+  @Column(name = "updated_date")
+  private OffsetDateTime updatedDate;
+
+  public long getId() {
+    return id;
+  }
+
+  public void setId(long id) {
+    this.id = id;
+  }
+
+  public String getUrl() {
+    return url;
+  }
+
+  public void setUrl(String url) {
+    this.url = url;
+  }
+
+  public String getEtag() {
+    return etag;
+  }
+
+  public void setEtag(String etag) {
+    this.etag = etag;
+  }
+
+  public String getLastModified() {
+    return lastModified;
+  }
+
+  public void setLastModified(String lastModified) {
+    this.lastModified = lastModified;
+  }
+
+  public Long getContentLength() {
+    return contentLength;
+  }
+
+  public void setContentLength(Long contentLength) {
+    this.contentLength = contentLength;
+  }
+
+  public OffsetDateTime getUpdatedDate() {
+    return updatedDate;
+  }
+
+  public void setUpdatedDate(OffsetDateTime updatedDate) {
+    this.updatedDate = updatedDate;
+  }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.model;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.time.OffsetDateTime;
+
+/**
+ * Ingestion job progress Domain Class. A job is identified by language and created date window.
+ *
+ * @author Kevin Ratnasekera
+ */
+@Table(name = "ingestion_checkpoint", indexes = {@Index(columnList = "job_key", unique = true)})
+@Entity
+public class IngestionCheckpoint {
+
+  @Id
+  @GeneratedValue(strategy= GenerationType.IDENTITY)
+  private long id;
+  @Column(name = "job_key")
+  private String jobKey;
+  @Column(name = "language")
+  private String language;
+  @Column(name = "window_start")
+  private OffsetDateTime windowStart;
+  @Column(name = "window_end")
+  private OffsetDateTime windowEnd;
+  @Column(name = "total_count")
+  private Long totalCount;
+  // highest page number up to which all pages are stored, -1 if none
+  @Column(name = "last_page")
+  private Integer lastPage;
+  @Column(name = "last_pushed_at")
+  private OffsetDateTime lastPushedAt;
+  @Column(name = "completed")
+  private Boolean completed;
+  @Column(name = "updated_date")
+  private OffsetDateTime updatedDate;
+
+  public long getId() {
+    return id;
+  }
+
+  public void setId(long id) {
+    this.id = id;
+  }
+
+  public String getJobKey() {
+    return jobKey;
+  }
+
+  public void setJobKey(String jobKey) {
+    this.jobKey = jobKey;
+  }
+
+  public String getLanguage() {
+    return language;
+  }
+
+  public void setLanguage(String language) {
+    this.language = language;
+  }
+
+  public OffsetDateTime getWindowStart() {
+    return windowStart;
+  }
+
+  public void setWindowStart(OffsetDateTime windowStart) {
+    this.windowStart = windowStart;
+  }
+
+  public OffsetDateTime getWindowEnd() {
+    return windowEnd;
+  }
+
+  public void setWindowEnd(OffsetDateTime windowEnd) {
+    this.windowEnd = windowEnd;
+  }
+
+  public Long getTotalCount() {
+    return totalCount;
+  }
+
+  public void setTotalCount(Long totalCount) {
+    this.totalCount = totalCount;
+  }
+
+  public Integer getLastPage() {
+    return lastPage;
+  }
+
+  public void setLastPage(Integer lastPage) {
+    this.lastPage = lastPage;
+  }
+
+  public OffsetDateTime getLastPushedAt() {
+    return lastPushedAt;
+  }
+
+  public void setLastPushedAt(OffsetDateTime lastPushedAt) {
+    this.lastPushedAt = lastPushedAt;
+  }
+
+  public Boolean getCompleted() {
+    return completed;
+  }
+
+  public void setCompleted(Boolean completed) {
+    this.completed = completed;
+  }
+
+  public OffsetDateTime getUpdatedDate() {
+    return updatedDate;
+  }
+
+  public void setUpdatedDate(OffsetDateTime updatedDate) {
+    this.updatedDate = updatedDate;
+  }
+
+}
@@ -22,9 +22,15 @@ package org.github.popularity.model;
  * @author Kevin Ratnasekera
  */
 public enum Language {
-  // added few languages for validation purposes
+  // languages supported for validation and background data fetch, seeded into language dictionary at startup
   JAVA("java"),
   JAVASCRIPT("javascript"),
+  TYPESCRIPT("typescript"),
+  PYTHON("python"),
+  GO("go"),
+  KOTLIN("kotlin"),
+  SCALA("scala"),
+  PHP("php"),
   RUBY("ruby"),
   RUST("rust");
 
@@ -34,18 +40,8 @@ public enum Language {
     this.language = language;
   }
 
-  public static Language convert(String input) {
-    if ("java".equals(input)) {
-      return Language.JAVA;
-    } else if ("javascript".equals(input)) {
-      return Language.JAVASCRIPT;
-    } else if ("ruby".equals(input)) {
-      return Language.RUBY;
-    } else if ("rust".equals(input)) {
-      return Language.RUST;
-    } else {
-      return null;
-    }
+  public String getLanguage() {
+    return language;
   }
 
 }
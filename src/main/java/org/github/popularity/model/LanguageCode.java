@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.model;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+/**
+ * Language dictionary Domain Class. Repos store the small integer code of their language instead of its name.
+ *
+ * @author Kevin Ratnasekera
+ */
+@Table(name = "language_dictionary", indexes = {@Index(columnList = "name", unique = true)})
+@Entity
+public class LanguageCode {
+
+  // codes are assigned once and never reused, stored repo rows refer to them
+  @Id
+  @Column(name = "code")
+  private short code;
+  @Column(name = "name")
+  private String name;
+
+  public short getCode() {
+    return code;
+  }
+
+  public void setCode(short code) {
+    this.code = code;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+}
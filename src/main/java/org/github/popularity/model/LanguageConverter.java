@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.model;
+
+import org.github.popularity.repo.LanguageDictionary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * Stores language of a repo as its language dictionary code.
+ *
+ * @author Kevin Ratnasekera
+ */
+@Converter
+public class LanguageConverter implements AttributeConverter<String, Short> {
+
+  // created by Hibernate through Spring, dictionary repository depends on entity manager being built
+  @Autowired
+  @Lazy
+  private LanguageDictionary languageDictionary;
+
+  @Override
+  public Short convertToDatabaseColumn(String language) {
+    return languageDictionary.encode(language);
+  }
+
+  @Override
+  public String convertToEntityAttribute(Short code) {
+    return languageDictionary.decode(code);
+  }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.model;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+/**
+ * Number of stored Github repos per language and created day Domain Class. Kept up to date with github_repo table,
+ * so that search totals are a sum over days instead of a count over repos.
+ *
+ * @author Kevin Ratnasekera
+ */
+@Table(name = "repo_count_rollup", indexes = {@Index(columnList = "language, created_day", unique = true)})
+@Entity
+public class RepoCountRollup {
+
+  @Id
+  @GeneratedValue(strategy= GenerationType.IDENTITY)
+  private long id;
+  // language dictionary code
+  @Column(name = "language")
+  private short language;
+  // days since epoch
+  @Column(name = "created_day")
+  private int createdDay;
+  @Column(name = "repo_count")
+  private long repoCount;
+
+  public long getId() {
+    return id;
+  }
+
+  public void setId(long id) {
+    this.id = id;
+  }
+
+  public short getLanguage() {
+    return language;
+  }
+
+  public void setLanguage(short language) {
+    this.language = language;
+  }
+
+  public int getCreatedDay() {
+    return createdDay;
+  }
+
+  public void setCreatedDay(int createdDay) {
+    this.createdDay = createdDay;
+  }
+
+  public long getRepoCount() {
+    return repoCount;
+  }
+
+  public void setRepoCount(long repoCount) {
+    this.repoCount = repoCount;
+  }
+
+}
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.repo;
+
+import org.github.popularity.model.GithubRepo;
+
+import java.util.List;
+
+/**
+ * A page of Github repos with total count of repos matching the search, read in a single query.
+ *
+ * @author Kevin Ratnasekera
+ */
+public class GithubRepoPage {
+
+  private final long totalCount;
+  private final List<GithubRepo> githubRepos;
+
+  public GithubRepoPage(long totalCount, List<GithubRepo> githubRepos) {
+    this.totalCount = totalCount;
+    this.githubRepos = githubRepos;
+  }
+
+  public long getTotalCount() {
+    return totalCount;
+  }
+
+  public List<GithubRepo> getGithubRepos() {
+    return githubRepos;
+  }
+
+}
@@ -22,7 +22,6 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
-import java.time.OffsetDateTime;
 import java.util.List;
 
 /**
@@ -31,18 +30,13 @@ import java.util.List;
  * @author Kevin Ratnasekera
  */
 @Repository
-public interface GithubRepository extends CrudRepository<GithubRepo, Long> {
-
-  @Query(value = "SELECT * FROM github_repo WHERE language =?1 AND created_date >= ?2 ORDER BY created_date ASC LIMIT ?3 OFFSET ?4",
-          nativeQuery = true)
-  List<GithubRepo> fetchGithubRepos(String language,
-                                    OffsetDateTime created_date,
-                                    Integer limit,
-                                    Integer offset);
-
-  @Query(value = "SELECT COUNT(*) FROM github_repo WHERE language =?1 AND created_date >= ?2",
-          nativeQuery = true)
-  Long countGithubRepos(String language, OffsetDateTime created_date);
+public interface GithubRepository extends CrudRepository<GithubRepo, Long>, GithubRepositoryCustom {
+
+  @Query(value = "SELECT MIN(id) FROM github_repo WHERE score_valid_until <= ?1", nativeQuery = true)
+  Long findMinExpiredId(long expiredAt);
+
+  @Query(value = "SELECT MAX(id) FROM github_repo WHERE score_valid_until <= ?1", nativeQuery = true)
+  Long findMaxExpiredId(long expiredAt);
 
   GithubRepo findByRepositoryId(Long repositoryId);
 
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.repo;
+
+import org.github.popularity.model.GithubRepo;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Github Repo data Repository bulk operations.
+ *
+ * @author Kevin Ratnasekera
+ */
+public interface GithubRepositoryCustom {
+
+  /**
+   * Insert or update given Github repos keyed on repository id, using batched statements in a single transaction.
+   * Count rollups are moved by the language and created day each statement replaced.
+   *
+   * @param githubRepos
+   *
+   * @return number of repos written, repeated repository ids are written once
+   */
+  int upsertAll(List<GithubRepo> githubRepos);
+
+  /**
+   * Read a page of Github repos of given language created at or after given date, ordered by created date then
+   * repository id, together with total count of such repos in the same query. Total count is summed from count
+   * rollups per created day.
+   *
+   * @param language language dictionary code
+   * @param createdFrom epoch second, start of a UTC day
+   * @param limit
+   * @param offset
+   *
+   * @return GithubRepoPage, repos are empty when offset is past last repo
+   */
+  GithubRepoPage fetchGithubRepoPage(short language, long createdFrom, int limit, int offset);
+
+  /**
+   * Same as {@link #fetchGithubRepoPage(short, long, int, int)}, page starts after given created date and repository
+   * id instead of an offset.
+   *
+   * @param language language dictionary code
+   * @param createdFrom epoch second
+   * @param afterCreatedDate epoch second of last repo of previous page
+   * @param afterRepositoryId repository id of last repo of previous page
+   * @param limit
+   *
+   * @return GithubRepoPage
+   */
+  GithubRepoPage fetchGithubRepoPageAfter(short language, long createdFrom, long afterCreatedDate,
+                                          long afterRepositoryId, int limit);
+
+  /**
+   * Read top scored Github repos of given language created at or after given date, ordered by score descending then
+   * repository id, in the same query as total count. Repos without a score are left out of pages, total count is
+   * read from count rollups and counts all repos of given language created at or after given date.
+   *
+   * @param language language dictionary code
+   * @param createdFrom epoch second, start of a UTC day
+   * @param limit
+   *
+   * @return GithubRepoPage
+   */
+  GithubRepoPage fetchTopGithubRepoPage(short language, long createdFrom, int limit);
+
+  /**
+   * Same as {@link #fetchTopGithubRepoPage(short, long, int)}, page starts after given score and repository id.
+   *
+   * @param language language dictionary code
+   * @param createdFrom epoch second, start of a UTC day
+   * @param afterScore score of last repo of previous page
+   * @param afterRepositoryId repository id of last repo of previous page
+   * @param limit
+   *
+   * @return GithubRepoPage
+   */
+  GithubRepoPage fetchTopGithubRepoPageAfter(short language, long createdFrom, double afterScore,
+                                             long afterRepositoryId, int limit);
+
+  /**
+   * Insert missing count rollups of language and created day of each given repo. Called before the transaction which
+   * stores given repos, so that rollup rows are committed up front and the storing transaction only updates them
+   * without a second connection or conflicting with concurrent writers.
+   *
+   * @param githubRepos
+   */
+  void ensureCountRollups(Collection<GithubRepo> githubRepos);
+
+  /**
+   * Compare count rollups with repos stored in github_repo table and recount rollups which drifted, eg:- when repos
+   * were saved or deleted through JPA, written or removed with plain SQL, or stored before rollups existed. Only
+   * {@link #upsertAll(List)} maintains rollups as it writes.
+   *
+   * @return number of language and created day rollups recounted
+   */
+  int repairCountRollups();
+
+  /**
+   * Read stored fingerprints of given repository ids in a single query.
+   *
+   * @param repositoryIds
+   *
+   * @return fingerprint keyed on repository id, repos not stored yet are absent
+   */
+  Map<Long, Long> findFingerprints(Collection<Long> repositoryIds);
+
+  /**
+   * Read next chunk of scoring attributes of repos whose score expired, in id order. Only id, stargazers count,
+   * forks count and updated date are populated.
+   *
+   * @param expiredAt rows with score valid until at or before this epoch second are read
+   * @param afterId exclusive lower bound of id
+   * @param toId inclusive upper bound of id
+   * @param limit chunk size
+   *
+   * @return Github repos ordered by id
+   */
+  List<GithubRepo> findScoringChunk(long expiredAt, long afterId, long toId, int limit);
+
+  /**
+   * Write score, scored date and score valid until of given Github repos keyed on id, using batched statements in a single transaction.
+   * A row is only written while its score is still expired and its stargazers count, forks count and updated date
+   * are the ones given repo was scored from, so that a row upserted meanwhile keeps its fresh score.
+   *
+   * @param githubRepos
+   * @param expiredAt epoch second the repos were read as expired at
+   *
+   * @return number of repos written
+   */
+  int updateScores(List<GithubRepo> githubRepos, long expiredAt);
+
+}
@@ -0,0 +1,412 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.repo;
+
+import org.github.popularity.mapper.EpochTime;
+import org.github.popularity.model.GithubRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Github Repo data Repository bulk operations implementation. Bypasses JPA so that writes can be batched,
+ * identity id generation on the entity prevents Hibernate from batching inserts.
+ *
+ * @author Kevin Ratnasekera
+ */
+public class GithubRepositoryImpl implements GithubRepositoryCustom {
+
+  // merge returns replaced rows, read under the same row locks as the write so that concurrent upserts of a repo
+  // see each other's rows
+  private static final String UPSERT_GITHUB_REPOS = "SELECT repository_id, language, created_date FROM OLD TABLE ("
+          + "MERGE INTO github_repo (repository_id, url, created_date, language, score, scored_date, stargazers_count, "
+          + "forks_count, updated_date, score_valid_until, fingerprint) KEY (repository_id) VALUES %s)";
+
+  private static final String UPSERT_VALUES = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+  // count and page in one round trip, count row is left joined so that count is read even when page is empty.
+  // COUNT(*) OVER () would make H2 read and sort every matching row instead of reading index in order.
+  private static final String SELECT_PAGE = "SELECT c.total_count, g.id, g.repository_id, g.url, g.created_date, "
+          + "g.language, g.score, g.scored_date, g.stargazers_count, g.forks_count, g.updated_date, "
+          + "g.score_valid_until, g.fingerprint "
+          + "FROM (SELECT COALESCE(SUM(repo_count), 0) AS total_count FROM repo_count_rollup "
+          + "WHERE language = ? AND created_day >= ?) c "
+          + "LEFT JOIN (SELECT * FROM github_repo WHERE language = ? AND created_date >= ? %s "
+          + "ORDER BY language ASC, created_date ASC, repository_id ASC LIMIT ? OFFSET ?) g ON TRUE "
+          + "ORDER BY g.created_date ASC, g.repository_id ASC";
+
+  private static final String SEEK_CONDITION = "AND created_date >= ? AND (created_date > ? OR repository_id > ?)";
+
+  // language is constant, ( language, score DESC, repository_id ) index is read in order and stops after limit repos
+  // within created date bound. Total count comes from rollups, which count unscored repos as well
+  private static final String SELECT_TOP_PAGE = "SELECT c.total_count, g.id, g.repository_id, g.url, g.created_date, "
+          + "g.language, g.score, g.scored_date, g.stargazers_count, g.forks_count, g.updated_date, "
+          + "g.score_valid_until, g.fingerprint "
+          + "FROM (SELECT COALESCE(SUM(repo_count), 0) AS total_count FROM repo_count_rollup "
+          + "WHERE language = ? AND created_day >= ?) c "
+          + "LEFT JOIN (SELECT * FROM github_repo WHERE language = ? AND score IS NOT NULL AND created_date >= ? %s "
+          + "ORDER BY language ASC, score DESC, repository_id ASC LIMIT ?) g ON TRUE "
+          + "ORDER BY g.score DESC, g.repository_id ASC";
+
+  private static final String SCORE_SEEK_CONDITION = "AND score <= ? AND (score < ? OR repository_id > ?)";
+
+  private static final String INSERT_MISSING_ROLLUP = "MERGE INTO repo_count_rollup r "
+          + "USING (VALUES (CAST(? AS SMALLINT), CAST(? AS INT))) v (language, created_day) "
+          + "ON r.language = v.language AND r.created_day = v.created_day "
+          + "WHEN NOT MATCHED THEN INSERT (language, created_day, repo_count) VALUES (v.language, v.created_day, 0)";
+
+  private static final String UPDATE_ROLLUP = "UPDATE repo_count_rollup SET repo_count = repo_count + ? "
+          + "WHERE language = ? AND created_day = ?";
+
+  private static final String SELECT_ROLLUPS = "SELECT language, created_day, repo_count FROM repo_count_rollup";
+
+  private static final String SELECT_ROLLUP_COUNTS = "SELECT language, FLOOR(created_date / 86400.0), COUNT(*) "
+          + "FROM github_repo WHERE language IS NOT NULL GROUP BY language, FLOOR(created_date / 86400.0)";
+
+  private static final String RECOUNT_ROLLUP = "UPDATE repo_count_rollup SET repo_count = (SELECT COUNT(*) "
+          + "FROM github_repo WHERE language = ? AND created_date >= ? AND created_date < ?) "
+          + "WHERE language = ? AND created_day = ?";
+
+  private static final String SELECT_FINGERPRINTS = "SELECT repository_id, fingerprint FROM github_repo "
+          + "WHERE repository_id IN (%s)";
+
+  private static final String SELECT_SCORING_CHUNK = "SELECT id, stargazers_count, forks_count, updated_date "
+          + "FROM github_repo WHERE score_valid_until <= ? AND id > ? AND id <= ? ORDER BY id LIMIT ?";
+
+  // skips rows rewritten since the chunk was read, their score is already fresh
+  private static final String UPDATE_SCORE = "UPDATE github_repo SET score = ?, scored_date = ?, score_valid_until = ? "
+          + "WHERE id = ? AND score_valid_until <= ? AND stargazers_count = ? AND forks_count = ? AND updated_date = ?";
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+  @Autowired
+  private LanguageDictionary languageDictionary;
+
+  @Value("${github.data.persist.batch.size}")
+  private Integer batchSize;
+
+  private Logger logger = LoggerFactory.getLogger(GithubRepositoryImpl.class);
+
+  @Override
+  @Transactional
+  public int upsertAll(List<GithubRepo> githubRepos) {
+    if (githubRepos.isEmpty()) {
+      return 0;
+    }
+    // last occurrence of a repo wins, same as upserting them one after the other
+    Map<Long, GithubRepo> latestRepos = new LinkedHashMap<>();
+    for (GithubRepo githubRepo : githubRepos) {
+      latestRepos.remove(githubRepo.getRepositoryId());
+      latestRepos.put(githubRepo.getRepositoryId(), githubRepo);
+    }
+    List<GithubRepo> upserts = new ArrayList<>(latestRepos.values());
+    Map<Long, Long> storedRollupKeys = new HashMap<>();
+    for (int from = 0; from < upserts.size(); from += batchSize) {
+      List<GithubRepo> chunk = upserts.subList(from, Math.min(upserts.size(), from + batchSize));
+      String sql = String.format(UPSERT_GITHUB_REPOS,
+              String.join(", ", Collections.nCopies(chunk.size(), UPSERT_VALUES)));
+      List<Object> args = new ArrayList<>(chunk.size() * 11);
+      for (GithubRepo repo : chunk) {
+        args.add(repo.getRepositoryId());
+        args.add(repo.getUrl());
+        args.add(repo.getCreatedDate());
+        args.add(languageDictionary.encode(repo.getLanguage()));
+        args.add(repo.getScore());
+        args.add(repo.getScoredDate());
+        args.add(repo.getStargazersCount());
+        args.add(repo.getForksCount());
+        args.add(repo.getUpdatedDate());
+        args.add(repo.getScoreValidUntil());
+        args.add(repo.getFingerprint());
+      }
+      jdbcTemplate.query(sql, rs -> {
+        Long rollupKey = rollupKey(rs.getObject(2, Short.class), rs.getLong(3));
+        if (Objects.nonNull(rollupKey)) {
+          storedRollupKeys.put(rs.getLong(1), rollupKey);
+        }
+      }, args.toArray());
+    }
+    applyRollupDeltas(countRollupDeltas(upserts, storedRollupKeys));
+    return upserts.size();
+  }
+
+  @Override
+  public GithubRepoPage fetchGithubRepoPage(short language, long createdFrom, int limit, int offset) {
+    return fetchGithubRepoPage(String.format(SELECT_PAGE, ""),
+            language, EpochTime.toEpochDay(createdFrom), language, createdFrom, limit, offset);
+  }
+
+  @Override
+  public GithubRepoPage fetchGithubRepoPageAfter(short language, long createdFrom, long afterCreatedDate,
+                                                 long afterRepositoryId, int limit) {
+    return fetchGithubRepoPage(String.format(SELECT_PAGE, SEEK_CONDITION), language, EpochTime.toEpochDay(createdFrom),
+            language, createdFrom, afterCreatedDate, afterCreatedDate, afterRepositoryId, limit, 0);
+  }
+
+  @Override
+  public GithubRepoPage fetchTopGithubRepoPage(short language, long createdFrom, int limit) {
+    return fetchGithubRepoPage(String.format(SELECT_TOP_PAGE, ""),
+            language, EpochTime.toEpochDay(createdFrom), language, createdFrom, limit);
+  }
+
+  @Override
+  public GithubRepoPage fetchTopGithubRepoPageAfter(short language, long createdFrom, double afterScore,
+                                                    long afterRepositoryId, int limit) {
+    return fetchGithubRepoPage(String.format(SELECT_TOP_PAGE, SCORE_SEEK_CONDITION), language,
+            EpochTime.toEpochDay(createdFrom), language, createdFrom, afterScore, afterScore, afterRepositoryId, limit);
+  }
+
+  private GithubRepoPage fetchGithubRepoPage(String sql, Object... args) {
+    long[] totalCount = new long[1];
+    List<GithubRepo> githubRepos = new ArrayList<>();
+    jdbcTemplate.query(sql, rs -> {
+      totalCount[0] = rs.getLong(1);
+      if (Objects.isNull(rs.getObject(3))) {
+        // count row only
+        return;
+      }
+      GithubRepo githubRepo = new GithubRepo();
+      githubRepo.setId(rs.getLong(2));
+      githubRepo.setRepositoryId(rs.getLong(3));
+      githubRepo.setUrl(rs.getString(4));
+      githubRepo.setCreatedDate(rs.getLong(5));
+      githubRepo.setLanguage(languageDictionary.decode(rs.getObject(6, Short.class)));
+      githubRepo.setScore(rs.getObject(7, Double.class));
+      githubRepo.setScoredDate(rs.getLong(8));
+      githubRepo.setStargazersCount(rs.getObject(9, Long.class));
+      githubRepo.setForksCount(rs.getObject(10, Long.class));
+      githubRepo.setUpdatedDate(rs.getLong(11));
+      githubRepo.setScoreValidUntil(rs.getLong(12));
+      githubRepo.setFingerprint(rs.getObject(13, Long.class));
+      githubRepos.add(githubRepo);
+    }, args);
+    return new GithubRepoPage(totalCount[0], githubRepos);
+  }
+
+  @Override
+  public void ensureCountRollups(Collection<GithubRepo> githubRepos) {
+    // sorted so that concurrent writers insert rollup rows in the same order
+    Set<Long> rollupKeys = new TreeSet<>();
+    for (GithubRepo githubRepo : githubRepos) {
+      Long rollupKey = rollupKey(languageDictionary.encode(githubRepo.getLanguage()), githubRepo.getCreatedDate());
+      if (Objects.nonNull(rollupKey)) {
+        rollupKeys.add(rollupKey);
+      }
+    }
+    if (!rollupKeys.isEmpty()) {
+      insertMissingRollups(rollupKeys);
+    }
+  }
+
+  @Override
+  public int repairCountRollups() {
+    Map<Long, Long> rollupCounts = new HashMap<>();
+    jdbcTemplate.query(SELECT_ROLLUPS, rs -> {
+      rollupCounts.put(packRollupKey(rs.getShort(1), rs.getInt(2)), rs.getLong(3));
+    });
+    Map<Long, Long> repoCounts = new HashMap<>();
+    jdbcTemplate.query(SELECT_ROLLUP_COUNTS, rs -> {
+      repoCounts.put(packRollupKey(rs.getShort(1), rs.getLong(2)), rs.getLong(3));
+    });
+    Set<Long> drifted = new TreeSet<>();
+    repoCounts.forEach((rollupKey, count) -> {
+      if (!count.equals(rollupCounts.getOrDefault(rollupKey, 0L))) {
+        drifted.add(rollupKey);
+      }
+    });
+    rollupCounts.forEach((rollupKey, count) -> {
+      if (count != 0 && !repoCounts.containsKey(rollupKey)) {
+        drifted.add(rollupKey);
+      }
+    });
+    if (drifted.isEmpty()) {
+      return 0;
+    }
+    insertMissingRollups(drifted);
+    // recounted in a single statement per rollup, so that repos written since the comparison are counted once
+    jdbcTemplate.batchUpdate(RECOUNT_ROLLUP, drifted, batchSize, (ps, rollupKey) -> {
+      long createdDay = rollupCreatedDay(rollupKey);
+      ps.setShort(1, rollupLanguage(rollupKey));
+      ps.setLong(2, EpochTime.toEpochSecond(createdDay));
+      ps.setLong(3, EpochTime.toEpochSecond(createdDay + 1));
+      ps.setShort(4, rollupLanguage(rollupKey));
+      ps.setLong(5, createdDay);
+    });
+    return drifted.size();
+  }
+
+  // change in rollups when given repos replaced given stored rollup keys, a repo already stored moves only if its
+  // language or created day changed
+  private Map<Long, Long> countRollupDeltas(List<GithubRepo> githubRepos, Map<Long, Long> storedRollupKeys) {
+    // sorted so that concurrent upserts lock rollup rows in the same order
+    Map<Long, Long> rollupDeltas = new TreeMap<>();
+    for (GithubRepo githubRepo : githubRepos) {
+      Long rollupKey = rollupKey(languageDictionary.encode(githubRepo.getLanguage()), githubRepo.getCreatedDate());
+      Long storedRollupKey = storedRollupKeys.get(githubRepo.getRepositoryId());
+      if (Objects.equals(rollupKey, storedRollupKey)) {
+        continue;
+      }
+      if (Objects.nonNull(rollupKey)) {
+        rollupDeltas.merge(rollupKey, 1L, Long::sum);
+      }
+      if (Objects.nonNull(storedRollupKey)) {
+        rollupDeltas.merge(storedRollupKey, -1L, Long::sum);
+      }
+    }
+    return rollupDeltas;
+  }
+
+  private void applyRollupDeltas(Map<Long, Long> rollupDeltas) {
+    rollupDeltas.values().removeIf(delta -> delta == 0);
+    if (rollupDeltas.isEmpty()) {
+      return;
+    }
+    List<Map.Entry<Long, Long>> missing = updateRollups(new ArrayList<>(rollupDeltas.entrySet()));
+    if (!missing.isEmpty()) {
+      insertMissingRollups(missing.stream().map(Map.Entry::getKey).collect(Collectors.toList()));
+      updateRollups(missing);
+    }
+  }
+
+  // returns rollup deltas which did not match a rollup row
+  private List<Map.Entry<Long, Long>> updateRollups(List<Map.Entry<Long, Long>> rollupDeltas) {
+    int[][] updated = jdbcTemplate.batchUpdate(UPDATE_ROLLUP, rollupDeltas, batchSize, (ps, rollupDelta) -> {
+      ps.setLong(1, rollupDelta.getValue());
+      ps.setShort(2, rollupLanguage(rollupDelta.getKey()));
+      ps.setLong(3, rollupCreatedDay(rollupDelta.getKey()));
+    });
+    List<Map.Entry<Long, Long>> missing = new ArrayList<>();
+    int index = 0;
+    for (int[] batch : updated) {
+      for (int count : batch) {
+        if (count == 0) {
+          missing.add(rollupDeltas.get(index));
+        }
+        index++;
+      }
+    }
+    return missing;
+  }
+
+  // rows of a new language and created day are inserted in current transaction, writers running concurrently insert
+  // them up front with ensureCountRollups so that they only update existing rows here
+  private void insertMissingRollups(Collection<Long> rollupKeys) {
+    List<Long> missing = new ArrayList<>(rollupKeys);
+    try {
+      insertRollups(missing);
+    } catch (DuplicateKeyException ex) {
+      // inserted concurrently, merge skips rows which exist by now
+      logger.debug("Count rollups inserted concurrently, inserting remaining rollups again.");
+      insertRollups(missing);
+    }
+  }
+
+  private void insertRollups(List<Long> rollupKeys) {
+    jdbcTemplate.batchUpdate(INSERT_MISSING_ROLLUP, rollupKeys, batchSize, (ps, rollupKey) -> {
+      ps.setShort(1, rollupLanguage(rollupKey));
+      ps.setLong(2, rollupCreatedDay(rollupKey));
+    });
+  }
+
+  // language code and created day packed into a single long
+  private static Long rollupKey(Short language, long createdDate) {
+    if (Objects.isNull(language)) {
+      return null;
+    }
+    return packRollupKey(language, EpochTime.toEpochDay(createdDate));
+  }
+
+  private static long packRollupKey(short language, long createdDay) {
+    return ((long) language << 32) | (createdDay & 0xffffffffL);
+  }
+
+  private static short rollupLanguage(long rollupKey) {
+    return (short) (rollupKey >> 32);
+  }
+
+  private static long rollupCreatedDay(long rollupKey) {
+    return (int) rollupKey;
+  }
+
+  @Override
+  public Map<Long, Long> findFingerprints(Collection<Long> repositoryIds) {
+    Map<Long, Long> fingerprints = new HashMap<>();
+    if (repositoryIds.isEmpty()) {
+      return fingerprints;
+    }
+    String placeholders = String.join(", ", Collections.nCopies(repositoryIds.size(), "?"));
+    jdbcTemplate.query(String.format(SELECT_FINGERPRINTS, placeholders), rs -> {
+      fingerprints.put(rs.getLong(1), rs.getObject(2, Long.class));
+    }, repositoryIds.toArray());
+    return fingerprints;
+  }
+
+  @Override
+  public List<GithubRepo> findScoringChunk(long expiredAt, long afterId, long toId, int limit) {
+    return jdbcTemplate.query(SELECT_SCORING_CHUNK, (rs, rowNum) -> {
+      GithubRepo githubRepo = new GithubRepo();
+      githubRepo.setId(rs.getLong(1));
+      githubRepo.setStargazersCount(rs.getLong(2));
+      githubRepo.setForksCount(rs.getLong(3));
+      githubRepo.setUpdatedDate(rs.getLong(4));
+      return githubRepo;
+    }, expiredAt, afterId, toId, limit);
+  }
+
+  @Override
+  @Transactional
+  public int updateScores(List<GithubRepo> githubRepos, long expiredAt) {
+    if (githubRepos.isEmpty()) {
+      return 0;
+    }
+    int[][] updated = jdbcTemplate.batchUpdate(UPDATE_SCORE, githubRepos, batchSize, (ps, repo) -> {
+      ps.setObject(1, repo.getScore());
+      ps.setLong(2, repo.getScoredDate());
+      ps.setLong(3, repo.getScoreValidUntil());
+      ps.setLong(4, repo.getId());
+      ps.setLong(5, expiredAt);
+      ps.setLong(6, repo.getStargazersCount());
+      ps.setLong(7, repo.getForksCount());
+      ps.setLong(8, repo.getUpdatedDate());
+    });
+    int written = 0;
+    for (int[] batch : updated) {
+      for (int count : batch) {
+        written += count;
+      }
+    }
+    return written;
+  }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.repo;
+
+import org.github.popularity.model.IngestionCheckpoint;
+
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Ingestion checkpoint data Repository.
+ *
+ * @author Kevin Ratnasekera
+ */
+@Repository
+public interface IngestionCheckpointRepository extends CrudRepository<IngestionCheckpoint, Long> {
+
+  IngestionCheckpoint findByJobKey(String jobKey);
+
+  @Query("SELECT c FROM IngestionCheckpoint c WHERE c.language = ?1 AND c.windowStart >= ?2 AND c.windowEnd IS NOT NULL "
+          + "AND c.completed = false ORDER BY c.windowStart ASC")
+  List<IngestionCheckpoint> findOpenWindows(String language, OffsetDateTime windowStart);
+
+  @Query("SELECT c FROM IngestionCheckpoint c WHERE c.language = ?1 AND c.windowStart >= ?2 AND c.windowEnd IS NOT NULL "
+          + "AND c.windowEnd <= ?3 ORDER BY c.windowStart ASC, c.windowEnd DESC")
+  List<IngestionCheckpoint> findPlannedWindows(String language, OffsetDateTime windowStart, OffsetDateTime windowEnd);
+
+  @Query("SELECT MAX(c.updatedDate) FROM IngestionCheckpoint c WHERE c.language = ?1 AND c.completed = true")
+  OffsetDateTime findLastCompletedDate(String language);
+
+  @Query("SELECT MAX(c.lastPushedAt) FROM IngestionCheckpoint c WHERE c.language = ?1 AND c.completed = true")
+  OffsetDateTime findHighWaterPushedAt(String language);
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT c FROM IngestionCheckpoint c WHERE c.jobKey = ?1")
+  IngestionCheckpoint findByJobKeyForUpdate(String jobKey);
+
+}
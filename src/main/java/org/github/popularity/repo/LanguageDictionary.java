@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.repo;
+
+import org.github.popularity.model.Language;
+import org.github.popularity.model.LanguageCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory bidirectional map between language names and their codes in ```language_dictionary``` table, loaded at
+ * startup. Supported languages, built in ones and ones configured in ```github.search.supported.languages```, are
+ * always present, other languages seen in Github data are given a new code the first time they are stored.
+ *
+ * @author Kevin Ratnasekera
+ */
+@Component
+public class LanguageDictionary {
+
+  private Logger logger = LoggerFactory.getLogger(LanguageDictionary.class);
+
+  @Autowired
+  private LanguageCodeRepository languageCodeRepository;
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  // env variables
+  @Value("${github.search.supported.languages}")
+  private String supportedLanguages;
+
+  private final Map<String, Short> codes = new ConcurrentHashMap<>();
+  // indexed by code, replaced as a whole when a language is added
+  private volatile String[] names = new String[0];
+  // codes of languages supported for validation and background data fetch, only written at startup
+  private final BitSet supported = new BitSet();
+  // new codes are committed on their own, so that a rolled back caller never leaves a code which is not stored
+  private TransactionTemplate registerTransaction;
+
+  @PostConstruct
+  public void load() {
+    registerTransaction = new TransactionTemplate(transactionManager);
+    registerTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    for (LanguageCode languageCode : languageCodeRepository.findAll()) {
+      put(languageCode.getCode(), languageCode.getName());
+    }
+    for (Language language : Language.values()) {
+      supported.set(encode(language.getLanguage()));
+    }
+    for (String language : supportedLanguages.split(",")) {
+      if (!language.trim().isEmpty()) {
+        supported.set(encode(language.trim().toLowerCase(Locale.ROOT)));
+      }
+    }
+    logger.info("Loaded {} languages into language dictionary, {} supported.", codes.size(), supported.cardinality());
+  }
+
+  /**
+   * Find code of given language, assigning a new code if language is not in dictionary yet.
+   *
+   * @param language
+   *
+   * @return Short, null if language is null.
+   */
+  public Short encode(String language) {
+    if (Objects.isNull(language)) {
+      return null;
+    }
+    Short code = codes.get(language);
+    if (Objects.nonNull(code)) {
+      return code;
+    }
+    return register(language.toLowerCase(Locale.ROOT));
+  }
+
+  /**
+   * Find code of given language without adding it to dictionary.
+   *
+   * @param language
+   *
+   * @return Short, null if language is not in dictionary.
+   */
+  public Short findCode(String language) {
+    return Objects.isNull(language) ? null : codes.get(language);
+  }
+
+  /**
+   * Find language name of given code.
+   *
+   * @param code
+   *
+   * @return String, null if code is null or unknown.
+   */
+  public String decode(Short code) {
+    String[] current = names;
+    if (Objects.isNull(code) || code < 0 || code >= current.length) {
+      return null;
+    }
+    return current[code];
+  }
+
+  /**
+   * Check whether given language is supported for validation and background data fetch.
+   *
+   * @param language
+   */
+  public boolean isSupported(String language) {
+    Short code = findCode(language);
+    return Objects.nonNull(code) && supported.get(code);
+  }
+
+  private synchronized Short register(String language) {
+    Short code = codes.get(language);
+    if (Objects.nonNull(code)) {
+      return code;
+    }
+    if (names.length > Short.MAX_VALUE) {
+      throw new IllegalStateException("Language dictionary is full, unable to add language " + language + ".");
+    }
+    LanguageCode languageCode = new LanguageCode();
+    languageCode.setCode((short) names.length);
+    languageCode.setName(language);
+    // published to other threads only once committed
+    registerTransaction.executeWithoutResult(status -> languageCodeRepository.save(languageCode));
+    put(languageCode.getCode(), language);
+    return languageCode.getCode();
+  }
+
+  private synchronized void put(short code,
+                                String language) {
+    String[] updated = Arrays.copyOf(names, Math.max(names.length, code + 1));
+    updated[code] = language;
+    names = updated;
+    codes.put(language, code);
+  }
+
+}
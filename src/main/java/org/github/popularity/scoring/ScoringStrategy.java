@@ -17,16 +17,22 @@
 package org.github.popularity.scoring;
 
 
+import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 
 /**
  * Scoring Strategy Interface. Currently scoring algorithm is based on three attributes.
- * stargazers count, forks count and last pushed/updated date.
+ * stargazers count, forks count and last pushed/updated date. Strategies work on epoch seconds, date time
+ * variants are kept for callers at the API boundary.
  *
  * @author Kevin Ratnasekera
  */
 public interface ScoringStrategy {
 
+  // score valid until value of a score which no longer changes over time
+  long SCORE_VALID_FOREVER = Long.MAX_VALUE;
+
   /**
    * Assign Popularity Score.
    *
@@ -36,6 +42,100 @@ public interface ScoringStrategy {
    *
    * @return popularity score
    */
-  Double score(Long stargazersCount, Long forksCount, OffsetDateTime lastUpdated);
+  default Double score(Long stargazersCount, Long forksCount, OffsetDateTime lastUpdated) {
+    return score(stargazersCount, forksCount, lastUpdated, OffsetDateTime.now(ZoneOffset.UTC));
+  }
+
+  /**
+   * Assign Popularity Score as of given date, so that a bulk rescoring run scores all rows against the same date.
+   *
+   * @param stargazersCount
+   * @param forksCount
+   * @param lastUpdated
+   * @param scoredDate
+   *
+   * @return popularity score
+   */
+  default Double score(Long stargazersCount, Long forksCount, OffsetDateTime lastUpdated, OffsetDateTime scoredDate) {
+    return score(stargazersCount.longValue(), forksCount.longValue(), lastUpdated.toEpochSecond(),
+            scoredDate.toEpochSecond());
+  }
+
+  /**
+   * Assign Popularity Score as of given epoch second.
+   *
+   * @param stargazersCount
+   * @param forksCount
+   * @param lastUpdated epoch second
+   * @param scoredDate epoch second
+   *
+   * @return popularity score
+   */
+  double score(long stargazersCount, long forksCount, long lastUpdated, long scoredDate);
+
+  /**
+   * Assign Popularity Scores of a batch of repos as of given epoch second, attributes of i th repo are at index i of
+   * each array. Used by bulk rescoring, strategies may override it with a loop the JIT compiler vectorizes better
+   * than repeated per repo calls.
+   *
+   * @param stargazersCounts
+   * @param forksCounts
+   * @param lastUpdated epoch seconds
+   * @param scoredDate epoch second
+   * @param scores filled with popularity scores of first length repos
+   * @param length number of repos in batch
+   */
+  default void score(long[] stargazersCounts, long[] forksCounts, long[] lastUpdated, long scoredDate,
+                     double[] scores, int length) {
+    for (int i = 0; i < length; i++) {
+      scores[i] = score(stargazersCounts[i], forksCounts[i], lastUpdated[i], scoredDate);
+    }
+  }
+
+  /**
+   * Next instant after given scored date at which score of given attributes changes, so that rescoring only
+   * touches rows whose score expired. Strategies which do not know their transitions keep the default, score is
+   * then valid only until scored date and every rescoring run recomputes it.
+   *
+   * @param stargazersCount
+   * @param forksCount
+   * @param lastUpdated epoch second
+   * @param scoredDate epoch second
+   *
+   * @return score valid until epoch second, SCORE_VALID_FOREVER if score does not change anymore over time
+   */
+  default long scoreValidUntil(long stargazersCount, long forksCount, long lastUpdated, long scoredDate) {
+    return scoredDate;
+  }
+
+  /**
+   * Batch variant of {@link #scoreValidUntil(long, long, long, long)}.
+   *
+   * @param stargazersCounts
+   * @param forksCounts
+   * @param lastUpdated epoch seconds
+   * @param scoredDate epoch second
+   * @param scoreValidUntil filled with score valid until epoch seconds of first length repos
+   * @param length number of repos in batch
+   */
+  default void scoreValidUntil(long[] stargazersCounts, long[] forksCounts, long[] lastUpdated, long scoredDate,
+                               long[] scoreValidUntil, int length) {
+    for (int i = 0; i < length; i++) {
+      scoreValidUntil[i] = scoreValidUntil(stargazersCounts[i], forksCounts[i], lastUpdated[i], scoredDate);
+    }
+  }
+
+  /**
+   * Date time variant of {@link #scoreValidUntil(long, long, long, long)}.
+   *
+   * @return score valid until, null if score does not change anymore over time
+   */
+  default OffsetDateTime scoreValidUntil(Long stargazersCount, Long forksCount, OffsetDateTime lastUpdated,
+                                         OffsetDateTime scoredDate) {
+    long scoreValidUntil = scoreValidUntil(stargazersCount.longValue(), forksCount.longValue(),
+            lastUpdated.toEpochSecond(), scoredDate.toEpochSecond());
+    return scoreValidUntil == SCORE_VALID_FOREVER ? null
+            : Instant.ofEpochSecond(scoreValidUntil).atOffset(ZoneOffset.UTC);
+  }
 
 }
@@ -16,10 +16,6 @@
  */
 package org.github.popularity.scoring;
 
-import java.time.OffsetDateTime;
-import java.time.ZoneOffset;
-import java.time.temporal.ChronoUnit;
-
 import static org.github.popularity.constant.GithubConstants.FORK_COUNT_WEIGHT;
 import static org.github.popularity.constant.GithubConstants.LAST_UPDATED_WEIGHT;
 import static org.github.popularity.constant.GithubConstants.STARGAZERS_COUNT_WEIGHT;
@@ -31,6 +27,9 @@ import static org.github.popularity.constant.GithubConstants.STARGAZERS_COUNT_WE
  */
 public class WeightedScoringStrategy implements ScoringStrategy {
 
+  private static final long SECONDS_PER_DAY = 86400;
+  private static final double TOTAL_WEIGHT = 4 * STARGAZERS_COUNT_WEIGHT + 4 * FORK_COUNT_WEIGHT + 2 * LAST_UPDATED_WEIGHT;
+
   /**
    * Algorithm is based on weighted average score. This scoring algorithm is implemented simple and straight forward.
    *
@@ -60,43 +59,72 @@ public class WeightedScoringStrategy implements ScoringStrategy {
    * each attribute level points are multiplied by respective weight and normalized by totals weight.
    * Then we multiply such normalized score by 100, so that our popularity score is between 0 and 100.
    */
-  public Double score(Long stargazersCount,
-                      Long forksCount,
-                      OffsetDateTime lastUpdated) {
-    Double score = 0.0;
+  @Override
+  public double score(long stargazersCount,
+                      long forksCount,
+                      long lastUpdated,
+                      long scoredDate) {
+    return points(stargazersCount, forksCount, scoredDate - lastUpdated) / TOTAL_WEIGHT * 100;
+  }
 
-    // stargazers score
-    if (stargazersCount >= 100000) {
-      score = score + STARGAZERS_COUNT_WEIGHT * 4;
-    } else if (stargazersCount >= 1000) {
-      score = score + STARGAZERS_COUNT_WEIGHT * 3;
-    } else if (stargazersCount >= 100) {
-      score = score + STARGAZERS_COUNT_WEIGHT * 2;
-    } else if (stargazersCount > 0) {
-      score = score + STARGAZERS_COUNT_WEIGHT;
+  /**
+   * Same algorithm over arrays, attribute levels are summed from comparisons instead of if/else chains so that the
+   * loop body has no data dependent branches.
+   */
+  @Override
+  public void score(long[] stargazersCounts,
+                    long[] forksCounts,
+                    long[] lastUpdated,
+                    long scoredDate,
+                    double[] scores,
+                    int length) {
+    for (int i = 0; i < length; i++) {
+      scores[i] = points(stargazersCounts[i], forksCounts[i], scoredDate - lastUpdated[i]) / TOTAL_WEIGHT * 100;
     }
+  }
 
-    // forks score
-    if (forksCount >= 1000) {
-      score = score + FORK_COUNT_WEIGHT * 4;
-    } else if (forksCount >= 500) {
-      score = score + FORK_COUNT_WEIGHT * 3;
-    } else if (forksCount >= 100) {
-      score = score + FORK_COUNT_WEIGHT * 2;
-    } else if (forksCount > 0) {
-      score = score + FORK_COUNT_WEIGHT;
-    }
+  // weighted sum of attribute level points, each level reached adds one point
+  private static double points(long stargazersCount,
+                               long forksCount,
+                               long secondsSinceLastUpdate) {
+    long stargazersPoints = atLeast(stargazersCount, 1) + atLeast(stargazersCount, 100)
+            + atLeast(stargazersCount, 1000) + atLeast(stargazersCount, 100000);
+    long forksPoints = atLeast(forksCount, 1) + atLeast(forksCount, 100)
+            + atLeast(forksCount, 500) + atLeast(forksCount, 1000);
+    // whole days since last update <= 28 is seconds since last update < 29 days, no division needed
+    long lastUpdatedPoints = atMost(secondsSinceLastUpdate, 29 * SECONDS_PER_DAY - 1)
+            + atMost(secondsSinceLastUpdate, 57 * SECONDS_PER_DAY - 1);
+    return STARGAZERS_COUNT_WEIGHT * stargazersPoints + FORK_COUNT_WEIGHT * forksPoints
+            + LAST_UPDATED_WEIGHT * lastUpdatedPoints;
+  }
 
-    // last updated score
-    long daysSinceLastUpdate = ChronoUnit.DAYS.between(lastUpdated, OffsetDateTime.now(ZoneOffset.UTC));
+  // 1 if value >= threshold else 0, taken from sign bit of the difference
+  private static long atLeast(long value,
+                              long threshold) {
+    return (threshold - 1 - value) >>> 63;
+  }
+
+  // 1 if value <= threshold else 0
+  private static long atMost(long value,
+                             long threshold) {
+    return (value - threshold - 1) >>> 63;
+  }
+
+  /**
+   * Only last updated points depend on time, they drop when days since last update goes past 28 and past 56.
+   */
+  @Override
+  public long scoreValidUntil(long stargazersCount,
+                              long forksCount,
+                              long lastUpdated,
+                              long scoredDate) {
+    long daysSinceLastUpdate = (scoredDate - lastUpdated) / SECONDS_PER_DAY;
     if (daysSinceLastUpdate <= 28) {
-      score = score + LAST_UPDATED_WEIGHT * 2;
+      return lastUpdated + 29 * SECONDS_PER_DAY;
     } else if (daysSinceLastUpdate <= 56) {
-      score = score + LAST_UPDATED_WEIGHT;
+      return lastUpdated + 57 * SECONDS_PER_DAY;
     }
-
-    long totalWeight = 4 * STARGAZERS_COUNT_WEIGHT + 4 * FORK_COUNT_WEIGHT + 2 * LAST_UPDATED_WEIGHT;
-    return score / totalWeight * 100;
+    return SCORE_VALID_FOREVER;
   }
 
 }
@@ -17,8 +17,11 @@
 package org.github.popularity.service;
 
 import org.github.popularity.dto.GithubSearchResponseDTO;
+import org.github.popularity.mapper.ScoreCursor;
+import org.github.popularity.mapper.SearchCursor;
 
 import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Github Data Service Interface.
@@ -43,6 +46,53 @@ public interface GithubRepoDataService {
                                              int offset,
                                              int limit);
 
+  /**
+   * Search Github repository data stored in Database, page starts after position of given cursor. Unlike offset
+   * pagination, cost of a page does not grow with its depth.
+   *
+   * @param language
+   * @param createdDate
+   * @param cursor position of last repo of previous page
+   * @param limit
+   *
+   * @return GithubSearchResponseDTO paginated data.
+   *
+   */
+  GithubSearchResponseDTO searchFromDatabase(String language,
+                                             LocalDate createdDate,
+                                             SearchCursor cursor,
+                                             int limit);
+
+  /**
+   * Search top scored Github repositories stored in Database, ordered by score descending.
+   *
+   * @param language
+   * @param createdDate
+   * @param limit
+   *
+   * @return GithubSearchResponseDTO first page of top repos.
+   *
+   */
+  GithubSearchResponseDTO searchTopFromDatabase(String language,
+                                                LocalDate createdDate,
+                                                int limit);
+
+  /**
+   * Search top scored Github repositories stored in Database, page starts after position of given cursor.
+   *
+   * @param language
+   * @param createdDate
+   * @param cursor position of last repo of previous page
+   * @param limit
+   *
+   * @return GithubSearchResponseDTO next page of top repos.
+   *
+   */
+  GithubSearchResponseDTO searchTopFromDatabase(String language,
+                                                LocalDate createdDate,
+                                                ScoreCursor cursor,
+                                                int limit);
+
   /**
    * Search Github repository from Github search endpoint.
    *
@@ -51,12 +101,12 @@ public interface GithubRepoDataService {
    * @param offset
    * @param limit
    *
-   * @return GithubSearchResponseDTO paginated data.
+   * @return CompletableFuture of GithubSearchResponseDTO paginated data, completed once Github responds.
    *
    */
-  GithubSearchResponseDTO searchFromAPI(String language,
-                                        LocalDate createdDate,
-                                        int offset,
-                                        int limit);
+  CompletableFuture<GithubSearchResponseDTO> searchFromAPI(String language,
+                                                           LocalDate createdDate,
+                                                           int offset,
+                                                           int limit);
 
 }
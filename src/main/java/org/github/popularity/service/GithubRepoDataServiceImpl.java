@@ -21,8 +21,12 @@ import org.github.popularity.client.Response;
 import org.github.popularity.dto.GithubSearchResponseDTO;
 import org.github.popularity.exception.InternalServerException;
 import org.github.popularity.mapper.DataMapper;
+import org.github.popularity.mapper.ScoreCursor;
+import org.github.popularity.mapper.SearchCursor;
 import org.github.popularity.model.GithubRepo;
+import org.github.popularity.repo.GithubRepoPage;
 import org.github.popularity.repo.GithubRepository;
+import org.github.popularity.repo.LanguageDictionary;
 import org.github.popularity.scoring.WeightedScoringStrategy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,6 +38,10 @@ import java.io.IOException;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 /**
  * Github Data Service Implementation.
@@ -49,6 +57,8 @@ public class GithubRepoDataServiceImpl implements GithubRepoDataService {
   private Client client;
   @Autowired
   private DataMapper dataMapper;
+  @Autowired
+  private LanguageDictionary languageDictionary;
 
   private Logger logger = LoggerFactory.getLogger(GithubRepoDataServiceImpl.class);
 
@@ -57,35 +67,89 @@ public class GithubRepoDataServiceImpl implements GithubRepoDataService {
                                                     LocalDate createdDate,
                                                     int offset,
                                                     int limit) {
-    long count = githubRepository.countGithubRepos(language, createdDate.atStartOfDay().atOffset(ZoneOffset.UTC));
-    List<GithubRepo> githubRepos;
-    if (count > 0) {
-      githubRepos = githubRepository.fetchGithubRepos(language, createdDate.atStartOfDay()
-              .atOffset(ZoneOffset.UTC), limit, offset);
-    } else {
-      githubRepos = null;
-    }
-    return dataMapper.toGithubSearchResponseDTO(count, githubRepos);
+    return searchFromDatabase(language, createdDate, limit, (languageCode, createdFrom) ->
+            githubRepository.fetchGithubRepoPage(languageCode, createdFrom, limit, offset),
+            last -> SearchCursor.after(last).encode());
   }
 
   @Override
-  public GithubSearchResponseDTO searchFromAPI(String language,
-                                               LocalDate createdDate,
-                                               int offset,
-                                               int limit) {
-    try {
-      Response httpResponse = client.sendSearchRequest(language, createdDate, offset, limit);
-      if (httpResponse.getStatus() == HttpStatus.OK.value()) {
-        return dataMapper.toGithubSearchResponseDTO(httpResponse.getBody(), new WeightedScoringStrategy());
-      } else {
-        // improve with meaningful error messages
-        logger.error("Github server returned status code {}.", httpResponse.getStatus());
-        throw new InternalServerException("Internal Server Error Occurred.");
-      }
-    } catch (IOException ex) {
-      logger.error("Error occurred when invoking Github search endpoint.", ex);
-      throw new InternalServerException("Internal Server Error Occurred.", ex);
+  public GithubSearchResponseDTO searchFromDatabase(String language,
+                                                    LocalDate createdDate,
+                                                    SearchCursor cursor,
+                                                    int limit) {
+    return searchFromDatabase(language, createdDate, limit, (languageCode, createdFrom) ->
+            githubRepository.fetchGithubRepoPageAfter(languageCode, createdFrom, cursor.getCreatedDate(),
+                    cursor.getRepositoryId(), limit),
+            last -> SearchCursor.after(last).encode());
+  }
+
+  @Override
+  public GithubSearchResponseDTO searchTopFromDatabase(String language,
+                                                       LocalDate createdDate,
+                                                       int limit) {
+    return searchFromDatabase(language, createdDate, limit, (languageCode, createdFrom) ->
+            githubRepository.fetchTopGithubRepoPage(languageCode, createdFrom, limit),
+            last -> ScoreCursor.after(last).encode());
+  }
+
+  @Override
+  public GithubSearchResponseDTO searchTopFromDatabase(String language,
+                                                       LocalDate createdDate,
+                                                       ScoreCursor cursor,
+                                                       int limit) {
+    return searchFromDatabase(language, createdDate, limit, (languageCode, createdFrom) ->
+            githubRepository.fetchTopGithubRepoPageAfter(languageCode, createdFrom, cursor.getScore(),
+                    cursor.getRepositoryId(), limit),
+            last -> ScoreCursor.after(last).encode());
+  }
+
+  private GithubSearchResponseDTO searchFromDatabase(String language,
+                                                     LocalDate createdDate,
+                                                     int limit,
+                                                     BiFunction<Short, Long, GithubRepoPage> pageQuery,
+                                                     Function<GithubRepo, String> nextCursor) {
+    Short languageCode = languageDictionary.findCode(language);
+    if (Objects.isNull(languageCode)) {
+      // no repo of this language stored yet
+      return dataMapper.toGithubSearchResponseDTO(0, null);
     }
+    GithubRepoPage githubRepoPage = pageQuery.apply(languageCode,
+            createdDate.atStartOfDay().toEpochSecond(ZoneOffset.UTC));
+    List<GithubRepo> githubRepos = githubRepoPage.getTotalCount() > 0 ? githubRepoPage.getGithubRepos() : null;
+    GithubSearchResponseDTO githubSearchResponseDTO = dataMapper.toGithubSearchResponseDTO(
+            githubRepoPage.getTotalCount(), githubRepos);
+    // a full page may be followed by more repos
+    if (Objects.nonNull(githubRepos) && limit > 0 && githubRepos.size() == limit) {
+      githubSearchResponseDTO.setNextCursor(nextCursor.apply(githubRepos.get(limit - 1)));
+    }
+    return githubSearchResponseDTO;
+  }
+
+  @Override
+  public CompletableFuture<GithubSearchResponseDTO> searchFromAPI(String language,
+                                                                  LocalDate createdDate,
+                                                                  int offset,
+                                                                  int limit) {
+    // request thread is released while Github search request is in flight
+    return client.sendSearchRequestAsync(language, createdDate, offset, limit)
+            .handle((httpResponse, failure) -> {
+              if (Objects.nonNull(failure)) {
+                logger.error("Error occurred when invoking Github search endpoint.", failure);
+                throw new InternalServerException("Internal Server Error Occurred.", failure);
+              }
+              try (Response response = httpResponse) {
+                if (response.getStatus() != HttpStatus.OK.value()) {
+                  // improve with meaningful error messages
+                  logger.error("Github server returned status code {}.", response.getStatus());
+                  throw new InternalServerException("Internal Server Error Occurred.");
+                }
+                // items are mapped straight off the connection
+                return dataMapper.toGithubSearchResponseDTO(response.getBodyStream(), new WeightedScoringStrategy());
+              } catch (IOException ex) {
+                logger.error("Error occurred when reading Github search response.", ex);
+                throw new InternalServerException("Internal Server Error Occurred.", ex);
+              }
+            });
   }
 
 }
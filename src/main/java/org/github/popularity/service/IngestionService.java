@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.service;
+
+import org.github.popularity.model.DeadLetterPage;
+import org.github.popularity.model.GithubRepo;
+import org.github.popularity.model.IngestionCheckpoint;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Github Data Ingestion Service Interface.
+ *
+ * @author Kevin Ratnasekera
+ */
+public interface IngestionService {
+
+  /**
+   * Find checkpoint of ingestion job for given language and created date window, creates a new checkpoint
+   * if job has not run before or previous run completed.
+   *
+   * @param language
+   * @param windowStart
+   * @param windowEnd nullable, open ended window
+   * @param totalCount nullable, number of search results in window
+   *
+   * @return IngestionCheckpoint to resume from.
+   */
+  IngestionCheckpoint startCheckpoint(String language,
+                                      OffsetDateTime windowStart,
+                                      OffsetDateTime windowEnd,
+                                      Long totalCount);
+
+  /**
+   * Find planned created date windows of given language which are not completed yet.
+   *
+   * @param language
+   * @param windowStart earliest window start
+   *
+   * @return List of IngestionCheckpoint ordered by window start.
+   */
+  List<IngestionCheckpoint> findOpenWindows(String language,
+                                            OffsetDateTime windowStart);
+
+  /**
+   * Find planned created date windows of given language within given range, open or completed.
+   *
+   * @param language
+   * @param windowStart earliest window start
+   * @param windowEnd latest window end
+   *
+   * @return List of IngestionCheckpoint ordered by window start.
+   */
+  List<IngestionCheckpoint> findPlannedWindows(String language,
+                                               OffsetDateTime windowStart,
+                                               OffsetDateTime windowEnd);
+
+  /**
+   * Remove checkpoints of windows which are no longer part of a plan.
+   *
+   * @param checkpoints
+   */
+  void removeCheckpoints(List<IngestionCheckpoint> checkpoints);
+
+  /**
+   * Find when a search window of given language was last completed, used to prioritize stale languages.
+   *
+   * @param language
+   *
+   * @return OffsetDateTime, null if language never synced.
+   */
+  OffsetDateTime findLastSyncDate(String language);
+
+  /**
+   * Find latest pushed date stored by completed syncs of given language, repos pushed after it are not seen yet.
+   *
+   * @param language
+   *
+   * @return OffsetDateTime, null if language never synced.
+   */
+  OffsetDateTime findHighWaterMark(String language);
+
+  /**
+   * Store Github repos of a search page and advance job checkpoint in a single transaction. Repos whose
+   * fingerprint matches the stored row are skipped.
+   *
+   * @param jobKey nullable, no checkpoint is written
+   * @param lastPage highest page number up to which all pages are stored including this one
+   * @param repos
+   *
+   * @return number of repos written
+   */
+  int persistPage(String jobKey,
+                   int lastPage,
+                   List<GithubRepo> repos);
+
+  /**
+   * Record a search page which failed for good and advance job checkpoint past it in a single transaction,
+   * so that the window completes and only this page is retried later. A page already dead lettered has its
+   * attempts incremented.
+   *
+   * @param jobKey nullable, no checkpoint is written
+   * @param lastPage highest page number up to which all pages are stored including this one
+   * @param deadLetterPage language, window, page, status and error of failed page
+   */
+  void deadLetterPage(String jobKey,
+                      int lastPage,
+                      DeadLetterPage deadLetterPage);
+
+  /**
+   * Find dead letter pages of given language to be retried.
+   *
+   * @param language
+   *
+   * @return List of DeadLetterPage ordered by id.
+   */
+  List<DeadLetterPage> findDeadLetterPages(String language);
+
+  /**
+   * Remove a dead letter page once it is stored.
+   *
+   * @param id
+   */
+  void removeDeadLetterPage(long id);
+
+  /**
+   * Move checkpoint forward to given page, all pages up to given page must already be stored.
+   * Used to catch up checkpoint when pages were committed out of order.
+   *
+   * @param jobKey
+   * @param lastPage
+   */
+  void advanceCheckpoint(String jobKey,
+                         int lastPage);
+
+  /**
+   * Mark ingestion job as completed.
+   *
+   * @param jobKey
+   */
+  void completeCheckpoint(String jobKey);
+
+}
@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.service;
+
+import org.github.popularity.mapper.EpochTime;
+import org.github.popularity.model.DeadLetterPage;
+import org.github.popularity.model.GithubRepo;
+import org.github.popularity.model.IngestionCheckpoint;
+import org.github.popularity.repo.DeadLetterPageRepository;
+import org.github.popularity.repo.GithubRepository;
+import org.github.popularity.repo.IngestionCheckpointRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.stream.Collectors;
+
+/**
+ * Github Data Ingestion Service Implementation.
+ *
+ * @author Kevin Ratnasekera
+ */
+@Service
+public class IngestionServiceImpl implements IngestionService {
+
+  @Autowired
+  private GithubRepository githubRepository;
+  @Autowired
+  private IngestionCheckpointRepository ingestionCheckpointRepository;
+  @Autowired
+  private DeadLetterPageRepository deadLetterPageRepository;
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  private Logger logger = LoggerFactory.getLogger(IngestionServiceImpl.class);
+
+  @Override
+  @Transactional
+  public IngestionCheckpoint startCheckpoint(String language,
+                                             OffsetDateTime windowStart,
+                                             OffsetDateTime windowEnd,
+                                             Long totalCount) {
+    String jobKey = toJobKey(language, windowStart, windowEnd);
+    IngestionCheckpoint checkpoint = ingestionCheckpointRepository.findByJobKey(jobKey);
+    if (Objects.isNull(checkpoint)) {
+      checkpoint = new IngestionCheckpoint();
+      checkpoint.setJobKey(jobKey);
+      checkpoint.setLanguage(language);
+      checkpoint.setWindowStart(windowStart);
+      checkpoint.setWindowEnd(windowEnd);
+      checkpoint.setLastPage(-1);
+      checkpoint.setCompleted(false);
+    } else if (checkpoint.getCompleted()) {
+      // previous run finished, start a fresh run over the window
+      checkpoint.setLastPage(-1);
+      checkpoint.setCompleted(false);
+    } else {
+      logger.info("Resuming ingestion job {} after page {}.", jobKey, checkpoint.getLastPage());
+    }
+    if (Objects.nonNull(totalCount)) {
+      checkpoint.setTotalCount(totalCount);
+    }
+    checkpoint.setUpdatedDate(OffsetDateTime.now(ZoneOffset.UTC));
+    return ingestionCheckpointRepository.save(checkpoint);
+  }
+
+  @Override
+  public List<IngestionCheckpoint> findOpenWindows(String language,
+                                                   OffsetDateTime windowStart) {
+    return ingestionCheckpointRepository.findOpenWindows(language, windowStart);
+  }
+
+  @Override
+  public List<IngestionCheckpoint> findPlannedWindows(String language,
+                                                      OffsetDateTime windowStart,
+                                                      OffsetDateTime windowEnd) {
+    return ingestionCheckpointRepository.findPlannedWindows(language, windowStart, windowEnd);
+  }
+
+  @Override
+  @Transactional
+  public void removeCheckpoints(List<IngestionCheckpoint> checkpoints) {
+    ingestionCheckpointRepository.deleteAll(checkpoints);
+  }
+
+  @Override
+  public OffsetDateTime findLastSyncDate(String language) {
+    return ingestionCheckpointRepository.findLastCompletedDate(language);
+  }
+
+  @Override
+  public OffsetDateTime findHighWaterMark(String language) {
+    return ingestionCheckpointRepository.findHighWaterPushedAt(language);
+  }
+
+  @Override
+  public int persistPage(String jobKey,
+                         int lastPage,
+                         List<GithubRepo> repos) {
+    // rollup rows of new created days are committed before the page transaction starts
+    githubRepository.ensureCountRollups(repos);
+    return transactionTemplate.execute(status -> {
+      int written = githubRepository.upsertAll(changedRepos(repos));
+      if (Objects.nonNull(jobKey)) {
+        updateCheckpoint(jobKey, lastPage, repos);
+      }
+      return written;
+    });
+  }
+
+  @Override
+  @Transactional
+  public void deadLetterPage(String jobKey,
+                             int lastPage,
+                             DeadLetterPage deadLetterPage) {
+    String pageKey = toJobKey(deadLetterPage.getLanguage(), deadLetterPage.getWindowStart(),
+            deadLetterPage.getWindowEnd()) + ":" + deadLetterPage.getPage();
+    OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+    DeadLetterPage existing = deadLetterPageRepository.findByPageKey(pageKey);
+    if (Objects.isNull(existing)) {
+      deadLetterPage.setPageKey(pageKey);
+      deadLetterPage.setAttempts(1);
+      deadLetterPage.setCreatedDate(now);
+      deadLetterPage.setUpdatedDate(now);
+      deadLetterPageRepository.save(deadLetterPage);
+    } else {
+      existing.setStatus(deadLetterPage.getStatus());
+      existing.setError(deadLetterPage.getError());
+      existing.setAttempts(existing.getAttempts() + 1);
+      existing.setUpdatedDate(now);
+    }
+    if (Objects.nonNull(jobKey)) {
+      updateCheckpoint(jobKey, lastPage, Collections.emptyList());
+    }
+  }
+
+  @Override
+  public List<DeadLetterPage> findDeadLetterPages(String language) {
+    return deadLetterPageRepository.findByLanguageOrderByIdAsc(language);
+  }
+
+  @Override
+  @Transactional
+  public void removeDeadLetterPage(long id) {
+    deadLetterPageRepository.findById(id).ifPresent(deadLetterPageRepository::delete);
+  }
+
+  @Override
+  @Transactional
+  public void advanceCheckpoint(String jobKey,
+                                int lastPage) {
+    IngestionCheckpoint checkpoint = ingestionCheckpointRepository.findByJobKeyForUpdate(jobKey);
+    if (lastPage > checkpoint.getLastPage()) {
+      checkpoint.setLastPage(lastPage);
+      checkpoint.setUpdatedDate(OffsetDateTime.now(ZoneOffset.UTC));
+    }
+  }
+
+  @Override
+  @Transactional
+  public void completeCheckpoint(String jobKey) {
+    IngestionCheckpoint checkpoint = ingestionCheckpointRepository.findByJobKeyForUpdate(jobKey);
+    checkpoint.setCompleted(true);
+    checkpoint.setUpdatedDate(OffsetDateTime.now(ZoneOffset.UTC));
+  }
+
+  private List<GithubRepo> changedRepos(List<GithubRepo> repos) {
+    // fingerprints of whole page are compared in memory after a single lookup
+    Map<Long, Long> storedFingerprints = githubRepository.findFingerprints(repos.stream()
+            .filter(repo -> Objects.nonNull(repo.getFingerprint()))
+            .map(GithubRepo::getRepositoryId)
+            .collect(Collectors.toList()));
+    return repos.stream()
+            .filter(repo -> Objects.isNull(repo.getFingerprint())
+                    || !repo.getFingerprint().equals(storedFingerprints.get(repo.getRepositoryId())))
+            .collect(Collectors.toList());
+  }
+
+  private void updateCheckpoint(String jobKey,
+                                int lastPage,
+                                List<GithubRepo> repos) {
+    // row lock serializes concurrent page commits of same job, checkpoint only moves forward
+    IngestionCheckpoint checkpoint = ingestionCheckpointRepository.findByJobKeyForUpdate(jobKey);
+    checkpoint.setLastPage(Math.max(checkpoint.getLastPage(), lastPage));
+    OptionalLong pagePushedAt = repos.stream()
+            .mapToLong(GithubRepo::getUpdatedDate)
+            .max();
+    if (pagePushedAt.isPresent() && (Objects.isNull(checkpoint.getLastPushedAt())
+            || pagePushedAt.getAsLong() > checkpoint.getLastPushedAt().toEpochSecond())) {
+      checkpoint.setLastPushedAt(EpochTime.toOffsetDateTime(pagePushedAt.getAsLong()));
+    }
+    checkpoint.setUpdatedDate(OffsetDateTime.now(ZoneOffset.UTC));
+  }
+
+  private String toJobKey(String language,
+                          OffsetDateTime windowStart,
+                          OffsetDateTime windowEnd) {
+    return language + ":" + windowStart.toInstant() + ":" + (Objects.isNull(windowEnd) ? "" : windowEnd.toInstant());
+  }
+
+}
@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.worker;
+
+import org.github.popularity.mapper.DataMapper;
+import org.github.popularity.mapper.EpochTime;
+import org.github.popularity.model.GithubRepo;
+import org.github.popularity.scoring.ScoringStrategy;
+import org.github.popularity.service.IngestionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Loads Github repos from a local newline delimited JSON dump, optionally gzipped. Each line holds a Github search
+ * item and is mapped and scored the same way as a search page. File is read a line at a time and handed to import
+ * workers in chunks through a bounded queue, so memory use does not grow with file size. When run as a background
+ * job, a paused job stops reading further chunks and a cancelled job is interrupted, rows stored so far stay stored.
+ *
+ * @author Kevin Ratnasekera
+ */
+public class BulkImportJob {
+
+  private static final String GZIP_FILE_SUFFIX = ".gz";
+  private static final long IMPORT_QUEUE_POLL_MILLIS = 1000;
+  // marks end of input for import workers, compared by identity
+  private static final List<String> END_OF_INPUT = new ArrayList<>();
+
+  private IngestionService ingestionService;
+  private DataMapper dataMapper;
+  private ScoringStrategy scoringStrategy;
+  private int parallelism;
+  private int chunkSize;
+  // nullable, import not run as a background job
+  private IngestionJob ingestionJob;
+  private Logger logger = LoggerFactory.getLogger(BulkImportJob.class);
+
+  public BulkImportJob(IngestionService ingestionService,
+                       DataMapper dataMapper,
+                       ScoringStrategy scoringStrategy,
+                       int parallelism,
+                       int chunkSize) {
+    this(ingestionService, dataMapper, scoringStrategy, parallelism, chunkSize, null);
+  }
+
+  public BulkImportJob(IngestionService ingestionService,
+                       DataMapper dataMapper,
+                       ScoringStrategy scoringStrategy,
+                       int parallelism,
+                       int chunkSize,
+                       IngestionJob ingestionJob) {
+    this.ingestionService = ingestionService;
+    this.dataMapper = dataMapper;
+    this.scoringStrategy = scoringStrategy;
+    this.parallelism = parallelism;
+    this.chunkSize = chunkSize;
+    this.ingestionJob = ingestionJob;
+  }
+
+  /**
+   * Import Github repos of given dump file.
+   *
+   * @param file
+   *
+   * @return BulkImportResult
+   *
+   * @throws IllegalStateException if an import worker failed
+   */
+  public BulkImportResult run(Path file) throws IOException, InterruptedException {
+    // single scored date for the import, same as rescoring
+    long scoredDate = EpochTime.now();
+    BulkImportResult result = new BulkImportResult(file.getFileName().toString());
+    BlockingQueue<List<String>> chunkQueue = new ArrayBlockingQueue<>(parallelism);
+    ExecutorService importThreadPool = Executors.newFixedThreadPool(parallelism);
+    try {
+      List<Future<?>> workers = new ArrayList<>();
+      for (int i = 0; i < parallelism; i++) {
+        workers.add(importThreadPool.submit(() -> {
+          importChunks(chunkQueue, scoredDate, result);
+          return null;
+        }));
+      }
+      try (BufferedReader reader = open(file)) {
+        List<String> chunk = new ArrayList<>(chunkSize);
+        String line;
+        while ((line = reader.readLine()) != null) {
+          if (line.trim().isEmpty()) {
+            continue;
+          }
+          chunk.add(line);
+          if (chunk.size() == chunkSize) {
+            awaitResumed();
+            // blocks when import workers fall behind
+            put(chunkQueue, chunk, workers);
+            chunk = new ArrayList<>(chunkSize);
+          }
+        }
+        if (!chunk.isEmpty()) {
+          awaitResumed();
+          put(chunkQueue, chunk, workers);
+        }
+      }
+      for (int i = 0; i < parallelism; i++) {
+        put(chunkQueue, END_OF_INPUT, workers);
+      }
+      for (Future<?> worker : workers) {
+        worker.get();
+      }
+    } catch (ExecutionException ex) {
+      // remaining workers are interrupted below, rows stored so far stay stored
+      throw new IllegalStateException("Github repo import of " + file + " failed.", ex.getCause());
+    } finally {
+      importThreadPool.shutdownNow();
+      result.finished();
+    }
+    logger.info("Github repo import of {} completed. records: {} written: {} failed lines: {} records per second: {}",
+            file, result.getRecords(), result.getWritten(), result.getFailedLines(), result.getRecordsPerSecond());
+    return result;
+  }
+
+  private void importChunks(BlockingQueue<List<String>> chunkQueue,
+                            long scoredDate,
+                            BulkImportResult result) throws InterruptedException {
+    List<String> chunk;
+    while ((chunk = chunkQueue.take()) != END_OF_INPUT) {
+      List<GithubRepo> repos = new ArrayList<>(chunk.size());
+      for (String line : chunk) {
+        try {
+          repos.add(dataMapper.toGithubRepoItem(line, scoringStrategy, scoredDate));
+        } catch (IOException | RuntimeException ex) {
+          logger.debug("Unable to map imported line {}.", line, ex);
+          linesFailed(result, 1);
+        }
+      }
+      try {
+        result.chunkImported(repos.size(), ingestionService.persistPage(null, -1, repos));
+        if (Objects.nonNull(ingestionJob)) {
+          ingestionJob.pageDone(repos.size());
+        }
+      } catch (RuntimeException ex) {
+        logger.error("Unable to store chunk of {} imported Github repos.", repos.size(), ex);
+        linesFailed(result, repos.size());
+      }
+    }
+  }
+
+  private void linesFailed(BulkImportResult result, long lines) {
+    result.linesFailed(lines);
+    if (Objects.nonNull(ingestionJob)) {
+      ingestionJob.linesFailed(lines);
+    }
+  }
+
+  // chunks already queued are still stored while paused
+  private void awaitResumed() throws InterruptedException {
+    if (Objects.nonNull(ingestionJob)) {
+      ingestionJob.awaitResumed();
+    }
+  }
+
+  private void put(BlockingQueue<List<String>> chunkQueue,
+                   List<String> chunk,
+                   List<Future<?>> workers) throws InterruptedException, ExecutionException {
+    while (!chunkQueue.offer(chunk, IMPORT_QUEUE_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+      // import workers only finish before end of input when they fail, nothing would take the chunk
+      for (Future<?> worker : workers) {
+        if (worker.isDone()) {
+          worker.get();
+        }
+      }
+    }
+  }
+
+  private BufferedReader open(Path file) throws IOException {
+    InputStream inputStream = Files.newInputStream(file);
+    try {
+      if (file.getFileName().toString().endsWith(GZIP_FILE_SUFFIX)) {
+        inputStream = new GZIPInputStream(inputStream);
+      }
+    } catch (IOException ex) {
+      inputStream.close();
+      throw ex;
+    }
+    return new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+  }
+
+}
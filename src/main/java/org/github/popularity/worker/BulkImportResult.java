@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.worker;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of a bulk import, updated by import workers.
+ *
+ * @author Kevin Ratnasekera
+ */
+public class BulkImportResult {
+
+  private final String file;
+  private final long startTimeMillis = System.currentTimeMillis();
+  private final AtomicLong records = new AtomicLong();
+  private final AtomicLong written = new AtomicLong();
+  private final AtomicLong failedLines = new AtomicLong();
+  private volatile long elapsedMillis;
+
+  public BulkImportResult(String file) {
+    this.file = file;
+  }
+
+  public void chunkImported(long records, long written) {
+    this.records.addAndGet(records);
+    this.written.addAndGet(written);
+  }
+
+  public void linesFailed(long count) {
+    failedLines.addAndGet(count);
+  }
+
+  public void finished() {
+    elapsedMillis = Math.max(1, System.currentTimeMillis() - startTimeMillis);
+  }
+
+  public String getFile() {
+    return file;
+  }
+
+  public long getRecords() {
+    return records.get();
+  }
+
+  /**
+   * Number of records written, records matching stored fingerprint are skipped.
+   */
+  public long getWritten() {
+    return written.get();
+  }
+
+  public long getFailedLines() {
+    return failedLines.get();
+  }
+
+  public long getElapsedMillis() {
+    return elapsedMillis;
+  }
+
+  public double getRecordsPerSecond() {
+    return records.get() * (double) TimeUnit.SECONDS.toMillis(1) / Math.max(1, elapsedMillis);
+  }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.worker;
+
+import org.github.popularity.exception.BadRequestException;
+import org.github.popularity.exception.NotFoundException;
+import org.github.popularity.mapper.DataMapper;
+import org.github.popularity.scoring.WeightedScoringStrategy;
+import org.github.popularity.service.IngestionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Imports Github repo dumps placed in the import directory as background jobs.
+ *
+ * @author Kevin Ratnasekera
+ */
+@Component
+public class BulkImporter {
+
+  private Logger logger = LoggerFactory.getLogger(BulkImporter.class);
+
+  // components
+  @Autowired
+  private IngestionService ingestionService;
+  @Autowired
+  private DataMapper dataMapper;
+
+  // env variables
+  @Value("${github.data.import.dir}")
+  private String importDir;
+  @Value("${github.data.import.concurrency}")
+  private Integer importConcurrency;
+  @Value("${github.data.import.chunk.size}")
+  private Integer importChunkSize;
+
+  /**
+   * Resolve given dump file of import directory.
+   *
+   * @param fileName file name relative to import directory
+   *
+   * @return Path
+   *
+   * @throws BadRequestException if file is outside import directory
+   * @throws NotFoundException if file is not found
+   */
+  public Path resolve(String fileName) {
+    Path directory = Paths.get(importDir).toAbsolutePath().normalize();
+    Path file = directory.resolve(fileName).normalize();
+    // only files of import directory can be read
+    if (!file.startsWith(directory) || file.equals(directory)) {
+      throw new BadRequestException("Request validations failed.");
+    }
+    if (!Files.isRegularFile(file)) {
+      throw new NotFoundException("Import file " + fileName + " not found.");
+    }
+    return file;
+  }
+
+  /**
+   * Import of given dump file run by given job, job status follows the import.
+   *
+   * @param file resolved dump file
+   * @param ingestionJob
+   *
+   * @return Runnable
+   */
+  public Runnable importJob(Path file, IngestionJob ingestionJob) {
+    BulkImportJob bulkImportJob = new BulkImportJob(ingestionService, dataMapper, new WeightedScoringStrategy(),
+            importConcurrency, importChunkSize, ingestionJob);
+    return () -> {
+      ingestionJob.started();
+      IngestionJob.Status status = IngestionJob.Status.FAILED;
+      try {
+        bulkImportJob.run(file);
+        status = IngestionJob.Status.COMPLETED;
+      } catch (IOException ex) {
+        logger.error("Unable to read import file {}.", file, ex);
+      } catch (InterruptedException ex) {
+        logger.warn("Github repo import of {} interrupted.", file);
+        status = IngestionJob.Status.CANCELLED;
+        Thread.currentThread().interrupt();
+      } catch (RuntimeException ex) {
+        logger.error("Github repo import of {} failed.", file, ex);
+      } finally {
+        ingestionJob.finished(status);
+      }
+    };
+  }
+
+  public Integer getImportConcurrency() {
+    return importConcurrency;
+  }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.worker;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Tracks stored pages of an ingestion job. Pages are persisted out of order by parallel persist workers,
+ * checkpoint only advances over a contiguous run of stored pages.
+ *
+ * @author Kevin Ratnasekera
+ */
+public class CheckpointTracker {
+
+  private String jobKey;
+  // highest page number up to which all pages are stored
+  private int lastPage;
+  private int totalPages;
+  // stored pages after a gap
+  private Set<Integer> storedPages = new HashSet<>();
+
+  public CheckpointTracker(String jobKey, int lastPage, int totalPages) {
+    this.jobKey = jobKey;
+    this.lastPage = lastPage;
+    this.totalPages = totalPages;
+  }
+
+  public String getJobKey() {
+    return jobKey;
+  }
+
+  public synchronized int getLastPage() {
+    return lastPage;
+  }
+
+  public int getTotalPages() {
+    return totalPages;
+  }
+
+  public synchronized boolean isCompleted() {
+    return lastPage >= totalPages - 1;
+  }
+
+  /**
+   * Return checkpoint page number assuming given page gets stored as well.
+   *
+   * @param page
+   *
+   * @return int
+   */
+  public synchronized int lastPageWith(int page) {
+    int mark = lastPage;
+    while (mark + 1 == page || storedPages.contains(mark + 1)) {
+      mark++;
+    }
+    return mark;
+  }
+
+  /**
+   * Record given page as stored.
+   *
+   * @param page
+   */
+  public synchronized void stored(int page) {
+    storedPages.add(page);
+    while (storedPages.remove(lastPage + 1)) {
+      lastPage++;
+    }
+  }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.worker;
+
+import org.github.popularity.repo.GithubRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.github.popularity.constant.GithubConstants.SERVER_POOL_GRACEFUL_TERMINATION_DURATION;
+
+/**
+ * Periodically checks repo count rollups against stored Github repos and repairs rollups which drifted. First check
+ * runs on startup, so that rollups are built for repos stored before rollups existed.
+ *
+ * @author Kevin Ratnasekera
+ */
+@Component
+public class CountRollupScheduler {
+
+  private Logger logger = LoggerFactory.getLogger(CountRollupScheduler.class);
+
+  // components
+  @Autowired
+  private GithubRepository githubRepository;
+
+  // env variables
+  @Value("${github.rollup.check.enabled}")
+  private Boolean checkEnabled;
+  @Value("${github.rollup.check.interval.minutes}")
+  private Long checkIntervalMinutes;
+
+  private ScheduledExecutorService schedulerThreadPool;
+
+  @PostConstruct
+  public void init() {
+    if (checkEnabled) {
+      this.schedulerThreadPool = Executors.newSingleThreadScheduledExecutor();
+      this.schedulerThreadPool.scheduleWithFixedDelay(this::check, 0, checkIntervalMinutes, TimeUnit.MINUTES);
+    }
+  }
+
+  /**
+   * Check repo count rollups now.
+   *
+   * @return number of rollups repaired
+   */
+  public int check() {
+    try {
+      int repaired = githubRepository.repairCountRollups();
+      if (repaired > 0) {
+        logger.warn("Repaired {} repo count rollups.", repaired);
+      }
+      return repaired;
+    } catch (RuntimeException ex) {
+      // keep checking on next run
+      logger.error("Exception occurred when checking repo count rollups.", ex);
+    }
+    return 0;
+  }
+
+  @PreDestroy
+  public void cleanUp() {
+    if (Objects.isNull(schedulerThreadPool)) {
+      return;
+    }
+    schedulerThreadPool.shutdownNow();
+    try {
+      if (!schedulerThreadPool.awaitTermination(SERVER_POOL_GRACEFUL_TERMINATION_DURATION, TimeUnit.SECONDS)) {
+        logger.error("Thread pool schedulerThreadPool did not terminate.");
+      }
+    } catch (InterruptedException e) {
+      logger.error("Waiting on termination interrupted for thread pool schedulerThreadPool.", e);
+      Thread.currentThread().interrupt();
+    }
+  }
+
+}
@@ -17,88 +17,251 @@
 package org.github.popularity.worker;
 
 import org.github.popularity.client.Client;
-import org.github.popularity.client.Response;
 import org.github.popularity.mapper.DataMapper;
-import org.github.popularity.model.GithubRepo;
-import org.github.popularity.repo.GithubRepository;
+import org.github.popularity.model.DeadLetterPage;
+import org.github.popularity.model.IngestionCheckpoint;
 import org.github.popularity.scoring.WeightedScoringStrategy;
+import org.github.popularity.service.IngestionService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.HttpStatus;
 
 import java.io.IOException;
-import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 import static org.github.popularity.constant.GithubConstants.GITHUB_SEARCH_PAGE_SIZE;
+import static org.github.popularity.constant.GithubConstants.GITHUB_SEARCH_RESULT_CAP;
 
 /**
- * Background runner task to fetch data from Github search API endpoint.
+ * Background runner task to fetch data from Github search API endpoint. Created date range is split into
+ * windows under the search result cap, pages of all windows are run through the staged ingestion pipeline,
+ * pacing requests with the shared rate limit budget. Progress is checkpointed per window so that a restarted
+ * job resumes remaining windows after their last stored page. A language synced before is refreshed with a delta
+ * sync, which pages through most recently updated repos only until it reaches repos seen by the last sync. Job
+ * status and progress are tracked on the ingestion job.
  *
  * @author Kevin Ratnasekera
  */
 public class GithubDataProcessor implements Runnable {
 
-  private GithubRepository githubRepository;
+  private IngestionService ingestionService;
   private Client client;
   private DataMapper dataMapper;
+  private RateLimitBudget rateLimitBudget;
+  private IngestionMetrics ingestionMetrics;
+  private IngestionSettings ingestionSettings;
+  private IngestionJob ingestionJob;
   private String githubSearchLanguage;
-  private String githubSearchCreatedDate;
   private Logger logger = LoggerFactory.getLogger(GithubDataProcessor.class);
 
-  public GithubDataProcessor(GithubRepository githubRepository,
+  public GithubDataProcessor(IngestionService ingestionService,
                              Client client,
                              DataMapper dataMapper,
-                             String githubSearchLanguage,
-                             String githubSearchCreatedDate) {
-    this.githubRepository = githubRepository;
+                             RateLimitBudget rateLimitBudget,
+                             IngestionMetrics ingestionMetrics,
+                             IngestionSettings ingestionSettings,
+                             IngestionJob ingestionJob) {
+    this.ingestionService = ingestionService;
     this.client = client;
     this.dataMapper = dataMapper;
-    this.githubSearchLanguage = githubSearchLanguage;
-    this.githubSearchCreatedDate = githubSearchCreatedDate;
+    this.rateLimitBudget = rateLimitBudget;
+    this.ingestionMetrics = ingestionMetrics;
+    this.ingestionSettings = ingestionSettings;
+    this.ingestionJob = ingestionJob;
+    this.githubSearchLanguage = ingestionJob.getLanguage();
   }
 
   @Override
   public void run() {
+    ingestionJob.started();
+    IngestionJob.Status status = IngestionJob.Status.FAILED;
+    OffsetDateTime createdFrom = ingestionJob.getCreatedFrom();
+    OffsetDateTime createdTo = Objects.isNull(ingestionJob.getCreatedTo())
+            ? OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.SECONDS) : ingestionJob.getCreatedTo();
     try {
-      Response response = client.sendSearchRequest(githubSearchLanguage, LocalDate.parse(githubSearchCreatedDate), 0, 1);
-      if (response.getStatus() == HttpStatus.OK.value()) {
-        Long totalCount = dataMapper.toTotalCount(response.getBody());
-        Long totalPages = totalCount / GITHUB_SEARCH_PAGE_SIZE;
-        for (int currentPage = 0; currentPage < totalPages; currentPage++) {
-          Response searchResponse = client.sendSearchRequest(githubSearchLanguage, LocalDate.parse(githubSearchCreatedDate), currentPage, GITHUB_SEARCH_PAGE_SIZE);
-          if (searchResponse.getStatus() == HttpStatus.OK.value()) {
-            List<GithubRepo> repoList = dataMapper.toGithubRepo(searchResponse.getBody(), new WeightedScoringStrategy());
-            repoList.forEach(repo -> {
-              GithubRepo dbRepo = githubRepository.findByRepositoryId(repo.getRepositoryId());
-              if (Objects.isNull(dbRepo)) {
-                githubRepository.save(repo);
-              } else {
-                dbRepo.setScore(repo.getScore());
-                dbRepo.setScoredDate(repo.getScoredDate());
-                githubRepository.save(dbRepo);
-              }
-              logger.info("Github repository {} url {} score {} stored in database.", repo.getRepositoryId(), repo.getUrl(), repo.getScore());
-            });
-          } else if (searchResponse.getStatus() == HttpStatus.FORBIDDEN.value()) {
-            logger.error("Rate limit exceeded in Github search endpoint.");
-            // exit the thread execution here.
-            // as a further improvement, should improve logic here by considering rate limit http response headers
-            // x-ratelimit-remaining, x-ratelimit-used and x-ratelimit-reset
-            break;
-          } else {
-            // interpret what went wrong here
-            logger.error("Github server returned status code {}.", searchResponse.getStatus());
+      List<IngestionCheckpoint> windows = ingestionService.findOpenWindows(githubSearchLanguage, createdFrom).stream()
+              .filter(window -> !window.getWindowEnd().isAfter(createdTo))
+              .collect(Collectors.toList());
+      if (windows.isEmpty()) {
+        OffsetDateTime highWaterMark = isDeltaSync() ? ingestionService.findHighWaterMark(githubSearchLanguage) : null;
+        // delta sync falls back to full sync when more repos changed than a single search can return
+        windows = Objects.nonNull(highWaterMark) && deltaSync(createdFrom, highWaterMark)
+                ? new ArrayList<>() : planWindows(createdFrom, createdTo, false);
+      } else {
+        logger.info("Resuming {} open search windows for language {}.", windows.size(), githubSearchLanguage);
+        // planning may have been interrupted before it covered the whole range
+        windows.addAll(planWindows(createdFrom, createdTo, true));
+      }
+      List<CheckpointTracker> checkpointTrackers = new ArrayList<>();
+      List<SearchPage> pages = new ArrayList<>();
+      // retry pages which failed for good in earlier runs, their windows are already checkpointed past them
+      for (DeadLetterPage deadLetterPage : ingestionService.findDeadLetterPages(githubSearchLanguage)) {
+        SearchPage searchPage = new SearchPage(githubSearchLanguage,
+                new SearchWindow(deadLetterPage.getWindowStart(), deadLetterPage.getWindowEnd()), deadLetterPage.getPage());
+        searchPage.setDeadLetterId(deadLetterPage.getId());
+        pages.add(searchPage);
+      }
+      if (!pages.isEmpty()) {
+        logger.info("Retrying {} dead letter pages for language {}.", pages.size(), githubSearchLanguage);
+      }
+      for (IngestionCheckpoint checkpoint : windows) {
+        SearchWindow window = new SearchWindow(checkpoint.getWindowStart(), checkpoint.getWindowEnd());
+        CheckpointTracker checkpointTracker = new CheckpointTracker(checkpoint.getJobKey(), checkpoint.getLastPage(),
+                totalPages(checkpoint.getTotalCount()));
+        checkpointTrackers.add(checkpointTracker);
+        for (int currentPage = checkpoint.getLastPage() + 1; currentPage < checkpointTracker.getTotalPages(); currentPage++) {
+          SearchPage searchPage = new SearchPage(githubSearchLanguage, window, currentPage);
+          searchPage.setCheckpointTracker(checkpointTracker);
+          pages.add(searchPage);
+        }
+      }
+      ingestionJob.pagesPlanned(pages.size());
+      try {
+        new IngestionPipeline(ingestionService, client, dataMapper, rateLimitBudget, ingestionMetrics,
+                ingestionSettings, new WeightedScoringStrategy(), ingestionJob).run(pages);
+      } finally {
+        // pages committed out of order may leave stored checkpoint behind tracked one
+        for (CheckpointTracker checkpointTracker : checkpointTrackers) {
+          ingestionService.advanceCheckpoint(checkpointTracker.getJobKey(), checkpointTracker.getLastPage());
+          if (checkpointTracker.isCompleted()) {
+            ingestionService.completeCheckpoint(checkpointTracker.getJobKey());
           }
         }
-      } else {
-        // interpret what went wrong here
-        logger.error("Github server returned status code {}.", response.getStatus());
       }
+      long openWindows = checkpointTrackers.stream().filter(tracker -> !tracker.isCompleted()).count();
+      if (openWindows > 0) {
+        logger.warn("Github data fetch left {} search windows open, they resume on next run.", openWindows);
+      }
+      logger.info("Github data fetch completed. pages fetched: {} repos ingested: {} repos per minute: {} rate limit hits: {}",
+              ingestionMetrics.getPagesFetched(), ingestionMetrics.getReposIngested(),
+              ingestionMetrics.getReposPerMinute(), ingestionMetrics.getRateLimitHits());
+      status = IngestionJob.Status.COMPLETED;
     } catch (IOException ex) {
       logger.error("Exception occurred when calling Github Search endpoint.", ex);
+    } catch (InterruptedException ex) {
+      logger.warn("Github data fetch interrupted.");
+      status = IngestionJob.Status.CANCELLED;
+      Thread.currentThread().interrupt();
+    } catch (RuntimeException ex) {
+      logger.error("Github data fetch failed.", ex);
+    } finally {
+      ingestionJob.finished(status);
+    }
+  }
+
+  private boolean isDeltaSync() {
+    // explicit created date ranges are always synced in full
+    return Boolean.TRUE.equals(ingestionSettings.getDeltaEnabled()) && Objects.isNull(ingestionJob.getCreatedTo());
+  }
+
+  /**
+   * Page through repos of whole created date range most recently updated first, a batch of fetch concurrency pages
+   * at a time, until a page holds only repos pushed at or before given high water mark.
+   *
+   * @param createdFrom
+   * @param highWaterMark latest pushed date stored by last sync
+   *
+   * @return true if high water mark was reached, false if search result cap was reached first
+   */
+  private boolean deltaSync(OffsetDateTime createdFrom,
+                            OffsetDateTime highWaterMark) throws InterruptedException {
+    SearchWindow window = new SearchWindow(createdFrom, OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.SECONDS));
+    // checkpoint without window end keeps high water mark of delta syncs, it is never resumed
+    IngestionCheckpoint checkpoint = ingestionService.startCheckpoint(githubSearchLanguage, createdFrom, null, null);
+    int totalPages = totalPages((long) GITHUB_SEARCH_RESULT_CAP);
+    CheckpointTracker checkpointTracker = new CheckpointTracker(checkpoint.getJobKey(), -1, totalPages);
+    logger.info("Delta sync of language {} for repos pushed after {}.", githubSearchLanguage, highWaterMark);
+    for (int firstPage = 0; firstPage < totalPages; firstPage += ingestionSettings.getFetchConcurrency()) {
+      List<SearchPage> pages = new ArrayList<>();
+      for (int page = firstPage; page < Math.min(firstPage + ingestionSettings.getFetchConcurrency(), totalPages); page++) {
+        SearchPage searchPage = new SearchPage(githubSearchLanguage, window, page);
+        searchPage.setCheckpointTracker(checkpointTracker);
+        searchPage.setConditional(false);
+        pages.add(searchPage);
+      }
+      ingestionJob.pagesPlanned(pages.size());
+      new IngestionPipeline(ingestionService, client, dataMapper, rateLimitBudget, ingestionMetrics,
+              ingestionSettings, new WeightedScoringStrategy(), ingestionJob).run(pages);
+      if (pages.stream().anyMatch(page -> reachedHighWaterMark(page, highWaterMark))) {
+        ingestionService.advanceCheckpoint(checkpointTracker.getJobKey(), checkpointTracker.getLastPage());
+        ingestionService.completeCheckpoint(checkpointTracker.getJobKey());
+        logger.info("Delta sync of language {} completed after {} pages.", githubSearchLanguage, firstPage + pages.size());
+        return true;
+      }
+    }
+    logger.info("More than {} repos of language {} changed since {}, running full sync.", GITHUB_SEARCH_RESULT_CAP,
+            githubSearchLanguage, highWaterMark);
+    return false;
+  }
+
+  // last page of results, or a page of repos already seen by last sync
+  private boolean reachedHighWaterMark(SearchPage searchPage,
+                                      OffsetDateTime highWaterMark) {
+    if (searchPage.isFailed() || Objects.isNull(searchPage.getRepos())) {
+      return false;
+    }
+    return searchPage.getRepos().size() < GITHUB_SEARCH_PAGE_SIZE || searchPage.getRepos().stream()
+            .noneMatch(repo -> repo.getUpdatedDate() > highWaterMark.toEpochSecond());
+  }
+
+  /**
+   * Windows planned by earlier runs are reused while they cover the range from its start without a gap, only the
+   * rest of the range is counted and split again. Completed windows which no longer fit the plan are removed, so
+   * checkpoints do not pile up run after run.
+   *
+   * @param createdFrom
+   * @param createdTo
+   * @param resume true to only plan rest of the range, its planned windows are resumed by the caller
+   *
+   * @return List of IngestionCheckpoint to run
+   */
+  private List<IngestionCheckpoint> planWindows(OffsetDateTime createdFrom,
+                                                OffsetDateTime createdTo,
+                                                boolean resume) throws IOException, InterruptedException {
+    List<IngestionCheckpoint> windows = new ArrayList<>();
+    List<IngestionCheckpoint> superseded = new ArrayList<>();
+    // first second not covered by a planned window
+    OffsetDateTime plannedUntil = createdFrom;
+    for (IngestionCheckpoint checkpoint : ingestionService.findPlannedWindows(githubSearchLanguage, createdFrom, createdTo)) {
+      if (checkpoint.getWindowStart().equals(plannedUntil)) {
+        plannedUntil = checkpoint.getWindowEnd().plusSeconds(1);
+        if (!resume) {
+          // completed window starts a fresh run
+          windows.add(ingestionService.startCheckpoint(githubSearchLanguage, checkpoint.getWindowStart(),
+                  checkpoint.getWindowEnd(), null));
+        }
+      } else if (checkpoint.getCompleted()) {
+        superseded.add(checkpoint);
+      }
+    }
+    if (!superseded.isEmpty()) {
+      ingestionService.removeCheckpoints(superseded);
+    }
+    if (plannedUntil.isAfter(createdTo)) {
+      return windows;
     }
+    if (!windows.isEmpty()) {
+      logger.info("Reusing {} planned search windows for language {} up to {}.", windows.size(), githubSearchLanguage,
+              plannedUntil);
+    }
+    SearchWindowPlanner searchWindowPlanner = new SearchWindowPlanner(client, dataMapper, rateLimitBudget, ingestionMetrics,
+            ingestionSettings);
+    // each window is persisted as a checkpoint once planned, so that a restarted job does not spend rate limit on
+    // planning it again
+    searchWindowPlanner.plan(githubSearchLanguage, new SearchWindow(plannedUntil, createdTo), window ->
+            windows.add(ingestionService.startCheckpoint(githubSearchLanguage, window.getStart(), window.getEnd(),
+                    window.getTotalCount())));
+    return windows;
+  }
+
+  private int totalPages(Long totalCount) {
+    long reachable = Math.min(totalCount, GITHUB_SEARCH_RESULT_CAP);
+    return (int) ((reachable + GITHUB_SEARCH_PAGE_SIZE - 1) / GITHUB_SEARCH_PAGE_SIZE);
   }
 
 }
@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.worker;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Objects;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background data fetch job of a language and created date range, or bulk import job of a dump file, tracks job
+ * status and progress. Import jobs count stored chunks as pages.
+ *
+ * @author Kevin Ratnasekera
+ */
+public class IngestionJob {
+
+  public enum Status {
+    QUEUED, RUNNING, PAUSED, COMPLETED, CANCELLED, FAILED
+  }
+
+  private final long id;
+  // null for import jobs
+  private final String language;
+  // null for data fetch jobs
+  private final String importFile;
+  private final OffsetDateTime createdFrom;
+  // nullable, up to now
+  private final OffsetDateTime createdTo;
+  private final Integer concurrency;
+  private final OffsetDateTime submittedDate = OffsetDateTime.now(ZoneOffset.UTC);
+  private final AtomicLong pagesTotal = new AtomicLong();
+  private final AtomicLong pagesDone = new AtomicLong();
+  private final AtomicLong reposIngested = new AtomicLong();
+  private final AtomicLong failedLines = new AtomicLong();
+  private volatile Status status = Status.QUEUED;
+  private volatile boolean paused;
+  private volatile boolean cancelRequested;
+  private volatile OffsetDateTime startedDate;
+  private volatile OffsetDateTime finishedDate;
+  private Future<?> future;
+
+  public IngestionJob(long id,
+                      String language,
+                      OffsetDateTime createdFrom,
+                      OffsetDateTime createdTo,
+                      Integer concurrency) {
+    this.id = id;
+    this.language = language;
+    this.importFile = null;
+    this.createdFrom = createdFrom;
+    this.createdTo = createdTo;
+    this.concurrency = concurrency;
+  }
+
+  public IngestionJob(long id,
+                      String importFile,
+                      Integer concurrency) {
+    this.id = id;
+    this.language = null;
+    this.importFile = importFile;
+    this.createdFrom = null;
+    this.createdTo = null;
+    this.concurrency = concurrency;
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public String getLanguage() {
+    return language;
+  }
+
+  public String getImportFile() {
+    return importFile;
+  }
+
+  public OffsetDateTime getCreatedFrom() {
+    return createdFrom;
+  }
+
+  public OffsetDateTime getCreatedTo() {
+    return createdTo;
+  }
+
+  public Integer getConcurrency() {
+    return concurrency;
+  }
+
+  public OffsetDateTime getSubmittedDate() {
+    return submittedDate;
+  }
+
+  public OffsetDateTime getStartedDate() {
+    return startedDate;
+  }
+
+  public OffsetDateTime getFinishedDate() {
+    return finishedDate;
+  }
+
+  public Status getStatus() {
+    return status == Status.RUNNING && paused ? Status.PAUSED : status;
+  }
+
+  public boolean isActive() {
+    return status == Status.QUEUED || status == Status.RUNNING;
+  }
+
+  public long getPagesTotal() {
+    return pagesTotal.get();
+  }
+
+  public long getPagesDone() {
+    return pagesDone.get();
+  }
+
+  public long getReposIngested() {
+    return reposIngested.get();
+  }
+
+  /**
+   * Number of dump lines of an import job which could not be mapped or stored.
+   */
+  public long getFailedLines() {
+    return failedLines.get();
+  }
+
+  public double getReposPerSecond() {
+    if (Objects.isNull(startedDate)) {
+      return 0;
+    }
+    OffsetDateTime until = Objects.isNull(finishedDate) ? OffsetDateTime.now(ZoneOffset.UTC) : finishedDate;
+    long elapsedMillis = Math.max(1, Duration.between(startedDate, until).toMillis());
+    return reposIngested.get() * 1000.0 / elapsedMillis;
+  }
+
+  /**
+   * Estimated seconds until remaining pages are done, assuming current page rate.
+   *
+   * @return Long, null if not known yet
+   */
+  public Long getEtaSeconds() {
+    long done = pagesDone.get();
+    // import jobs do not know their total up front
+    if (Objects.isNull(startedDate) || done == 0 || pagesTotal.get() == 0 || !isActive()) {
+      return null;
+    }
+    long elapsedMillis = Math.max(1, Duration.between(startedDate, OffsetDateTime.now(ZoneOffset.UTC)).toMillis());
+    long remaining = Math.max(0, pagesTotal.get() - done);
+    return remaining * elapsedMillis / done / 1000;
+  }
+
+  public void started() {
+    startedDate = OffsetDateTime.now(ZoneOffset.UTC);
+    status = Status.RUNNING;
+  }
+
+  public void finished(Status status) {
+    finishedDate = OffsetDateTime.now(ZoneOffset.UTC);
+    // job interrupted on cancel may still wind down normally
+    this.status = cancelRequested ? Status.CANCELLED : status;
+    resume();
+  }
+
+  public void cancelRequested() {
+    cancelRequested = true;
+  }
+
+  public void pagesPlanned(long pages) {
+    pagesTotal.addAndGet(pages);
+  }
+
+  public void pageDone(long repos) {
+    pagesDone.incrementAndGet();
+    reposIngested.addAndGet(repos);
+  }
+
+  public void linesFailed(long lines) {
+    failedLines.addAndGet(lines);
+  }
+
+  public synchronized void pause() {
+    paused = true;
+  }
+
+  public synchronized void resume() {
+    paused = false;
+    notifyAll();
+  }
+
+  /**
+   * Block while job is paused.
+   */
+  public synchronized void awaitResumed() throws InterruptedException {
+    while (paused) {
+      wait();
+    }
+  }
+
+  Future<?> getFuture() {
+    return future;
+  }
+
+  void setFuture(Future<?> future) {
+    this.future = future;
+  }
+
+}
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.worker;
+
+import org.github.popularity.client.Client;
+import org.github.popularity.exception.ConflictException;
+import org.github.popularity.mapper.DataMapper;
+import org.github.popularity.service.IngestionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.github.popularity.constant.GithubConstants.INGESTION_JOB_HISTORY_SIZE;
+
+/**
+ * Submits background data fetch and bulk import jobs to the managed job executor and keeps track of them, so that
+ * jobs can be listed, paused and cancelled. Only one job per language runs at a time, jobs of a language share
+ * checkpoints. Likewise only one import of a file runs at a time.
+ *
+ * @author Kevin Ratnasekera
+ */
+@Component
+public class IngestionJobManager {
+
+  private Logger logger = LoggerFactory.getLogger(IngestionJobManager.class);
+
+  // components
+  @Autowired
+  private IngestionService ingestionService;
+  @Autowired
+  private Client client;
+  @Autowired
+  private DataMapper dataMapper;
+  @Autowired
+  private RateLimitBudget rateLimitBudget;
+  @Autowired
+  private IngestionMetrics ingestionMetrics;
+  @Autowired
+  private IngestionSettings ingestionSettings;
+  @Autowired
+  private ThreadPoolTaskExecutor ingestionJobExecutor;
+  @Autowired
+  private BulkImporter bulkImporter;
+
+  private long lastJobId;
+  // jobs in submission order
+  private Map<Long, IngestionJob> jobs = new LinkedHashMap<>();
+
+  /**
+   * Submit a data fetch job.
+   *
+   * @param language
+   * @param createdFrom
+   * @param createdTo nullable, up to now
+   * @param concurrency nullable, configured fetch concurrency
+   *
+   * @return IngestionJob
+   */
+  public synchronized IngestionJob submit(String language,
+                                          OffsetDateTime createdFrom,
+                                          OffsetDateTime createdTo,
+                                          Integer concurrency) {
+    if (isActive(language)) {
+      throw new ConflictException("Data fetch job already running for language " + language + ".");
+    }
+    IngestionJob ingestionJob = new IngestionJob(++lastJobId, language, createdFrom, createdTo, concurrency);
+    IngestionSettings jobSettings = Objects.isNull(concurrency) ? ingestionSettings
+            : ingestionSettings.withFetchConcurrency(concurrency);
+    GithubDataProcessor githubDataProcessor = new GithubDataProcessor(ingestionService, client, dataMapper,
+            rateLimitBudget, ingestionMetrics, jobSettings, ingestionJob);
+    jobs.put(ingestionJob.getId(), ingestionJob);
+    ingestionJob.setFuture(ingestionJobExecutor.submit(githubDataProcessor));
+    logger.info("Submitted Github data fetch job {} for language {} created from {} to {}.", ingestionJob.getId(),
+            language, createdFrom, createdTo);
+    evictFinishedJobs();
+    return ingestionJob;
+  }
+
+  /**
+   * Submit a bulk import job of given dump file of import directory.
+   *
+   * @param fileName file name relative to import directory
+   *
+   * @return IngestionJob
+   */
+  public synchronized IngestionJob submitImport(String fileName) {
+    Path file = bulkImporter.resolve(fileName);
+    String importFile = file.getFileName().toString();
+    if (jobs.values().stream().anyMatch(job -> job.isActive() && importFile.equals(job.getImportFile()))) {
+      throw new ConflictException("Import job already running for file " + importFile + ".");
+    }
+    IngestionJob ingestionJob = new IngestionJob(++lastJobId, importFile, bulkImporter.getImportConcurrency());
+    jobs.put(ingestionJob.getId(), ingestionJob);
+    ingestionJob.setFuture(ingestionJobExecutor.submit(bulkImporter.importJob(file, ingestionJob)));
+    logger.info("Submitted Github repo import job {} for file {}.", ingestionJob.getId(), file);
+    evictFinishedJobs();
+    return ingestionJob;
+  }
+
+  public synchronized List<IngestionJob> list() {
+    return new ArrayList<>(jobs.values());
+  }
+
+  /**
+   * Find job of given id.
+   *
+   * @param id
+   *
+   * @return IngestionJob, null if not found.
+   */
+  public synchronized IngestionJob find(long id) {
+    return jobs.get(id);
+  }
+
+  /**
+   * Cancel job of given id, a running job is interrupted and stops at a checkpoint, an import job stops after chunks
+   * already read.
+   *
+   * @param id
+   *
+   * @return IngestionJob, null if not found.
+   */
+  public synchronized IngestionJob cancel(long id) {
+    IngestionJob ingestionJob = jobs.get(id);
+    if (Objects.isNull(ingestionJob) || !ingestionJob.isActive()) {
+      return ingestionJob;
+    }
+    ingestionJob.cancelRequested();
+    boolean queued = ingestionJob.getStatus() == IngestionJob.Status.QUEUED;
+    ingestionJob.getFuture().cancel(true);
+    if (queued) {
+      // job never started, nothing winds it down
+      ingestionJob.finished(IngestionJob.Status.CANCELLED);
+    }
+    logger.info("Cancelled Github data fetch job {}.", id);
+    return ingestionJob;
+  }
+
+  public synchronized IngestionJob pause(long id) {
+    IngestionJob ingestionJob = jobs.get(id);
+    if (Objects.nonNull(ingestionJob) && ingestionJob.isActive()) {
+      ingestionJob.pause();
+    }
+    return ingestionJob;
+  }
+
+  public synchronized IngestionJob resume(long id) {
+    IngestionJob ingestionJob = jobs.get(id);
+    if (Objects.nonNull(ingestionJob)) {
+      ingestionJob.resume();
+    }
+    return ingestionJob;
+  }
+
+  public synchronized boolean isActive(String language) {
+    return jobs.values().stream().anyMatch(job -> job.isActive() && language.equals(job.getLanguage()));
+  }
+
+  public synchronized long countActive() {
+    return jobs.values().stream().filter(IngestionJob::isActive).count();
+  }
+
+  private void evictFinishedJobs() {
+    Iterator<IngestionJob> iterator = jobs.values().iterator();
+    while (jobs.size() > INGESTION_JOB_HISTORY_SIZE && iterator.hasNext()) {
+      if (!iterator.next().isActive()) {
+        iterator.remove();
+      }
+    }
+  }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.worker;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background data fetch counters, used to tune fetch concurrency against Github rate limits.
+ *
+ * @author Kevin Ratnasekera
+ */
+@Component
+public class IngestionMetrics {
+
+  private final long startTimeMillis = System.currentTimeMillis();
+  private final AtomicLong pagesFetched = new AtomicLong();
+  private final AtomicLong reposIngested = new AtomicLong();
+  private final AtomicLong rateLimitHits = new AtomicLong();
+  private final AtomicLong failedPages = new AtomicLong();
+  private final AtomicLong unchangedPages = new AtomicLong();
+  private final AtomicLong unchangedRowsSkipped = new AtomicLong();
+  private final AtomicLong retriedRequests = new AtomicLong();
+  private final AtomicLong deadLetterPages = new AtomicLong();
+  private final AtomicLong rowsRescored = new AtomicLong();
+  private volatile double rescoreRowsPerSecond;
+
+  public void pageFetched() {
+    pagesFetched.incrementAndGet();
+  }
+
+  public void reposIngested(long count) {
+    reposIngested.addAndGet(count);
+  }
+
+  public void rateLimitHit() {
+    rateLimitHits.incrementAndGet();
+  }
+
+  public void pageFailed() {
+    failedPages.incrementAndGet();
+  }
+
+  public void pageUnchanged() {
+    unchangedPages.incrementAndGet();
+  }
+
+  public void unchangedRowsSkipped(long count) {
+    unchangedRowsSkipped.addAndGet(count);
+  }
+
+  public void requestRetried() {
+    retriedRequests.incrementAndGet();
+  }
+
+  public void pageDeadLettered() {
+    deadLetterPages.incrementAndGet();
+  }
+
+  public void rowsRescored(long count, long elapsedMillis) {
+    rowsRescored.addAndGet(count);
+    rescoreRowsPerSecond = count * (double) TimeUnit.SECONDS.toMillis(1) / Math.max(1, elapsedMillis);
+  }
+
+  public long getPagesFetched() {
+    return pagesFetched.get();
+  }
+
+  public long getReposIngested() {
+    return reposIngested.get();
+  }
+
+  public long getRateLimitHits() {
+    return rateLimitHits.get();
+  }
+
+  public long getFailedPages() {
+    return failedPages.get();
+  }
+
+  public long getUnchangedPages() {
+    return unchangedPages.get();
+  }
+
+  public long getUnchangedRowsSkipped() {
+    return unchangedRowsSkipped.get();
+  }
+
+  public long getRetriedRequests() {
+    return retriedRequests.get();
+  }
+
+  public long getDeadLetterPages() {
+    return deadLetterPages.get();
+  }
+
+  public long getRowsRescored() {
+    return rowsRescored.get();
+  }
+
+  /**
+   * Throughput of the last rescoring run.
+   */
+  public double getRescoreRowsPerSecond() {
+    return rescoreRowsPerSecond;
+  }
+
+  public double getReposPerMinute() {
+    long elapsedMillis = Math.max(1, System.currentTimeMillis() - startTimeMillis);
+    return reposIngested.get() * (double) TimeUnit.MINUTES.toMillis(1) / elapsedMillis;
+  }
+
+}
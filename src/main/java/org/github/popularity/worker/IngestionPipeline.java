@@ -0,0 +1,372 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.worker;
+
+import org.github.popularity.client.Client;
+import org.github.popularity.client.Response;
+import org.github.popularity.mapper.DataMapper;
+import org.github.popularity.model.DeadLetterPage;
+import org.github.popularity.scoring.ScoringStrategy;
+import org.github.popularity.service.IngestionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.github.popularity.constant.GithubConstants.GITHUB_SEARCH_PAGE_SIZE;
+
+/**
+ * Ingestion pipeline with fetch, parse/score and persist stages joined by bounded queues.
+ * When a downstream stage falls behind its input queue fills up and upstream stage blocks,
+ * so fetching slows down instead of buffering pages in memory. Fetch stage sends requests asynchronously and keeps
+ * up to fetch concurrency requests in flight without a thread per request. Fetch stage reserves room in parse queue
+ * and waits for rate limit budget on its dispatching thread, response callbacks never block. Pages which fail for good after retries are
+ * dead lettered and skipped by their window checkpoint.
+ *
+ * @author Kevin Ratnasekera
+ */
+public class IngestionPipeline {
+
+  // marks end of input for a stage worker
+  private static final SearchPage END_OF_STAGE = new SearchPage(null, null, -1);
+  // asks fetch dispatcher to send next pending page, compared by identity
+  private static final Runnable NEXT_PAGE = () -> { };
+  // dead letter error column length
+  private static final int DEAD_LETTER_ERROR_LENGTH = 1024;
+
+  private IngestionService ingestionService;
+  private Client client;
+  private SearchRequestExecutor searchRequestExecutor;
+  private DataMapper dataMapper;
+  private IngestionMetrics ingestionMetrics;
+  private IngestionSettings ingestionSettings;
+  private ScoringStrategy scoringStrategy;
+  // nullable, job to report progress to
+  private IngestionJob ingestionJob;
+  private Logger logger = LoggerFactory.getLogger(IngestionPipeline.class);
+
+  public IngestionPipeline(IngestionService ingestionService,
+                           Client client,
+                           DataMapper dataMapper,
+                           RateLimitBudget rateLimitBudget,
+                           IngestionMetrics ingestionMetrics,
+                           IngestionSettings ingestionSettings,
+                           ScoringStrategy scoringStrategy) {
+    this(ingestionService, client, dataMapper, rateLimitBudget, ingestionMetrics, ingestionSettings, scoringStrategy,
+            null);
+  }
+
+  public IngestionPipeline(IngestionService ingestionService,
+                           Client client,
+                           DataMapper dataMapper,
+                           RateLimitBudget rateLimitBudget,
+                           IngestionMetrics ingestionMetrics,
+                           IngestionSettings ingestionSettings,
+                           ScoringStrategy scoringStrategy,
+                           IngestionJob ingestionJob) {
+    this.ingestionService = ingestionService;
+    this.client = client;
+    this.searchRequestExecutor = new SearchRequestExecutor(client, rateLimitBudget, ingestionMetrics, ingestionSettings);
+    this.dataMapper = dataMapper;
+    this.ingestionMetrics = ingestionMetrics;
+    this.ingestionSettings = ingestionSettings;
+    this.scoringStrategy = scoringStrategy;
+    this.ingestionJob = ingestionJob;
+  }
+
+  /**
+   * Run given search pages through all stages, returns when every page is persisted or failed.
+   *
+   * @param pages
+   */
+  public void run(List<SearchPage> pages) throws InterruptedException {
+    Queue<SearchPage> pendingPages = new ConcurrentLinkedQueue<>(pages);
+    // pages in flight have room reserved in parse queue, so that a callback never waits for parse stage
+    int parseCapacity = ingestionSettings.getQueueCapacity() + ingestionSettings.getFetchConcurrency();
+    BlockingQueue<SearchPage> parseQueue = new ArrayBlockingQueue<>(parseCapacity);
+    Semaphore parseSlots = new Semaphore(parseCapacity);
+    BlockingQueue<SearchPage> persistQueue = new ArrayBlockingQueue<>(ingestionSettings.getQueueCapacity());
+    // fetch stage keeps up to fetch concurrency requests in flight from a single dispatching thread
+    ExecutorService fetchThreadPool = Executors.newSingleThreadExecutor();
+    ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor();
+    AtomicBoolean stopped = new AtomicBoolean();
+    ExecutorService parseThreadPool = Executors.newFixedThreadPool(ingestionSettings.getParseConcurrency());
+    ExecutorService persistThreadPool = Executors.newFixedThreadPool(ingestionSettings.getPersistConcurrency());
+    try {
+      fetchThreadPool.submit(() -> fetchStage(pendingPages, parseQueue, parseSlots, retryScheduler, stopped));
+      for (int i = 0; i < ingestionSettings.getParseConcurrency(); i++) {
+        parseThreadPool.submit(() -> parseStage(parseQueue, parseSlots, persistQueue));
+      }
+      for (int i = 0; i < ingestionSettings.getPersistConcurrency(); i++) {
+        persistThreadPool.submit(() -> persistStage(persistQueue));
+      }
+      // drain stages in order, each stage ends once upstream stage is done and its queue is empty
+      awaitStage(fetchThreadPool);
+      for (int i = 0; i < ingestionSettings.getParseConcurrency(); i++) {
+        parseQueue.put(END_OF_STAGE);
+      }
+      awaitStage(parseThreadPool);
+      for (int i = 0; i < ingestionSettings.getPersistConcurrency(); i++) {
+        persistQueue.put(END_OF_STAGE);
+      }
+      awaitStage(persistThreadPool);
+    } finally {
+      stopped.set(true);
+      fetchThreadPool.shutdownNow();
+      retryScheduler.shutdownNow();
+      parseThreadPool.shutdownNow();
+      persistThreadPool.shutdownNow();
+      // pages left behind by an interrupted run still hold their connections
+      for (SearchPage searchPage : parseQueue) {
+        release(searchPage);
+      }
+    }
+  }
+
+  private void awaitStage(ExecutorService stageThreadPool) throws InterruptedException {
+    stageThreadPool.shutdown();
+    stageThreadPool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+  }
+
+  private void fetchStage(Queue<SearchPage> pendingPages,
+                          BlockingQueue<SearchPage> parseQueue,
+                          Semaphore parseSlots,
+                          ScheduledExecutorService retryScheduler,
+                          AtomicBoolean stopped) {
+    // next page and retry attempts run on this thread only, as they wait for parse queue and rate limit budget
+    BlockingQueue<Runnable> dispatchQueue = new LinkedBlockingQueue<>();
+    // each slot keeps one page in flight, slot asks for next page once its page is handed over
+    int slots = ingestionSettings.getFetchConcurrency();
+    for (int i = 0; i < slots; i++) {
+      dispatchQueue.add(NEXT_PAGE);
+    }
+    try {
+      while (slots > 0) {
+        Runnable task = dispatchQueue.take();
+        if (task != NEXT_PAGE) {
+          task.run();
+          continue;
+        }
+        if (Objects.nonNull(ingestionJob)) {
+          // paused job keeps its pages pending
+          ingestionJob.awaitResumed();
+        }
+        // blocks when parse stage falls behind
+        parseSlots.acquire();
+        SearchPage searchPage = pendingPages.poll();
+        if (Objects.isNull(searchPage)) {
+          parseSlots.release();
+          slots--;
+          continue;
+        }
+        searchRequestExecutor.sendAsync(searchPage.getLanguage(), searchPage.getWindow(), searchPage.getPage() + 1,
+                GITHUB_SEARCH_PAGE_SIZE, searchPage.isConditional(), retryScheduler, dispatchQueue::add)
+                .whenComplete((searchResponse, failure) -> {
+                  try {
+                    fetched(searchPage, searchResponse, failure);
+                    // failed pages go through as well to be dead lettered
+                    handOver(searchPage, parseQueue, stopped);
+                  } finally {
+                    dispatchQueue.add(NEXT_PAGE);
+                  }
+                });
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void fetched(SearchPage searchPage, Response searchResponse, Throwable failure) {
+    if (Objects.nonNull(failure)) {
+      Throwable cause = failure instanceof CompletionException && Objects.nonNull(failure.getCause())
+              ? failure.getCause() : failure;
+      logger.error("Exception occurred when calling Github Search endpoint for {}.", searchPage, cause);
+      searchPage.fail(null, cause.toString());
+      return;
+    }
+    if (searchResponse.getStatus() == HttpStatus.OK.value()) {
+      ingestionMetrics.pageFetched();
+      // body is read by parse stage, straight from the connection
+      searchPage.setResponse(searchResponse);
+    } else if (searchResponse.getStatus() == HttpStatus.NOT_MODIFIED.value()) {
+      // page unchanged since last crawl, only its checkpoint needs to move
+      ingestionMetrics.pageUnchanged();
+      searchPage.setUnchanged(true);
+    } else {
+      // interpret what went wrong here
+      logger.error("Github server returned status code {} for {}.", searchResponse.getStatus(), searchPage);
+      searchPage.fail(searchResponse.getStatus(), "Github server returned status code " + searchResponse.getStatus());
+    }
+  }
+
+  private void handOver(SearchPage searchPage, BlockingQueue<SearchPage> parseQueue, AtomicBoolean stopped) {
+    // room for the page was reserved before it was sent, gives up once pipeline is stopped
+    if (stopped.get() || !parseQueue.offer(searchPage)) {
+      release(searchPage);
+    }
+  }
+
+  // release connection of a page which is not parsed
+  private void release(SearchPage searchPage) {
+    if (Objects.nonNull(searchPage.getResponse())) {
+      searchPage.getResponse().close();
+      searchPage.setResponse(null);
+    }
+  }
+
+  private void parseStage(BlockingQueue<SearchPage> parseQueue,
+                          Semaphore parseSlots,
+                          BlockingQueue<SearchPage> persistQueue) {
+    try {
+      SearchPage searchPage;
+      while ((searchPage = parseQueue.take()) != END_OF_STAGE) {
+        parseSlots.release();
+        if (searchPage.isUnchanged() || searchPage.isFailed()) {
+          // nothing to parse or store, page still goes through persist stage to move its checkpoint
+          searchPage.setRepos(Collections.emptyList());
+        } else {
+          // items are parsed one at a time off the connection, response is closed once read
+          try (Response response = searchPage.getResponse()) {
+            searchPage.setRepos(dataMapper.toGithubRepo(response.getBodyStream(), scoringStrategy));
+            searchPage.setValidators(response.getValidators());
+          } catch (IOException | RuntimeException ex) {
+            logger.error("Unable to parse Github search response for {}.", searchPage, ex);
+            searchPage.fail(null, "Unable to parse Github search response: " + ex);
+            searchPage.setRepos(Collections.emptyList());
+          }
+          searchPage.setResponse(null);
+        }
+        // blocks when persist stage falls behind
+        persistQueue.put(searchPage);
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void persistStage(BlockingQueue<SearchPage> persistQueue) {
+    try {
+      SearchPage searchPage;
+      while ((searchPage = persistQueue.take()) != END_OF_STAGE) {
+        if (!searchPage.isFailed()) {
+          try {
+            store(searchPage);
+            continue;
+          } catch (RuntimeException ex) {
+            // page is dead lettered like a failed fetch, so that next data fetch run retries it
+            logger.error("Unable to store Github repositories of {}.", searchPage, ex);
+            searchPage.fail(null, "Unable to store Github repositories: " + ex);
+          }
+        }
+        try {
+          deadLetter(searchPage);
+        } catch (RuntimeException ex) {
+          logger.error("Unable to dead letter {}.", searchPage, ex);
+          ingestionMetrics.pageFailed();
+        }
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void store(SearchPage searchPage) {
+    CheckpointTracker checkpointTracker = searchPage.getCheckpointTracker();
+    int written;
+    if (Objects.isNull(checkpointTracker)) {
+      written = ingestionService.persistPage(null, searchPage.getPage(), searchPage.getRepos());
+    } else {
+      // repos and checkpoint are written in one transaction
+      written = ingestionService.persistPage(checkpointTracker.getJobKey(),
+              checkpointTracker.lastPageWith(searchPage.getPage()), searchPage.getRepos());
+      stored(checkpointTracker, searchPage);
+    }
+    if (Objects.nonNull(searchPage.getValidators())) {
+      storeValidators(searchPage);
+    }
+    if (Objects.nonNull(searchPage.getDeadLetterId())) {
+      ingestionService.removeDeadLetterPage(searchPage.getDeadLetterId());
+    }
+    ingestionMetrics.reposIngested(searchPage.getRepos().size());
+    ingestionMetrics.unchangedRowsSkipped(searchPage.getRepos().size() - written);
+    if (Objects.nonNull(ingestionJob)) {
+      ingestionJob.pageDone(searchPage.getRepos().size());
+    }
+    logger.info("{} Github repositories of {} stored in database, {} unchanged skipped.", written, searchPage,
+            searchPage.getRepos().size() - written);
+  }
+
+  // repos are committed by now, a page whose repos were not stored is fetched in full next time
+  private void storeValidators(SearchPage searchPage) {
+    try {
+      client.storeValidators(searchPage.getValidators());
+    } catch (RuntimeException ex) {
+      logger.warn("Unable to store response validators of {}.", searchPage, ex);
+    }
+  }
+
+  private void deadLetter(SearchPage searchPage) {
+    DeadLetterPage deadLetterPage = new DeadLetterPage();
+    deadLetterPage.setLanguage(searchPage.getLanguage());
+    deadLetterPage.setWindowStart(searchPage.getWindow().getStart());
+    deadLetterPage.setWindowEnd(searchPage.getWindow().getEnd());
+    deadLetterPage.setPage(searchPage.getPage());
+    deadLetterPage.setStatus(searchPage.getFailedStatus());
+    deadLetterPage.setError(searchPage.getFailure().length() > DEAD_LETTER_ERROR_LENGTH
+            ? searchPage.getFailure().substring(0, DEAD_LETTER_ERROR_LENGTH) : searchPage.getFailure());
+    CheckpointTracker checkpointTracker = searchPage.getCheckpointTracker();
+    if (Objects.isNull(checkpointTracker)) {
+      ingestionService.deadLetterPage(null, searchPage.getPage(), deadLetterPage);
+    } else {
+      // failed page is skipped by checkpoint so that its window completes, dead letter is retried on its own
+      ingestionService.deadLetterPage(checkpointTracker.getJobKey(),
+              checkpointTracker.lastPageWith(searchPage.getPage()), deadLetterPage);
+      stored(checkpointTracker, searchPage);
+    }
+    ingestionMetrics.pageFailed();
+    ingestionMetrics.pageDeadLettered();
+    if (Objects.nonNull(ingestionJob)) {
+      ingestionJob.pageDone(0);
+    }
+    logger.warn("{} dead lettered, it is retried on next data fetch run.", searchPage);
+  }
+
+  private void stored(CheckpointTracker checkpointTracker, SearchPage searchPage) {
+    checkpointTracker.stored(searchPage.getPage());
+    if (checkpointTracker.isCompleted()) {
+      ingestionService.advanceCheckpoint(checkpointTracker.getJobKey(), checkpointTracker.getLastPage());
+      ingestionService.completeCheckpoint(checkpointTracker.getJobKey());
+    }
+  }
+
+}
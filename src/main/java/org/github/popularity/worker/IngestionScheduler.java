@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.worker;
+
+import org.github.popularity.service.IngestionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.github.popularity.constant.GithubConstants.SCHEDULER_TICK_SECONDS;
+
+/**
+ * Runs background data fetch jobs of many languages on a shared pool. Languages are picked by staleness,
+ * languages with unfinished windows first, then languages never synced, then least recently synced.
+ * A language is synced again once its last sync is older than the refresh interval. Jobs run on the managed
+ * job executor through the job manager.
+ *
+ * @author Kevin Ratnasekera
+ */
+@Component
+public class IngestionScheduler {
+
+  private Logger logger = LoggerFactory.getLogger(IngestionScheduler.class);
+
+  // components
+  @Autowired
+  private IngestionService ingestionService;
+  @Autowired
+  private IngestionJobManager ingestionJobManager;
+
+  // env variables
+  @Value("${github.scheduler.pool.size}")
+  private Integer schedulerPoolSize;
+  @Value("${github.scheduler.refresh.interval.minutes}")
+  private Long refreshIntervalMinutes;
+
+  private List<String> languages = new ArrayList<>();
+  private String createdDate;
+  // jobs submitted by scheduler, at most pool size of them run at a time
+  private Map<String, IngestionJob> scheduledJobs = new HashMap<>();
+  private ScheduledExecutorService schedulerThreadPool;
+
+  public IngestionScheduler() {
+  }
+
+  IngestionScheduler(IngestionService ingestionService,
+                     IngestionJobManager ingestionJobManager,
+                     Integer schedulerPoolSize,
+                     Long refreshIntervalMinutes,
+                     List<String> languages,
+                     String createdDate) {
+    this.ingestionService = ingestionService;
+    this.ingestionJobManager = ingestionJobManager;
+    this.schedulerPoolSize = schedulerPoolSize;
+    this.refreshIntervalMinutes = refreshIntervalMinutes;
+    this.languages = new ArrayList<>(languages);
+    this.createdDate = createdDate;
+  }
+
+  /**
+   * Start scheduling data fetch jobs for given languages.
+   *
+   * @param languages
+   * @param createdDate earliest repo created date
+   */
+  public synchronized void start(List<String> languages,
+                                 String createdDate) {
+    this.languages = new ArrayList<>(languages);
+    this.createdDate = createdDate;
+    this.schedulerThreadPool = Executors.newSingleThreadScheduledExecutor();
+    this.schedulerThreadPool.scheduleWithFixedDelay(this::schedule, 0, SCHEDULER_TICK_SECONDS, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Submit due languages ordered by staleness while there are free job slots.
+   */
+  synchronized void schedule() {
+    try {
+      scheduledJobs.values().removeIf(job -> !job.isActive());
+      OffsetDateTime createdFrom = LocalDate.parse(createdDate).atStartOfDay().atOffset(ZoneOffset.UTC);
+      OffsetDateTime refreshBefore = OffsetDateTime.now(ZoneOffset.UTC).minusMinutes(refreshIntervalMinutes);
+      List<LanguageStaleness> candidates = new ArrayList<>();
+      for (String language : languages) {
+        // language may also be fetched by a job submitted through admin API
+        if (ingestionJobManager.isActive(language)) {
+          continue;
+        }
+        boolean resumable = !ingestionService.findOpenWindows(language, createdFrom).isEmpty();
+        OffsetDateTime lastSyncDate = ingestionService.findLastSyncDate(language);
+        if (resumable || Objects.isNull(lastSyncDate) || lastSyncDate.isBefore(refreshBefore)) {
+          candidates.add(new LanguageStaleness(language, resumable, lastSyncDate));
+        }
+      }
+      candidates.sort(LanguageStaleness.MOST_STALE_FIRST);
+      for (LanguageStaleness candidate : candidates) {
+        if (scheduledJobs.size() >= schedulerPoolSize) {
+          break;
+        }
+        logger.info("Scheduling Github data fetch for language {} last synced {}.", candidate.language,
+                candidate.lastSyncDate);
+        scheduledJobs.put(candidate.language, ingestionJobManager.submit(candidate.language, createdFrom, null, null));
+      }
+    } catch (RuntimeException ex) {
+      // keep scheduling on next tick
+      logger.error("Exception occurred when scheduling Github data fetch jobs.", ex);
+    }
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (Objects.isNull(schedulerThreadPool)) {
+      return;
+    }
+    // running jobs are stopped with the job executor
+    schedulerThreadPool.shutdownNow();
+  }
+
+  private static class LanguageStaleness {
+
+    private static final Comparator<LanguageStaleness> MOST_STALE_FIRST = Comparator
+            .comparing((LanguageStaleness staleness) -> !staleness.resumable)
+            .thenComparing(staleness -> staleness.lastSyncDate, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private String language;
+    private boolean resumable;
+    private OffsetDateTime lastSyncDate;
+
+    LanguageStaleness(String language, boolean resumable, OffsetDateTime lastSyncDate) {
+      this.language = language;
+      this.resumable = resumable;
+      this.lastSyncDate = lastSyncDate;
+    }
+
+  }
+
+}
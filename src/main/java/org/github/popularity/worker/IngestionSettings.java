@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.worker;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Background data fetch pipeline settings. Each pipeline stage has its own parallelism,
+ * stages are joined by bounded queues of given capacity. Failed Github requests are retried
+ * with exponential backoff. Languages synced before are refreshed with a delta sync when enabled.
+ *
+ * @author Kevin Ratnasekera
+ */
+@Component
+public class IngestionSettings {
+
+  @Value("${github.data.fetch.concurrency}")
+  private Integer fetchConcurrency;
+  @Value("${github.data.parse.concurrency}")
+  private Integer parseConcurrency;
+  @Value("${github.data.persist.concurrency}")
+  private Integer persistConcurrency;
+  @Value("${github.data.pipeline.queue.capacity}")
+  private Integer queueCapacity;
+  @Value("${github.data.retry.max.attempts}")
+  private Integer retryMaxAttempts;
+  @Value("${github.data.retry.base.delay.millis}")
+  private Long retryBaseDelayMillis;
+  @Value("${github.data.retry.max.delay.millis}")
+  private Long retryMaxDelayMillis;
+  @Value("${github.data.delta.enabled}")
+  private Boolean deltaEnabled;
+
+  /**
+   * Copy of these settings with given fetch concurrency, used by jobs submitted with their own concurrency.
+   *
+   * @param fetchConcurrency
+   *
+   * @return IngestionSettings
+   */
+  public IngestionSettings withFetchConcurrency(Integer fetchConcurrency) {
+    IngestionSettings ingestionSettings = new IngestionSettings();
+    ingestionSettings.setFetchConcurrency(fetchConcurrency);
+    ingestionSettings.setParseConcurrency(parseConcurrency);
+    ingestionSettings.setPersistConcurrency(persistConcurrency);
+    ingestionSettings.setQueueCapacity(queueCapacity);
+    ingestionSettings.setRetryMaxAttempts(retryMaxAttempts);
+    ingestionSettings.setRetryBaseDelayMillis(retryBaseDelayMillis);
+    ingestionSettings.setRetryMaxDelayMillis(retryMaxDelayMillis);
+    ingestionSettings.setDeltaEnabled(deltaEnabled);
+    return ingestionSettings;
+  }
+
+  public Integer getFetchConcurrency() {
+    return fetchConcurrency;
+  }
+
+  public void setFetchConcurrency(Integer fetchConcurrency) {
+    this.fetchConcurrency = fetchConcurrency;
+  }
+
+  public Integer getParseConcurrency() {
+    return parseConcurrency;
+  }
+
+  public void setParseConcurrency(Integer parseConcurrency) {
+    this.parseConcurrency = parseConcurrency;
+  }
+
+  public Integer getPersistConcurrency() {
+    return persistConcurrency;
+  }
+
+  public void setPersistConcurrency(Integer persistConcurrency) {
+    this.persistConcurrency = persistConcurrency;
+  }
+
+  public Integer getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  public void setQueueCapacity(Integer queueCapacity) {
+    this.queueCapacity = queueCapacity;
+  }
+
+  public Integer getRetryMaxAttempts() {
+    return retryMaxAttempts;
+  }
+
+  public void setRetryMaxAttempts(Integer retryMaxAttempts) {
+    this.retryMaxAttempts = retryMaxAttempts;
+  }
+
+  public Long getRetryBaseDelayMillis() {
+    return retryBaseDelayMillis;
+  }
+
+  public void setRetryBaseDelayMillis(Long retryBaseDelayMillis) {
+    this.retryBaseDelayMillis = retryBaseDelayMillis;
+  }
+
+  public Long getRetryMaxDelayMillis() {
+    return retryMaxDelayMillis;
+  }
+
+  public void setRetryMaxDelayMillis(Long retryMaxDelayMillis) {
+    this.retryMaxDelayMillis = retryMaxDelayMillis;
+  }
+
+  public Boolean getDeltaEnabled() {
+    return deltaEnabled;
+  }
+
+  public void setDeltaEnabled(Boolean deltaEnabled) {
+    this.deltaEnabled = deltaEnabled;
+  }
+
+}
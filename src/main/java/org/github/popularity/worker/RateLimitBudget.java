@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.worker;
+
+import org.github.popularity.client.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import static org.github.popularity.constant.GithubConstants.GITHUB_API_RATE_LIMIT_REMAINING_KEY;
+import static org.github.popularity.constant.GithubConstants.GITHUB_API_RATE_LIMIT_RESET_KEY;
+import static org.github.popularity.constant.GithubConstants.GITHUB_RATE_LIMIT_RESET_GRACE_SECONDS;
+
+/**
+ * Shared token budget for Github search API calls. Github rate limits per user, so all fetch threads
+ * draw from a single budget which is refreshed from x-ratelimit-remaining and x-ratelimit-reset
+ * response headers. Budget is shared fairly between jobs, when several jobs wait for a token the job
+ * which received the fewest tokens in current rate limit window goes first.
+ *
+ * @author Kevin Ratnasekera
+ */
+@Component
+public class RateLimitBudget {
+
+  private static final String DEFAULT_JOB = "default";
+
+  private Logger logger = LoggerFactory.getLogger(RateLimitBudget.class);
+
+  // until first response is seen we only allow a single probe request
+  private long remaining = 1;
+  // epoch second at which current rate limit window resets
+  private long resetEpochSecond = 0;
+  // a probe request is in flight after the window reset, its response headers are adopted as the new window
+  private boolean probing = false;
+  // epoch second at which the probe was let through, a probe without response is retried after a minute
+  private long probeEpochSecond = 0;
+  // tokens handed out per job in current rate limit window
+  private Map<String, Long> grantedTokens = new HashMap<>();
+  // number of threads waiting for a token per job
+  private Map<String, Integer> waitingThreads = new HashMap<>();
+
+  /**
+   * Take one token from the budget, blocking until the rate limit window resets if budget is exhausted.
+   */
+  public void acquire() throws InterruptedException {
+    acquire(DEFAULT_JOB);
+  }
+
+  /**
+   * Take one token from the budget on behalf of given job, blocking until it is the job's fair turn
+   * and the rate limit window has budget left.
+   *
+   * @param job
+   */
+  public synchronized void acquire(String job) throws InterruptedException {
+    waitingThreads.merge(job, 1, Integer::sum);
+    try {
+      while (true) {
+        long now = currentEpochSecond();
+        if (isFairTurn(job)) {
+          if (remaining > 0) {
+            remaining--;
+            grant(job);
+            return;
+          }
+          if (now >= resetEpochSecond + GITHUB_RATE_LIMIT_RESET_GRACE_SECONDS
+                  && (!probing || now >= probeEpochSecond + TimeUnit.MINUTES.toSeconds(1))) {
+            // window has been reset, let a single probe request through to learn the new budget
+            probing = true;
+            probeEpochSecond = now;
+            grantedTokens.clear();
+            grant(job);
+            return;
+          }
+        }
+        long waitSeconds = Math.max(GITHUB_RATE_LIMIT_RESET_GRACE_SECONDS,
+                resetEpochSecond + GITHUB_RATE_LIMIT_RESET_GRACE_SECONDS - now);
+        if (remaining <= 0) {
+          logger.info("Github rate limit budget exhausted, job {} waiting {} seconds for reset.", job, waitSeconds);
+        }
+        wait(TimeUnit.SECONDS.toMillis(waitSeconds));
+      }
+    } finally {
+      waitingThreads.computeIfPresent(job, (key, count) -> count > 1 ? count - 1 : null);
+      notifyAll();
+    }
+  }
+
+  /**
+   * Refresh budget from Github rate limit response headers.
+   *
+   * @param response
+   */
+  public synchronized void update(Response response) {
+    Long headerRemaining = parseHeader(response, GITHUB_API_RATE_LIMIT_REMAINING_KEY);
+    Long headerReset = parseHeader(response, GITHUB_API_RATE_LIMIT_RESET_KEY);
+    if (Objects.isNull(headerRemaining) || Objects.isNull(headerReset)) {
+      // no rate limit information, do not pace requests
+      remaining = Long.MAX_VALUE;
+      probing = false;
+      notifyAll();
+      return;
+    }
+    if (probing || headerReset > resetEpochSecond) {
+      // new rate limit window, probe response describes it even when its reset is not later than the last one seen
+      resetEpochSecond = headerReset;
+      remaining = headerRemaining;
+      probing = false;
+      grantedTokens.clear();
+    } else {
+      // tokens already handed out locally are not yet reflected in header value
+      remaining = Math.min(remaining, headerRemaining);
+    }
+    notifyAll();
+  }
+
+  /**
+   * Mark budget as exhausted, used when Github rejects a request due to rate limiting.
+   *
+   * @param response
+   */
+  public synchronized void exhaust(Response response) {
+    Long headerReset = parseHeader(response, GITHUB_API_RATE_LIMIT_RESET_KEY);
+    remaining = 0;
+    probing = false;
+    if (Objects.nonNull(headerReset)) {
+      resetEpochSecond = headerReset;
+    } else {
+      resetEpochSecond = Math.max(resetEpochSecond, currentEpochSecond() + TimeUnit.MINUTES.toSeconds(1));
+    }
+  }
+
+  public synchronized Map<String, Long> getGrantedTokens() {
+    return new HashMap<>(grantedTokens);
+  }
+
+  public synchronized long getRemaining() {
+    return remaining;
+  }
+
+  public synchronized long getResetEpochSecond() {
+    return resetEpochSecond;
+  }
+
+  private boolean isFairTurn(String job) {
+    long granted = grantedTokens.getOrDefault(job, 0L);
+    for (String waitingJob : waitingThreads.keySet()) {
+      if (grantedTokens.getOrDefault(waitingJob, 0L) < granted) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void grant(String job) {
+    grantedTokens.merge(job, 1L, Long::sum);
+    notifyAll();
+  }
+
+  private long currentEpochSecond() {
+    return TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+  }
+
+  private Long parseHeader(Response response, String key) {
+    String value = response.getHeader(key);
+    if (Objects.isNull(value)) {
+      return null;
+    }
+    try {
+      return Long.parseLong(value.trim());
+    } catch (NumberFormatException ex) {
+      logger.warn("Unable to parse Github response header {} value {}.", key, value);
+      return null;
+    }
+  }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.worker;
+
+import org.github.popularity.mapper.EpochTime;
+import org.github.popularity.model.GithubRepo;
+import org.github.popularity.repo.GithubRepository;
+import org.github.popularity.scoring.ScoringStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Recomputes stored popularity scores from stored stargazers count, forks count and updated date, without calling
+ * Github. Only rows whose score valid until instant has passed are rescored. Id range of those rows is split into key ranges which are rescored in parallel, each range is read
+ * and written back in chunks so that memory use does not grow with table size.
+ *
+ * @author Kevin Ratnasekera
+ */
+public class RescoringJob {
+
+  private GithubRepository githubRepository;
+  private IngestionMetrics ingestionMetrics;
+  private ScoringStrategy scoringStrategy;
+  private int parallelism;
+  private int chunkSize;
+  private Logger logger = LoggerFactory.getLogger(RescoringJob.class);
+
+  public RescoringJob(GithubRepository githubRepository,
+                      IngestionMetrics ingestionMetrics,
+                      ScoringStrategy scoringStrategy,
+                      int parallelism,
+                      int chunkSize) {
+    this.githubRepository = githubRepository;
+    this.ingestionMetrics = ingestionMetrics;
+    this.scoringStrategy = scoringStrategy;
+    this.parallelism = parallelism;
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Rescore stored Github repos whose score expired as of now.
+   *
+   * @return number of rows rescored
+   */
+  public long run() throws InterruptedException {
+    // single scored date for the run, so that all rows are scored against the same date
+    long scoredDate = EpochTime.now();
+    Long minId = githubRepository.findMinExpiredId(scoredDate);
+    Long maxId = githubRepository.findMaxExpiredId(scoredDate);
+    if (Objects.isNull(minId) || Objects.isNull(maxId)) {
+      return 0;
+    }
+    long startTimeMillis = System.currentTimeMillis();
+    long rangeSize = Math.max(1, (maxId - minId + parallelism) / parallelism);
+    ExecutorService rescoringThreadPool = Executors.newFixedThreadPool(parallelism);
+    long rescored = 0;
+    try {
+      List<Future<Long>> ranges = new ArrayList<>();
+      for (long fromId = minId - 1; fromId < maxId; fromId += rangeSize) {
+        long afterId = fromId;
+        long toId = Math.min(maxId, fromId + rangeSize);
+        ranges.add(rescoringThreadPool.submit(() -> rescoreRange(afterId, toId, scoredDate)));
+      }
+      for (Future<Long> range : ranges) {
+        rescored += range.get();
+      }
+    } catch (ExecutionException ex) {
+      logger.error("Exception occurred when rescoring Github repos.", ex.getCause());
+    } finally {
+      rescoringThreadPool.shutdownNow();
+    }
+    long elapsedMillis = Math.max(1, System.currentTimeMillis() - startTimeMillis);
+    ingestionMetrics.rowsRescored(rescored, elapsedMillis);
+    logger.info("Github repo rescoring completed. rows rescored: {} rows per second: {}", rescored,
+            ingestionMetrics.getRescoreRowsPerSecond());
+    return rescored;
+  }
+
+  private long rescoreRange(long afterId, long toId, long scoredDate) {
+    long rescored = 0;
+    // columns of current chunk, scored as a batch
+    long[] stargazersCounts = new long[chunkSize];
+    long[] forksCounts = new long[chunkSize];
+    long[] updatedDates = new long[chunkSize];
+    double[] scores = new double[chunkSize];
+    long[] scoreValidUntil = new long[chunkSize];
+    List<GithubRepo> chunk;
+    while (!Thread.currentThread().isInterrupted()
+            && !(chunk = githubRepository.findScoringChunk(scoredDate, afterId, toId, chunkSize)).isEmpty()) {
+      int length = chunk.size();
+      for (int i = 0; i < length; i++) {
+        GithubRepo githubRepo = chunk.get(i);
+        stargazersCounts[i] = githubRepo.getStargazersCount();
+        forksCounts[i] = githubRepo.getForksCount();
+        updatedDates[i] = githubRepo.getUpdatedDate();
+      }
+      scoringStrategy.score(stargazersCounts, forksCounts, updatedDates, scoredDate, scores, length);
+      scoringStrategy.scoreValidUntil(stargazersCounts, forksCounts, updatedDates, scoredDate, scoreValidUntil, length);
+      for (int i = 0; i < length; i++) {
+        GithubRepo githubRepo = chunk.get(i);
+        githubRepo.setScore(scores[i]);
+        githubRepo.setScoredDate(scoredDate);
+        githubRepo.setScoreValidUntil(scoreValidUntil[i]);
+      }
+      rescored += githubRepository.updateScores(chunk, scoredDate);
+      afterId = chunk.get(length - 1).getId();
+    }
+    return rescored;
+  }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.worker;
+
+import org.github.popularity.repo.GithubRepository;
+import org.github.popularity.scoring.WeightedScoringStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.github.popularity.constant.GithubConstants.SERVER_POOL_GRACEFUL_TERMINATION_DURATION;
+
+/**
+ * Periodically rescores stored Github repos. Score depends on days since last update, so stored scores go stale
+ * even when nothing changed upstream.
+ *
+ * @author Kevin Ratnasekera
+ */
+@Component
+public class RescoringScheduler {
+
+  private Logger logger = LoggerFactory.getLogger(RescoringScheduler.class);
+
+  // components
+  @Autowired
+  private GithubRepository githubRepository;
+  @Autowired
+  private IngestionMetrics ingestionMetrics;
+
+  // env variables
+  @Value("${github.rescoring.enabled}")
+  private Boolean rescoringEnabled;
+  @Value("${github.rescoring.interval.minutes}")
+  private Long rescoringIntervalMinutes;
+  @Value("${github.rescoring.concurrency}")
+  private Integer rescoringConcurrency;
+  @Value("${github.rescoring.chunk.size}")
+  private Integer rescoringChunkSize;
+
+  private ScheduledExecutorService schedulerThreadPool;
+
+  @PostConstruct
+  public void init() {
+    if (rescoringEnabled) {
+      this.schedulerThreadPool = Executors.newSingleThreadScheduledExecutor();
+      this.schedulerThreadPool.scheduleWithFixedDelay(this::rescore, rescoringIntervalMinutes,
+              rescoringIntervalMinutes, TimeUnit.MINUTES);
+    }
+  }
+
+  /**
+   * Rescore all stored Github repos now.
+   *
+   * @return number of rows rescored
+   */
+  public long rescore() {
+    try {
+      return new RescoringJob(githubRepository, ingestionMetrics, new WeightedScoringStrategy(),
+              rescoringConcurrency, rescoringChunkSize).run();
+    } catch (InterruptedException ex) {
+      logger.warn("Github repo rescoring interrupted.");
+      Thread.currentThread().interrupt();
+    } catch (RuntimeException ex) {
+      // keep rescoring on next run
+      logger.error("Exception occurred when rescoring Github repos.", ex);
+    }
+    return 0;
+  }
+
+  @PreDestroy
+  public void cleanUp() {
+    if (Objects.isNull(schedulerThreadPool)) {
+      return;
+    }
+    schedulerThreadPool.shutdownNow();
+    try {
+      if (!schedulerThreadPool.awaitTermination(SERVER_POOL_GRACEFUL_TERMINATION_DURATION, TimeUnit.SECONDS)) {
+        logger.error("Thread pool schedulerThreadPool did not terminate.");
+      }
+    } catch (InterruptedException e) {
+      logger.error("Waiting on termination interrupted for thread pool schedulerThreadPool.", e);
+      Thread.currentThread().interrupt();
+    }
+  }
+
+}
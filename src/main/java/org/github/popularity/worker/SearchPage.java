@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.worker;
+
+import org.github.popularity.client.Response;
+import org.github.popularity.client.ResponseValidators;
+import org.github.popularity.model.GithubRepo;
+
+import java.util.List;
+
+/**
+ * Single Github search result page moving through ingestion pipeline stages.
+ *
+ * @author Kevin Ratnasekera
+ */
+public class SearchPage {
+
+  private String language;
+  private SearchWindow window;
+  // zero based page number within window
+  private int page;
+  // fetched response, body is streamed by parse stage
+  private Response response;
+  // Github answered not modified, page content already stored
+  private boolean unchanged;
+  // window end of delta sync pages moves on every run, caching their responses is pointless
+  private boolean conditional = true;
+  // validators of fetched response, kept only once repos of the page are stored
+  private ResponseValidators validators;
+  private List<GithubRepo> repos;
+  private CheckpointTracker checkpointTracker;
+  // set when page is a retry of a dead letter page
+  private Long deadLetterId;
+  // set when page failed for good, status is null on IO error
+  private Integer failedStatus;
+  private String failure;
+
+  public SearchPage(String language, SearchWindow window, int page) {
+    this.language = language;
+    this.window = window;
+    this.page = page;
+  }
+
+  public String getLanguage() {
+    return language;
+  }
+
+  public SearchWindow getWindow() {
+    return window;
+  }
+
+  public int getPage() {
+    return page;
+  }
+
+  public Response getResponse() {
+    return response;
+  }
+
+  public void setResponse(Response response) {
+    this.response = response;
+  }
+
+  public boolean isUnchanged() {
+    return unchanged;
+  }
+
+  public void setUnchanged(boolean unchanged) {
+    this.unchanged = unchanged;
+  }
+
+  public boolean isConditional() {
+    return conditional;
+  }
+
+  public void setConditional(boolean conditional) {
+    this.conditional = conditional;
+  }
+
+  public ResponseValidators getValidators() {
+    return validators;
+  }
+
+  public void setValidators(ResponseValidators validators) {
+    this.validators = validators;
+  }
+
+  public List<GithubRepo> getRepos() {
+    return repos;
+  }
+
+  public void setRepos(List<GithubRepo> repos) {
+    this.repos = repos;
+  }
+
+  public CheckpointTracker getCheckpointTracker() {
+    return checkpointTracker;
+  }
+
+  public void setCheckpointTracker(CheckpointTracker checkpointTracker) {
+    this.checkpointTracker = checkpointTracker;
+  }
+
+  public Long getDeadLetterId() {
+    return deadLetterId;
+  }
+
+  public void setDeadLetterId(Long deadLetterId) {
+    this.deadLetterId = deadLetterId;
+  }
+
+  public boolean isFailed() {
+    return failure != null;
+  }
+
+  public Integer getFailedStatus() {
+    return failedStatus;
+  }
+
+  public String getFailure() {
+    return failure;
+  }
+
+  /**
+   * Mark page as failed for good, it is dead lettered by persist stage.
+   *
+   * @param failedStatus nullable, last response status
+   * @param failure
+   */
+  public void fail(Integer failedStatus, String failure) {
+    this.failedStatus = failedStatus;
+    this.failure = failure;
+  }
+
+  @Override
+  public String toString() {
+    return language + " window " + window + " page " + page;
+  }
+
+}
@@ -0,0 +1,302 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.worker;
+
+import org.github.popularity.client.Client;
+import org.github.popularity.client.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.github.popularity.constant.GithubConstants.GITHUB_API_RATE_LIMIT_REMAINING_KEY;
+import static org.github.popularity.constant.GithubConstants.GITHUB_API_RETRY_AFTER_KEY;
+import static org.github.popularity.constant.GithubConstants.GITHUB_RATE_LIMIT_MAX_RETRIES;
+import static org.github.popularity.constant.GithubConstants.GITHUB_SECONDARY_RATE_LIMIT_WAIT_SECONDS;
+
+/**
+ * Sends window search requests within the shared rate limit budget and retries failed requests.
+ * Primary rate limit responses wait for the budget to reset. Secondary rate limit responses wait for Retry-After,
+ * or a minute when absent. Server errors and IO errors are retried with exponential backoff and jitter. Requests
+ * can be sent blocking or asynchronously.
+ *
+ * @author Kevin Ratnasekera
+ */
+public class SearchRequestExecutor {
+
+  private Client client;
+  private RateLimitBudget rateLimitBudget;
+  private IngestionMetrics ingestionMetrics;
+  private IngestionSettings ingestionSettings;
+  private Logger logger = LoggerFactory.getLogger(SearchRequestExecutor.class);
+
+  public SearchRequestExecutor(Client client,
+                               RateLimitBudget rateLimitBudget,
+                               IngestionMetrics ingestionMetrics,
+                               IngestionSettings ingestionSettings) {
+    this.client = client;
+    this.rateLimitBudget = rateLimitBudget;
+    this.ingestionMetrics = ingestionMetrics;
+    this.ingestionSettings = ingestionSettings;
+  }
+
+  /**
+   * Send a window search request, retrying until it succeeds, fails with a status that is not worth retrying
+   * or retries are exhausted.
+   *
+   * @param language
+   * @param window
+   * @param page one based page number
+   * @param limit
+   * @param conditional whether an unchanged page may be answered with 304
+   *
+   * @return last Response, status 200 or 304 on success
+   *
+   * @throws IOException if last attempt failed with an IO error
+   */
+  public Response send(String language,
+                       SearchWindow window,
+                       int page,
+                       int limit,
+                       boolean conditional) throws IOException, InterruptedException {
+    Attempts attempts = new Attempts();
+    while (true) {
+      rateLimitBudget.acquire(language);
+      long retryDelayMillis;
+      try {
+        Response response = client.sendSearchRequest(language, window.getStart(), window.getEnd(), page, limit,
+                conditional);
+        retryDelayMillis = retryDelay(language, window, page, response, attempts);
+        if (retryDelayMillis < 0) {
+          return response;
+        }
+      } catch (IOException ex) {
+        retryDelayMillis = retryDelay(language, window, page, ex, attempts);
+        if (retryDelayMillis < 0) {
+          throw ex;
+        }
+      }
+      Thread.sleep(retryDelayMillis);
+    }
+  }
+
+  /**
+   * Send a window search request without holding a thread while the request is in flight or waits for a retry.
+   * Same retry rules as {@link #send(String, SearchWindow, int, int, boolean)}. Each attempt waits for the rate limit
+   * budget on given dispatcher, so that neither response callbacks nor retry scheduler block on it. First attempt
+   * runs on calling thread, which is expected to be the dispatcher.
+   *
+   * @param language
+   * @param window
+   * @param page one based page number
+   * @param limit
+   * @param conditional whether an unchanged page may be answered with 304
+   * @param retryScheduler waits out retry delays
+   * @param dispatcher runs retry attempts
+   *
+   * @return CompletableFuture of last Response, completed exceptionally if last attempt failed with an IO error
+   */
+  public CompletableFuture<Response> sendAsync(String language,
+                                               SearchWindow window,
+                                               int page,
+                                               int limit,
+                                               boolean conditional,
+                                               ScheduledExecutorService retryScheduler,
+                                               Executor dispatcher) {
+    CompletableFuture<Response> result = new CompletableFuture<>();
+    attemptAsync(language, window, page, limit, conditional, retryScheduler, dispatcher, new Attempts(), result);
+    return result;
+  }
+
+  private void attemptAsync(String language,
+                            SearchWindow window,
+                            int page,
+                            int limit,
+                            boolean conditional,
+                            ScheduledExecutorService retryScheduler,
+                            Executor dispatcher,
+                            Attempts attempts,
+                            CompletableFuture<Response> result) {
+    if (result.isDone()) {
+      // cancelled by caller
+      return;
+    }
+    try {
+      rateLimitBudget.acquire(language);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      result.completeExceptionally(ex);
+      return;
+    }
+    client.sendSearchRequestAsync(language, window.getStart(), window.getEnd(), page, limit, conditional)
+            .whenComplete((response, failure) -> {
+              try {
+                long retryDelayMillis;
+                if (Objects.isNull(failure)) {
+                  retryDelayMillis = retryDelay(language, window, page, response, attempts);
+                  if (retryDelayMillis < 0) {
+                    result.complete(response);
+                    return;
+                  }
+                } else {
+                  Throwable cause = failure instanceof CompletionException && Objects.nonNull(failure.getCause())
+                          ? failure.getCause() : failure;
+                  retryDelayMillis = cause instanceof IOException
+                          ? retryDelay(language, window, page, (IOException) cause, attempts) : -1;
+                  if (retryDelayMillis < 0) {
+                    result.completeExceptionally(cause);
+                    return;
+                  }
+                }
+                retryScheduler.schedule(() -> dispatcher.execute(() -> attemptAsync(language, window, page, limit,
+                        conditional, retryScheduler, dispatcher, attempts, result)), retryDelayMillis,
+                        TimeUnit.MILLISECONDS);
+              } catch (RuntimeException ex) {
+                result.completeExceptionally(ex);
+              }
+            });
+  }
+
+  /**
+   * Decide what to do after a response, updating rate limit budget and retry counters.
+   *
+   * @return delay in milliseconds before next attempt, negative when response is final
+   */
+  private long retryDelay(String language,
+                          SearchWindow window,
+                          int page,
+                          Response response,
+                          Attempts attempts) {
+    int status = response.getStatus();
+    if (status == HttpStatus.OK.value() || status == HttpStatus.NOT_MODIFIED.value()) {
+      rateLimitBudget.update(response);
+      return -1;
+    }
+    if (isPrimaryRateLimit(response)) {
+      // wait for the rate limit window to reset and retry the same page
+      logger.warn("Rate limit exceeded in Github search endpoint for {} window {} page {}.", language, window, page);
+      ingestionMetrics.rateLimitHit();
+      rateLimitBudget.exhaust(response);
+      return ++attempts.rateLimitRetries > GITHUB_RATE_LIMIT_MAX_RETRIES ? -1 : 0;
+    }
+    rateLimitBudget.update(response);
+    if (!isRetryable(status) || ++attempts.failures >= ingestionSettings.getRetryMaxAttempts()) {
+      return -1;
+    }
+    if (isRateLimited(status)) {
+      ingestionMetrics.rateLimitHit();
+    }
+    return retry(language, window, page, attempts.failures, response, "status code " + status);
+  }
+
+  /**
+   * Decide what to do after an IO error, updating retry counters.
+   *
+   * @return delay in milliseconds before next attempt, negative when error is final
+   */
+  private long retryDelay(String language,
+                          SearchWindow window,
+                          int page,
+                          IOException ex,
+                          Attempts attempts) {
+    if (++attempts.failures >= ingestionSettings.getRetryMaxAttempts()) {
+      return -1;
+    }
+    return retry(language, window, page, attempts.failures, null, ex.toString());
+  }
+
+  /**
+   * Delay before given retry attempt. Retry-After is honoured, secondary rate limits without it wait a minute,
+   * otherwise exponential backoff with equal jitter so that parallel fetch threads do not retry in lock step.
+   *
+   * @param attempt one based number of failed attempts so far
+   * @param response nullable, failed response
+   *
+   * @return delay in milliseconds
+   */
+  long backoffMillis(int attempt, Response response) {
+    if (Objects.nonNull(response)) {
+      Long retryAfterSeconds = parseRetryAfter(response);
+      if (Objects.nonNull(retryAfterSeconds)) {
+        return TimeUnit.SECONDS.toMillis(retryAfterSeconds);
+      }
+      if (isRateLimited(response.getStatus())) {
+        return TimeUnit.SECONDS.toMillis(GITHUB_SECONDARY_RATE_LIMIT_WAIT_SECONDS);
+      }
+    }
+    long ceiling = Math.min(ingestionSettings.getRetryMaxDelayMillis(),
+            ingestionSettings.getRetryBaseDelayMillis() << Math.min(attempt - 1, 30));
+    return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+  }
+
+  private long retry(String language,
+                     SearchWindow window,
+                     int page,
+                     int attempt,
+                     Response response,
+                     String reason) {
+    long delayMillis = backoffMillis(attempt, response);
+    logger.warn("Github search for {} window {} page {} failed with {}, retry {} in {} ms.", language, window, page,
+            reason, attempt, delayMillis);
+    ingestionMetrics.requestRetried();
+    return delayMillis;
+  }
+
+  private boolean isPrimaryRateLimit(Response response) {
+    String remaining = response.getHeader(GITHUB_API_RATE_LIMIT_REMAINING_KEY);
+    return isRateLimited(response.getStatus()) && Objects.nonNull(remaining) && "0".equals(remaining.trim());
+  }
+
+  // primary rate limit is told apart by remaining budget of zero, anything else is a secondary rate limit
+  private boolean isRateLimited(int status) {
+    return status == HttpStatus.FORBIDDEN.value() || status == HttpStatus.TOO_MANY_REQUESTS.value();
+  }
+
+  private boolean isRetryable(int status) {
+    return isRateLimited(status) || status >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+  }
+
+  private Long parseRetryAfter(Response response) {
+    String value = response.getHeader(GITHUB_API_RETRY_AFTER_KEY);
+    if (Objects.isNull(value)) {
+      return null;
+    }
+    try {
+      return Math.max(0, Long.parseLong(value.trim()));
+    } catch (NumberFormatException ex) {
+      logger.warn("Unable to parse Github response header {} value {}.", GITHUB_API_RETRY_AFTER_KEY, value);
+      return null;
+    }
+  }
+
+  // retry counters of a single request
+  private static class Attempts {
+
+    private int failures;
+    private int rateLimitRetries;
+
+  }
+
+}
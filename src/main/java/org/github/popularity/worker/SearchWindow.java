@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.worker;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Created date window of a Github search query, both ends inclusive.
+ *
+ * @author Kevin Ratnasekera
+ */
+public class SearchWindow {
+
+  private OffsetDateTime start;
+  private OffsetDateTime end;
+  private Long totalCount;
+
+  public SearchWindow(OffsetDateTime start, OffsetDateTime end) {
+    this.start = start;
+    this.end = end;
+  }
+
+  public OffsetDateTime getStart() {
+    return start;
+  }
+
+  public OffsetDateTime getEnd() {
+    return end;
+  }
+
+  public Long getTotalCount() {
+    return totalCount;
+  }
+
+  public void setTotalCount(Long totalCount) {
+    this.totalCount = totalCount;
+  }
+
+  public long getSeconds() {
+    return Duration.between(start, end).getSeconds();
+  }
+
+  /**
+   * Split window into given number of adjacent non overlapping windows of equal length, in seconds resolution.
+   *
+   * @param pieces
+   *
+   * @return List of SearchWindow
+   */
+  public List<SearchWindow> split(int pieces) {
+    long seconds = getSeconds() + 1;
+    int count = (int) Math.min(pieces, seconds);
+    List<SearchWindow> windows = new ArrayList<>();
+    OffsetDateTime pieceStart = start;
+    for (int i = 1; i <= count; i++) {
+      OffsetDateTime pieceEnd = i == count ? end : start.plusSeconds(seconds * i / count - 1);
+      windows.add(new SearchWindow(pieceStart, pieceEnd));
+      pieceStart = pieceEnd.plusSeconds(1);
+    }
+    return windows;
+  }
+
+  @Override
+  public String toString() {
+    return start + ".." + end;
+  }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.worker;
+
+import org.github.popularity.client.Client;
+import org.github.popularity.client.Response;
+import org.github.popularity.mapper.DataMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.github.popularity.constant.GithubConstants.GITHUB_SEARCH_RESULT_CAP;
+import static org.github.popularity.constant.GithubConstants.GITHUB_SEARCH_WINDOW_MAX_SPLIT;
+import static org.github.popularity.constant.GithubConstants.GITHUB_SEARCH_WINDOW_SPLIT_HEADROOM;
+
+/**
+ * Github search only returns first 1000 results of a query. Planner splits created date window,
+ * guided by total count of each window, until every window is under that cap.
+ *
+ * @author Kevin Ratnasekera
+ */
+public class SearchWindowPlanner {
+
+  private SearchRequestExecutor searchRequestExecutor;
+  private DataMapper dataMapper;
+  private Logger logger = LoggerFactory.getLogger(SearchWindowPlanner.class);
+
+  public SearchWindowPlanner(Client client,
+                             DataMapper dataMapper,
+                             RateLimitBudget rateLimitBudget,
+                             IngestionMetrics ingestionMetrics,
+                             IngestionSettings ingestionSettings) {
+    this.searchRequestExecutor = new SearchRequestExecutor(client, rateLimitBudget, ingestionMetrics, ingestionSettings);
+    this.dataMapper = dataMapper;
+  }
+
+  /**
+   * Split given window into non empty windows each holding at most 1000 search results, ordered by created date.
+   *
+   * @param language
+   * @param window
+   *
+   * @return List of SearchWindow with total count set
+   */
+  public List<SearchWindow> plan(String language,
+                                 SearchWindow window) throws IOException, InterruptedException {
+    return plan(language, window, counted -> {
+    });
+  }
+
+  /**
+   * Same as {@link #plan(String, SearchWindow)}, given listener is called as soon as each window is final, empty
+   * windows included. Windows are passed in created date order and cover given window without gaps, so planning
+   * interrupted half way can be continued from the end of the last window seen.
+   *
+   * @param language
+   * @param window
+   * @param listener
+   *
+   * @return List of SearchWindow with total count set
+   */
+  public List<SearchWindow> plan(String language,
+                                 SearchWindow window,
+                                 Consumer<SearchWindow> listener) throws IOException, InterruptedException {
+    List<SearchWindow> planned = new ArrayList<>();
+    Deque<SearchWindow> pending = new ArrayDeque<>();
+    pending.push(window);
+    while (!pending.isEmpty()) {
+      SearchWindow current = pending.pop();
+      long totalCount = count(language, current);
+      current.setTotalCount(totalCount);
+      if (totalCount == 0) {
+        listener.accept(current);
+        continue;
+      }
+      if (totalCount <= GITHUB_SEARCH_RESULT_CAP) {
+        listener.accept(current);
+        planned.add(current);
+        continue;
+      }
+      if (current.getSeconds() == 0) {
+        logger.warn("Search window {} holds {} results and can not be split further, results beyond {} are not reachable.",
+                current, totalCount, GITHUB_SEARCH_RESULT_CAP);
+        listener.accept(current);
+        planned.add(current);
+        continue;
+      }
+      // split into enough pieces so that each piece is likely under the cap assuming even distribution
+      int pieces = (int) Math.min(GITHUB_SEARCH_WINDOW_MAX_SPLIT,
+              Math.max(2, Math.ceil(totalCount * GITHUB_SEARCH_WINDOW_SPLIT_HEADROOM / GITHUB_SEARCH_RESULT_CAP)));
+      List<SearchWindow> split = current.split(pieces);
+      // push in reverse so that windows are planned in created date order
+      for (int i = split.size() - 1; i >= 0; i--) {
+        pending.push(split.get(i));
+      }
+    }
+    logger.info("Planned {} search windows for language {} window {}.", planned.size(), language, window);
+    return planned;
+  }
+
+  private long count(String language,
+                     SearchWindow window) throws IOException, InterruptedException {
+    // total count is read from body, so count request can not be answered with not modified
+    try (Response response = searchRequestExecutor.send(language, window, 1, 1, false)) {
+      if (response.getStatus() != HttpStatus.OK.value()) {
+        throw new IOException("Github server returned status code " + response.getStatus() + " for window " + window);
+      }
+      return dataMapper.toTotalCount(response.getBodyStream());
+    }
+  }
+
+}
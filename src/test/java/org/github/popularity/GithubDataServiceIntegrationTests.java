@@ -16,6 +16,7 @@
  */
 package org.github.popularity;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.github.popularity.controller.GithubRepoDataController;
@@ -25,26 +26,42 @@ import org.github.popularity.mapper.DataMapper;
 import org.github.popularity.model.GithubRepo;
 import org.github.popularity.repo.GithubRepository;
 import org.github.popularity.scoring.WeightedScoringStrategy;
+import org.github.popularity.worker.BulkImporter;
+import org.github.popularity.worker.IngestionJob;
+import org.github.popularity.worker.IngestionJobManager;
 import org.junit.Assert;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
 import static org.hamcrest.Matchers.is;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 
@@ -54,7 +71,10 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 class GithubDataServiceIntegrationTests {
 
   private static final String ASYNC_URL_TEMPLATE = "/api/v1/search/repositories?language={language}&createdDate={date}&offset={offset}&limit={limit}";
+  private static final String TOP_URL_TEMPLATE = "/api/v1/search/repositories/top?language={language}&createdDate={date}&limit={limit}";
   private static final String SYNC_URL_TEMPLATE = "/api/v1/search/repositories/sync?language={language}&createdDate={date}&offset={offset}&limit={limit}";
+  private static final String JOBS_URL = "/api/v1/ingestion/jobs";
+  private static final String IMPORTS_URL = "/api/v1/ingestion/imports";
   private static final String TEST_FILE = "test.json";
 
   @Autowired
@@ -69,14 +89,25 @@ class GithubDataServiceIntegrationTests {
   @Autowired
   private DataMapper dataMapper;
 
+  @Autowired
+  private BulkImporter bulkImporter;
+
+  @Autowired
+  private IngestionJobManager ingestionJobManager;
+
+  @TempDir
+  Path tempDir;
+
   @BeforeEach
   public void setup() {
     githubRepository.deleteAll();
+    githubRepository.repairCountRollups();
   }
 
   @AfterEach
   public void destroy() {
     githubRepository.deleteAll();;
+    githubRepository.repairCountRollups();
   }
 
   @Test
@@ -93,6 +124,8 @@ class GithubDataServiceIntegrationTests {
     repos.forEach(repo -> {
       githubRepository.save(repo);
     });
+    // repos saved through JPA are counted once rollups are repaired
+    githubRepository.repairCountRollups();
     String dbFetchUrl = ASYNC_URL_TEMPLATE
             .replace("{language}", "java")
             .replace("{date}", "2025-01-01")
@@ -117,6 +150,84 @@ class GithubDataServiceIntegrationTests {
     }
   }
 
+  @Test
+  public void testAsyncAPICursor() throws Exception {
+    Path filePath = Paths.get(getClass().getClassLoader().getResource(TEST_FILE).getPath());
+    String content = new String(Files.readAllBytes(Paths.get(filePath.toUri())));
+    List<GithubRepo> repos = dataMapper.toGithubRepo(content, new WeightedScoringStrategy());
+    githubRepository.upsertAll(repos);
+    String dbFetchUrl = ASYNC_URL_TEMPLATE
+            .replace("{language}", "java")
+            .replace("{date}", "2025-01-01")
+            .replace("{offset}", "0")
+            .replace("{limit}", "7");
+
+    // first page by offset, following pages by cursor of previous page
+    Set<Long> repositoryIds = new HashSet<>();
+    GithubSearchResponseDTO responseDTO = search(dbFetchUrl);
+    int pages = 1;
+    responseDTO.getItems().forEach(item -> repositoryIds.add(item.getRepositoryId()));
+    while (Objects.nonNull(responseDTO.getNextCursor())) {
+      responseDTO = search(dbFetchUrl + "&cursor=" + responseDTO.getNextCursor());
+      responseDTO.getItems().forEach(item -> repositoryIds.add(item.getRepositoryId()));
+      Assert.assertEquals(responseDTO.getTotalCount(), new Long(20L));
+      pages++;
+    }
+    Assert.assertEquals(pages, 3);
+    Assert.assertEquals(repositoryIds.size(), 20);
+
+    this.mockMvc.perform(get(dbFetchUrl + "&cursor=not-a-cursor"))
+            .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void testTopAPI() throws Exception {
+    Path filePath = Paths.get(getClass().getClassLoader().getResource(TEST_FILE).getPath());
+    String content = new String(Files.readAllBytes(Paths.get(filePath.toUri())));
+    List<GithubRepo> repos = dataMapper.toGithubRepo(content, new WeightedScoringStrategy());
+    githubRepository.upsertAll(repos);
+    String topUrl = TOP_URL_TEMPLATE
+            .replace("{language}", "java")
+            .replace("{date}", "2025-01-01")
+            .replace("{limit}", "7");
+
+    // pages follow each other in score descending order
+    Set<Long> repositoryIds = new HashSet<>();
+    List<Double> scores = new ArrayList<>();
+    GithubSearchResponseDTO responseDTO = search(topUrl);
+    int pages = 1;
+    responseDTO.getItems().forEach(item -> {
+      repositoryIds.add(item.getRepositoryId());
+      scores.add(item.getScore());
+    });
+    while (Objects.nonNull(responseDTO.getNextCursor())) {
+      responseDTO = search(topUrl + "&cursor=" + responseDTO.getNextCursor());
+      responseDTO.getItems().forEach(item -> {
+        repositoryIds.add(item.getRepositoryId());
+        scores.add(item.getScore());
+      });
+      Assert.assertEquals(responseDTO.getTotalCount(), new Long(20L));
+      pages++;
+    }
+    Assert.assertEquals(pages, 3);
+    Assert.assertEquals(repositoryIds.size(), 20);
+    List<Double> sortedScores = new ArrayList<>(scores);
+    sortedScores.sort(Comparator.reverseOrder());
+    Assert.assertEquals(scores, sortedScores);
+
+    this.mockMvc.perform(get(topUrl + "&cursor=not-a-cursor"))
+            .andExpect(status().isBadRequest());
+    this.mockMvc.perform(get(topUrl.replace("java", "javac")))
+            .andExpect(status().isBadRequest());
+  }
+
+  private GithubSearchResponseDTO search(String url) throws Exception {
+    MvcResult mvcResult = this.mockMvc.perform(get(url))
+            .andExpect(status().is2xxSuccessful()).andReturn();
+    return new ObjectMapper().registerModule(new JavaTimeModule())
+            .readValue(mvcResult.getResponse().getContentAsByteArray(), GithubSearchResponseDTO.class);
+  }
+
   @Test
   public void testAsyncAPIUnknownLanguage() throws Exception {
     Path filePath = Paths.get(getClass().getClassLoader().getResource(TEST_FILE).getPath());
@@ -126,6 +237,8 @@ class GithubDataServiceIntegrationTests {
     repos.forEach(repo -> {
       githubRepository.save(repo);
     });
+    // repos saved through JPA are counted once rollups are repaired
+    githubRepository.repairCountRollups();
     String  dbFetchUrl = ASYNC_URL_TEMPLATE
             .replace("{language}", "javac")
             .replace("{date}", "2025-01-01")
@@ -145,6 +258,8 @@ class GithubDataServiceIntegrationTests {
     repos.forEach(repo -> {
       githubRepository.save(repo);
     });
+    // repos saved through JPA are counted once rollups are repaired
+    githubRepository.repairCountRollups();
     String  dbFetchUrl = ASYNC_URL_TEMPLATE
             .replace("{language}", "java")
             .replace("{date}", "2025-01-01")
@@ -163,7 +278,10 @@ class GithubDataServiceIntegrationTests {
             .replace("{offset}", "0")
             .replace("{limit}", "10");
 
-    this.mockMvc.perform(get(dbFetchUrl))
+    MvcResult mvcResult = this.mockMvc.perform(get(dbFetchUrl))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    this.mockMvc.perform(asyncDispatch(mvcResult))
             .andExpect(status().is2xxSuccessful());
   }
 
@@ -190,4 +308,86 @@ class GithubDataServiceIntegrationTests {
             .andExpect(status().isBadRequest());
   }
 
+  @Test
+  public void testIngestionJobUnknownLanguage() throws Exception {
+    this.mockMvc.perform(post(JOBS_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"language\":\"computer\",\"createdFrom\":\"2025-01-01\"}"))
+            .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void testIngestionJobInvalidWindow() throws Exception {
+    this.mockMvc.perform(post(JOBS_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"language\":\"java\",\"createdFrom\":\"2025-02-01\",\"createdTo\":\"2025-01-01\"}"))
+            .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void testIngestionJobNotFound() throws Exception {
+    this.mockMvc.perform(get(JOBS_URL + "/1000"))
+            .andExpect(status().isNotFound());
+    this.mockMvc.perform(delete(JOBS_URL + "/1000"))
+            .andExpect(status().isNotFound());
+  }
+
+  @Test
+  public void testIngestionJobList() throws Exception {
+    this.mockMvc.perform(get(JOBS_URL))
+            .andExpect(status().is2xxSuccessful())
+            .andExpect(jsonPath("$").isArray());
+  }
+
+  @Test
+  public void testBulkImportOutsideImportDirectory() throws Exception {
+    this.mockMvc.perform(post(IMPORTS_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"file\":\"../pom.xml\"}"))
+            .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void testBulkImportJob() throws Exception {
+    Path filePath = Paths.get(getClass().getClassLoader().getResource(TEST_FILE).getPath());
+    JsonNode root = new ObjectMapper().readTree(Files.readAllBytes(Paths.get(filePath.toUri())));
+    StringBuilder dump = new StringBuilder();
+    for (JsonNode item : root.get("items")) {
+      dump.append(item.toString()).append("\n");
+    }
+    Files.write(tempDir.resolve("repos.ndjson"), dump.toString().getBytes(StandardCharsets.UTF_8));
+    Object importDir = ReflectionTestUtils.getField(bulkImporter, "importDir");
+    ReflectionTestUtils.setField(bulkImporter, "importDir", tempDir.toString());
+    try {
+      // import is accepted as a background job
+      MvcResult result = this.mockMvc.perform(post(IMPORTS_URL)
+              .contentType(MediaType.APPLICATION_JSON)
+              .content("{\"file\":\"repos.ndjson\"}"))
+              .andExpect(status().isAccepted())
+              .andExpect(jsonPath("$.importFile", is("repos.ndjson")))
+              .andReturn();
+      long id = new ObjectMapper().readTree(result.getResponse().getContentAsString()).get("id").asLong();
+      IngestionJob ingestionJob = ingestionJobManager.find(id);
+      for (int i = 0; i < 100 && ingestionJob.isActive(); i++) {
+        Thread.sleep(100);
+      }
+      this.mockMvc.perform(get(JOBS_URL + "/" + id))
+              .andExpect(status().is2xxSuccessful())
+              .andExpect(jsonPath("$.status", is("COMPLETED")))
+              .andExpect(jsonPath("$.reposIngested", is(20)))
+              .andExpect(jsonPath("$.failedLines", is(0)));
+      Assert.assertEquals(githubRepository.count(), 20);
+    } finally {
+      ReflectionTestUtils.setField(bulkImporter, "importDir", importDir);
+    }
+  }
+
+  @Test
+  public void testBulkImportFileNotFound() throws Exception {
+    this.mockMvc.perform(post(IMPORTS_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"file\":\"missing.ndjson.gz\"}"))
+            .andExpect(status().isNotFound());
+  }
+
 }
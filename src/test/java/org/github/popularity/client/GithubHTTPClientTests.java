@@ -0,0 +1,245 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.client;
+
+import com.sun.net.httpserver.HttpServer;
+import org.github.popularity.mapper.DataMapper;
+import org.github.popularity.model.DeadLetterPage;
+import org.github.popularity.model.GithubRepo;
+import org.github.popularity.repo.HttpCacheEntryRepository;
+import org.github.popularity.scoring.WeightedScoringStrategy;
+import org.github.popularity.service.IngestionServiceImpl;
+import org.github.popularity.worker.IngestionMetrics;
+import org.github.popularity.worker.IngestionPipeline;
+import org.github.popularity.worker.IngestionSettings;
+import org.github.popularity.worker.RateLimitBudget;
+import org.github.popularity.worker.SearchPage;
+import org.github.popularity.worker.SearchWindow;
+import org.junit.Assert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+class GithubHTTPClientTests {
+
+  private static final String ETAG = "\"page-etag\"";
+  private static final String BODY = "{\"total_count\":0,\"items\":[]}";
+
+  @Autowired
+  private GithubHTTPClient githubHTTPClient;
+  @Autowired
+  private ResponseCache responseCache;
+  @Autowired
+  private HttpCacheEntryRepository httpCacheEntryRepository;
+  @Autowired
+  private DataMapper dataMapper;
+  @Autowired
+  private RateLimitBudget rateLimitBudget;
+  @Autowired
+  private IngestionMetrics ingestionMetrics;
+
+  private HttpServer server;
+  private Object githubBaseUrl;
+  private AtomicInteger conditionalRequests = new AtomicInteger();
+
+  @BeforeEach
+  public void setup() throws IOException {
+    httpCacheEntryRepository.deleteAll();
+    // answers not modified when client sends back the etag it was given
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/", exchange -> {
+      if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+        conditionalRequests.incrementAndGet();
+        exchange.sendResponseHeaders(304, -1);
+      } else {
+        byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("ETag", ETAG);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+          outputStream.write(body);
+        }
+      }
+      exchange.close();
+    });
+    server.start();
+    githubBaseUrl = ReflectionTestUtils.getField(githubHTTPClient, "githubBaseUrl");
+    ReflectionTestUtils.setField(githubHTTPClient, "githubBaseUrl", "http://localhost:" + server.getAddress().getPort());
+  }
+
+  @AfterEach
+  public void destroy() {
+    ReflectionTestUtils.setField(githubHTTPClient, "githubBaseUrl", githubBaseUrl);
+    server.stop(0);
+    httpCacheEntryRepository.deleteAll();
+  }
+
+  @Test
+  public void testConditionalSearchRequest() throws IOException {
+    OffsetDateTime from = OffsetDateTime.parse("2025-01-01T00:00:00Z");
+    OffsetDateTime to = OffsetDateTime.parse("2025-02-01T00:00:00Z");
+    long hits = responseCache.getHits();
+    long bytesSaved = responseCache.getBytesSaved();
+
+    Response response = githubHTTPClient.sendSearchRequest("java", from, to, 1, 100);
+    Assert.assertEquals(response.getStatus(), 200);
+    Assert.assertEquals(response.getBody(), BODY);
+    githubHTTPClient.storeValidators(response.getValidators());
+    Assert.assertEquals(httpCacheEntryRepository.count(), 1);
+
+    // same page again is answered from validators
+    response = githubHTTPClient.sendSearchRequest("java", from, to, 1, 100);
+    Assert.assertEquals(response.getStatus(), 304);
+    Assert.assertEquals(conditionalRequests.get(), 1);
+    Assert.assertEquals(responseCache.getHits() - hits, 1);
+    Assert.assertEquals(responseCache.getBytesSaved() - bytesSaved, BODY.length());
+
+    // other page is not conditional, its validators are complete once body is read
+    response = githubHTTPClient.sendSearchRequest("java", from, to, 2, 100);
+    Assert.assertEquals(response.getStatus(), 200);
+    Assert.assertNull(response.getValidators());
+    Assert.assertEquals(response.getBody(), BODY);
+    Assert.assertEquals(response.getValidators().getEtag(), ETAG);
+    Assert.assertEquals(response.getValidators().getContentLength(), BODY.length());
+    githubHTTPClient.storeValidators(response.getValidators());
+    Assert.assertEquals(httpCacheEntryRepository.count(), 2);
+  }
+
+  @Test
+  public void testAsyncSearchRequests() throws Exception {
+    OffsetDateTime from = OffsetDateTime.parse("2025-01-01T00:00:00Z");
+    OffsetDateTime to = OffsetDateTime.parse("2025-02-01T00:00:00Z");
+
+    // all pages in flight together
+    List<CompletableFuture<Response>> responses = new ArrayList<>();
+    for (int page = 1; page <= 10; page++) {
+      responses.add(githubHTTPClient.sendSearchRequestAsync("java", from, to, page, 100, true));
+    }
+    for (CompletableFuture<Response> response : responses) {
+      Assert.assertEquals(response.get(10, TimeUnit.SECONDS).getStatus(), 200);
+      Assert.assertEquals(response.get().getBody(), BODY);
+      githubHTTPClient.storeValidators(response.get().getValidators());
+    }
+    Assert.assertEquals(httpCacheEntryRepository.count(), 10);
+
+    Response response = githubHTTPClient.sendSearchRequestAsync("java", from, to, 1, 100, true)
+            .get(10, TimeUnit.SECONDS);
+    Assert.assertEquals(response.getStatus(), 304);
+
+    // unconditional request ignores validators
+    response = githubHTTPClient.sendSearchRequestAsync("java", from, to, 1, 100, false).get(10, TimeUnit.SECONDS);
+    Assert.assertEquals(response.getStatus(), 200);
+    Assert.assertEquals(conditionalRequests.get(), 1);
+  }
+
+  @Test
+  public void testStreamedSearchResponseCached() throws Exception {
+    OffsetDateTime from = OffsetDateTime.parse("2025-01-01T00:00:00Z");
+    OffsetDateTime to = OffsetDateTime.parse("2025-02-01T00:00:00Z");
+
+    // body parsed straight off the connection as ingestion pipeline does
+    try (Response response = githubHTTPClient.sendSearchRequestAsync("java", from, to, 1, 100, true)
+            .get(10, TimeUnit.SECONDS)) {
+      Assert.assertEquals(response.getStatus(), 200);
+      Assert.assertTrue(dataMapper.toGithubRepo(response.getBodyStream(), new WeightedScoringStrategy()).isEmpty());
+      // validators are kept only once caller stored page content
+      Assert.assertEquals(httpCacheEntryRepository.count(), 0);
+      githubHTTPClient.storeValidators(response.getValidators());
+    }
+    Assert.assertEquals(httpCacheEntryRepository.count(), 1);
+
+    Response response = githubHTTPClient.sendSearchRequestAsync("java", from, to, 1, 100, true)
+            .get(10, TimeUnit.SECONDS);
+    Assert.assertEquals(response.getStatus(), 304);
+    Assert.assertEquals(conditionalRequests.get(), 1);
+  }
+
+  @Test
+  public void testValidatorsKeptOnlyForStoredPages() throws Exception {
+    SearchWindow window = new SearchWindow(OffsetDateTime.parse("2025-01-01T00:00:00Z"),
+            OffsetDateTime.parse("2025-02-01T00:00:00Z"));
+    IngestionSettings ingestionSettings = new IngestionSettings();
+    ingestionSettings.setFetchConcurrency(1);
+    ingestionSettings.setParseConcurrency(1);
+    ingestionSettings.setPersistConcurrency(1);
+    ingestionSettings.setQueueCapacity(1);
+
+    // page is not stored, its validators are not kept either
+    FailingIngestionService ingestionService = new FailingIngestionService();
+    new IngestionPipeline(ingestionService, githubHTTPClient, dataMapper, rateLimitBudget, ingestionMetrics,
+            ingestionSettings, new WeightedScoringStrategy())
+            .run(Collections.singletonList(new SearchPage("java", window, 1)));
+    Assert.assertEquals(ingestionService.persistAttempts.get(), 1);
+    Assert.assertEquals(httpCacheEntryRepository.count(), 0);
+
+    // next fetch of the page is not conditional, it is parsed and stored in full
+    ingestionService.failing = false;
+    new IngestionPipeline(ingestionService, githubHTTPClient, dataMapper, rateLimitBudget, ingestionMetrics,
+            ingestionSettings, new WeightedScoringStrategy())
+            .run(Collections.singletonList(new SearchPage("java", window, 1)));
+    Assert.assertEquals(conditionalRequests.get(), 0);
+    Assert.assertEquals(ingestionService.persistAttempts.get(), 2);
+    Assert.assertEquals(httpCacheEntryRepository.count(), 1);
+
+    // once stored, page is answered from validators
+    new IngestionPipeline(ingestionService, githubHTTPClient, dataMapper, rateLimitBudget, ingestionMetrics,
+            ingestionSettings, new WeightedScoringStrategy())
+            .run(Collections.singletonList(new SearchPage("java", window, 1)));
+    Assert.assertEquals(conditionalRequests.get(), 1);
+  }
+
+  private static class FailingIngestionService extends IngestionServiceImpl {
+
+    private AtomicInteger persistAttempts = new AtomicInteger();
+    private volatile boolean failing = true;
+
+    @Override
+    public int persistPage(String jobKey, int lastPage, List<GithubRepo> repos) {
+      persistAttempts.incrementAndGet();
+      if (failing) {
+        throw new IllegalStateException("Database unavailable.");
+      }
+      return repos.size();
+    }
+
+    @Override
+    public void deadLetterPage(String jobKey, int lastPage, DeadLetterPage deadLetterPage) {
+    }
+
+  }
+
+}
@@ -16,6 +16,7 @@
  */
 package org.github.popularity.repo;
 
+import com.fasterxml.jackson.core.JsonParseException;
 import org.github.popularity.dto.GithubRepoDTO;
 import org.github.popularity.dto.GithubSearchResponseDTO;
 import org.github.popularity.mapper.DataMapper;
@@ -30,9 +31,11 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -154,4 +157,63 @@ class DataMapperTests {
     }
   }
 
+  @Test
+  public void toGithubRepoStreamDataMapperTest() throws IOException {
+    Path filePath = Paths.get(getClass().getClassLoader().getResource(TEST_FILE).getPath());
+    String content = new String(Files.readAllBytes(Paths.get(filePath.toUri())));
+    List<GithubRepo> repos;
+    try (InputStream inputStream = Files.newInputStream(filePath)) {
+      repos = dataMapper.toGithubRepo(inputStream, new WeightedScoringStrategy());
+    }
+    List<GithubRepo> parsedRepos = dataMapper.toGithubRepo(content, new WeightedScoringStrategy());
+    Assert.assertEquals(repos.size(), 20);
+    for (int i = 0; i < repos.size(); i++) {
+      Assert.assertEquals(repos.get(i).getUrl(), urls.get(i));
+      Assert.assertEquals(repos.get(i).getFingerprint(), parsedRepos.get(i).getFingerprint());
+    }
+    try (InputStream inputStream = Files.newInputStream(filePath)) {
+      Assert.assertEquals(dataMapper.toTotalCount(inputStream).longValue(), 222223L);
+    }
+  }
+
+  @Test
+  public void toGithubRepoItemDataMapperTest() throws IOException {
+    String item = "{\"id\":1,\"owner\":{\"id\":2,\"language\":\"Go\"},\"topics\":[\"a\",{\"id\":3}],"
+            + "\"language\":\"Java\",\"clone_url\":\"https://github.com/a/b.git\",\"stargazers_count\":10,"
+            + "\"forks_count\":5,\"created_at\":\"2025-01-01T00:00:00Z\",\"pushed_at\":\"2025-02-01T00:00:00Z\"}";
+    long scoredTime = OffsetDateTime.parse("2025-03-01T00:00:00Z").toEpochSecond();
+    GithubRepo repo = dataMapper.toGithubRepoItem(item, new WeightedScoringStrategy(), scoredTime);
+    // nested objects are skipped
+    Assert.assertEquals(repo.getRepositoryId().longValue(), 1L);
+    Assert.assertEquals(repo.getLanguage(), "java");
+    Assert.assertEquals(repo.getStargazersCount().longValue(), 10L);
+    Assert.assertEquals(repo.getScoredDate(), scoredTime);
+    Assert.assertEquals(repo.getCreatedDate(), OffsetDateTime.parse("2025-01-01T00:00:00Z").toEpochSecond());
+    Assert.assertEquals(repo.getUpdatedDate(), OffsetDateTime.parse("2025-02-01T00:00:00Z").toEpochSecond());
+    Assert.assertNotNull(repo.getScore());
+
+    String missingField = item.replace(",\"pushed_at\":\"2025-02-01T00:00:00Z\"", "");
+    Assert.assertThrows(JsonParseException.class,
+            () -> dataMapper.toGithubRepoItem(missingField, new WeightedScoringStrategy(), scoredTime));
+  }
+
+  @Test
+  public void fingerprintDataMapperTest() throws IOException {
+    Path filePath = Paths.get(getClass().getClassLoader().getResource(TEST_FILE).getPath());
+    String content = new String(Files.readAllBytes(Paths.get(filePath.toUri())));
+    List<GithubRepo> repos = dataMapper.toGithubRepo(content, new WeightedScoringStrategy());
+    GithubRepo repo = repos.get(0);
+    long fingerprint = dataMapper.fingerprint(repo);
+    Assert.assertEquals(repo.getFingerprint().longValue(), fingerprint);
+    Assert.assertNotEquals(repos.get(1).getFingerprint(), repo.getFingerprint());
+
+    // derived score columns do not change fingerprint
+    repo.setScore(0.0);
+    repo.setScoredDate(repo.getScoredDate() + 1);
+    Assert.assertEquals(dataMapper.fingerprint(repo), fingerprint);
+
+    repo.setStargazersCount(repo.getStargazersCount() + 1);
+    Assert.assertNotEquals(dataMapper.fingerprint(repo), fingerprint);
+  }
+
 }
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.repo;
+
+import org.github.popularity.mapper.EpochTime;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Random;
+
+class EpochTimeTests {
+
+  private static final DateTimeFormatter GITHUB_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'");
+
+  @Test
+  public void testParseGithubTimestamp() {
+    Assert.assertEquals(EpochTime.parse("1970-01-01T00:00:00Z"), 0L);
+    Assert.assertEquals(EpochTime.parse("2024-02-29T23:59:59Z"),
+            OffsetDateTime.parse("2024-02-29T23:59:59Z").toEpochSecond());
+    Assert.assertEquals(EpochTime.parse("1969-12-31T23:59:59Z"), -1L);
+
+    // same result as OffsetDateTime over a wide range of dates
+    Random random = new Random(42);
+    for (int i = 0; i < 10000; i++) {
+      OffsetDateTime dateTime = OffsetDateTime.ofInstant(Instant.ofEpochSecond(
+              (long) (random.nextDouble() * 8_000_000_000L) - 2_000_000_000L), ZoneOffset.UTC);
+      String text = GITHUB_FORMAT.format(dateTime);
+      Assert.assertEquals(text, EpochTime.parse(text), dateTime.toEpochSecond());
+    }
+  }
+
+  @Test
+  public void testParseOtherIsoFormats() {
+    // other ISO-8601 forms fall back to OffsetDateTime parsing
+    Assert.assertEquals(EpochTime.parse("2025-01-01T02:00:00+02:00"),
+            OffsetDateTime.parse("2025-01-01T00:00:00Z").toEpochSecond());
+    Assert.assertEquals(EpochTime.parse("2025-01-01T00:00:00.500Z"),
+            OffsetDateTime.parse("2025-01-01T00:00:00Z").toEpochSecond());
+
+    Assert.assertThrows(DateTimeParseException.class, () -> EpochTime.parse("2025-02-30T00:00:00Z"));
+    Assert.assertThrows(DateTimeParseException.class, () -> EpochTime.parse("2025-0a-01T00:00:00Z"));
+  }
+
+  @Test
+  public void testToOffsetDateTime() {
+    OffsetDateTime dateTime = OffsetDateTime.parse("2025-03-01T10:15:30Z");
+    Assert.assertEquals(EpochTime.toOffsetDateTime(dateTime.toEpochSecond()), dateTime);
+  }
+
+}
@@ -17,6 +17,8 @@
 package org.github.popularity.repo;
 
 import org.github.popularity.mapper.DataMapper;
+import org.github.popularity.mapper.ScoreCursor;
+import org.github.popularity.mapper.SearchCursor;
 import org.github.popularity.model.GithubRepo;
 import org.github.popularity.scoring.WeightedScoringStrategy;
 import org.junit.Assert;
@@ -27,7 +29,10 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -35,7 +40,11 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest
@@ -45,16 +54,26 @@ class GithubRepoRepositoryTests {
   @Autowired
   private GithubRepository githubRepository;
   @Autowired
+  private LanguageDictionary languageDictionary;
+  @Autowired
   private DataMapper dataMapper;
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+  @Autowired
+  private LanguageCodeRepository languageCodeRepository;
+  @Autowired
+  private PlatformTransactionManager transactionManager;
 
   @BeforeEach
   public void setup() {
     githubRepository.deleteAll();;
+    githubRepository.repairCountRollups();
   }
 
   @AfterEach
   public void destroy() {
     githubRepository.deleteAll();;
+    githubRepository.repairCountRollups();
   }
 
   private static final String TEST_FILE = "test.json";
@@ -69,9 +88,12 @@ class GithubRepoRepositoryTests {
       githubRepository.save(repo);
     });
     Assert.assertEquals(githubRepository.count(), 20);
-    long repoCount = githubRepository.countGithubRepos("java", LocalDate.parse("2025-01-01").atStartOfDay()
-            .atOffset(ZoneOffset.UTC));
-    Assert.assertEquals(repoCount, 20);
+    // repos saved through JPA are counted once rollups are repaired
+    githubRepository.repairCountRollups();
+    GithubRepoPage page = githubRepository.fetchGithubRepoPage(languageDictionary.findCode("java"),
+            LocalDate.parse("2025-01-01").atStartOfDay().toEpochSecond(ZoneOffset.UTC), 10, 0);
+    Assert.assertEquals(page.getTotalCount(), 20);
+    Assert.assertEquals(page.getGithubRepos().size(), 10);
 
     // re parse test.json and see whether it matches with db
     List<GithubRepo> parsedRepos = dataMapper.toGithubRepo(content, new WeightedScoringStrategy());
@@ -85,10 +107,209 @@ class GithubRepoRepositoryTests {
       Assert.assertEquals(dbRepo.getStargazersCount(), repo.getStargazersCount());
       Assert.assertEquals(dbRepo.getForksCount(), repo.getForksCount());
     });
+  }
+
+  @Test
+  public void testGithubRepositoryUpsert() throws IOException {
+    Path filePath = Paths.get(getClass().getClassLoader().getResource(TEST_FILE).getPath());
+    String content = new String(Files.readAllBytes(Paths.get(filePath.toUri())));
+    List<GithubRepo> repos = dataMapper.toGithubRepo(content, new WeightedScoringStrategy());
+    // insert
+    Assert.assertEquals(githubRepository.upsertAll(repos), 20);
+    Assert.assertEquals(githubRepository.count(), 20);
+
+    // update existing rows keyed on repository id, no duplicates created
+    GithubRepo changedRepo = repos.get(0);
+    changedRepo.setStargazersCount(150000L);
+    changedRepo.setScore(50.0);
+    githubRepository.upsertAll(repos);
+    Assert.assertEquals(githubRepository.count(), 20);
+
+    // repeated repos are written once
+    List<GithubRepo> repeatedRepos = new ArrayList<>(repos);
+    repeatedRepos.addAll(repos.subList(0, 5));
+    Assert.assertEquals(githubRepository.upsertAll(repeatedRepos), 20);
+
+    GithubRepo dbRepo = githubRepository.findByRepositoryId(changedRepo.getRepositoryId());
+    Assert.assertEquals(dbRepo.getStargazersCount(), Long.valueOf(150000L));
+    Assert.assertEquals(dbRepo.getScore(), Double.valueOf(50.0));
+    Assert.assertEquals(dbRepo.getUrl(), changedRepo.getUrl());
+    Assert.assertEquals(dbRepo.getCreatedDate(), changedRepo.getCreatedDate());
+  }
+
+  @Test
+  public void testLanguageDictionary() throws IOException {
+    // supported languages are seeded at startup
+    Short javaCode = languageDictionary.findCode("java");
+    Assert.assertNotNull(javaCode);
+    Assert.assertEquals(languageDictionary.decode(javaCode), "java");
+    Assert.assertTrue(languageDictionary.isSupported("java"));
+    Assert.assertFalse(languageDictionary.isSupported("cobol"));
+    Assert.assertNull(languageDictionary.findCode("cobol"));
+
+    // other languages are added to dictionary when stored, but stay unsupported
+    Path filePath = Paths.get(getClass().getClassLoader().getResource(TEST_FILE).getPath());
+    String content = new String(Files.readAllBytes(Paths.get(filePath.toUri())));
+    List<GithubRepo> repos = dataMapper.toGithubRepo(content, new WeightedScoringStrategy());
+    GithubRepo cobolRepo = repos.get(0);
+    cobolRepo.setLanguage("cobol");
+    githubRepository.upsertAll(repos);
+    Short cobolCode = languageDictionary.findCode("cobol");
+    Assert.assertNotNull(cobolCode);
+    Assert.assertNotEquals(cobolCode, javaCode);
+    Assert.assertFalse(languageDictionary.isSupported("cobol"));
+    Assert.assertEquals(languageDictionary.encode("cobol"), cobolCode);
+    Assert.assertEquals(githubRepository.findByRepositoryId(cobolRepo.getRepositoryId()).getLanguage(), "cobol");
+    Assert.assertEquals(githubRepository.fetchGithubRepoPage(cobolCode, 0L, 1, 0).getTotalCount(), 1);
+    Assert.assertEquals(githubRepository.fetchGithubRepoPage(javaCode, 0L, 1, 0).getTotalCount(), 19);
+  }
+
+  @Test
+  public void testLanguageCodeKeptWhenCallerRollsBack() {
+    // code is committed on its own, language stays usable after caller transaction rolls back
+    Short fortranCode = new TransactionTemplate(transactionManager).execute(status -> {
+      status.setRollbackOnly();
+      return languageDictionary.encode("fortran");
+    });
+    Assert.assertNotNull(fortranCode);
+    Assert.assertEquals(languageDictionary.findCode("fortran"), fortranCode);
+    Assert.assertEquals(languageCodeRepository.findById(fortranCode).get().getName(), "fortran");
+  }
+
+  @Test
+  public void testGithubRepositorySeek() throws IOException {
+    Path filePath = Paths.get(getClass().getClassLoader().getResource(TEST_FILE).getPath());
+    String content = new String(Files.readAllBytes(Paths.get(filePath.toUri())));
+    List<GithubRepo> repos = dataMapper.toGithubRepo(content, new WeightedScoringStrategy());
+    // same created date for a few repos, order falls back to repository id
+    repos.get(1).setCreatedDate(repos.get(0).getCreatedDate());
+    repos.get(2).setCreatedDate(repos.get(0).getCreatedDate());
+    githubRepository.upsertAll(repos);
+    Short javaCode = languageDictionary.findCode("java");
+    long createdFrom = LocalDate.parse("2025-01-01").atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+
+    // seek pages match offset pages
+    List<GithubRepo> offsetPage = githubRepository.fetchGithubRepoPage(javaCode, createdFrom, 20, 0).getGithubRepos();
+    List<Long> seekIds = new ArrayList<>();
+    List<GithubRepo> seekPage = githubRepository.fetchGithubRepoPageAfter(javaCode, createdFrom, Long.MIN_VALUE,
+            Long.MIN_VALUE, 3).getGithubRepos();
+    while (!seekPage.isEmpty()) {
+      seekPage.forEach(repo -> seekIds.add(repo.getRepositoryId()));
+      SearchCursor cursor = SearchCursor.decode(SearchCursor.after(seekPage.get(seekPage.size() - 1)).encode());
+      seekPage = githubRepository.fetchGithubRepoPageAfter(javaCode, createdFrom, cursor.getCreatedDate(),
+              cursor.getRepositoryId(), 3).getGithubRepos();
+    }
+    Assert.assertEquals(seekIds, offsetPage.stream().map(GithubRepo::getRepositoryId).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void testGithubRepositoryPage() throws IOException {
+    Path filePath = Paths.get(getClass().getClassLoader().getResource(TEST_FILE).getPath());
+    String content = new String(Files.readAllBytes(Paths.get(filePath.toUri())));
+    List<GithubRepo> repos = dataMapper.toGithubRepo(content, new WeightedScoringStrategy());
+    githubRepository.upsertAll(repos);
+    short javaCode = languageDictionary.findCode("java");
+    long createdFrom = LocalDate.parse("2025-01-01").atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+
+    // created date ascending, ties broken on repository id, total count covers all pages
+    List<Long> expected = repos.stream()
+            .sorted(Comparator.comparing(GithubRepo::getCreatedDate).thenComparing(GithubRepo::getRepositoryId))
+            .map(GithubRepo::getRepositoryId)
+            .collect(Collectors.toList());
+    GithubRepoPage page = githubRepository.fetchGithubRepoPage(javaCode, createdFrom, 8, 4);
+    Assert.assertEquals(page.getTotalCount(), 20);
+    List<Long> repositoryIds = page.getGithubRepos().stream()
+            .map(GithubRepo::getRepositoryId).collect(Collectors.toList());
+    Assert.assertEquals(repositoryIds, expected.subList(4, 12));
+
+    GithubRepo last = page.getGithubRepos().get(7);
+    GithubRepoPage nextPage = githubRepository.fetchGithubRepoPageAfter(javaCode, createdFrom, last.getCreatedDate(),
+            last.getRepositoryId(), 8);
+    Assert.assertEquals(nextPage.getTotalCount(), 20);
+    repositoryIds = nextPage.getGithubRepos().stream().map(GithubRepo::getRepositoryId).collect(Collectors.toList());
+    Assert.assertEquals(repositoryIds, expected.subList(12, 20));
+
+    // count is still read when page is past last repo
+    page = githubRepository.fetchGithubRepoPage(javaCode, createdFrom, 8, 40);
+    Assert.assertEquals(page.getTotalCount(), 20);
+    Assert.assertTrue(page.getGithubRepos().isEmpty());
+    page = githubRepository.fetchGithubRepoPage(javaCode, Long.MAX_VALUE, 8, 0);
+    Assert.assertEquals(page.getTotalCount(), 0);
+    Assert.assertTrue(page.getGithubRepos().isEmpty());
+  }
+
+  @Test
+  public void testGithubRepositoryTopPage() throws IOException {
+    Path filePath = Paths.get(getClass().getClassLoader().getResource(TEST_FILE).getPath());
+    String content = new String(Files.readAllBytes(Paths.get(filePath.toUri())));
+    List<GithubRepo> repos = dataMapper.toGithubRepo(content, new WeightedScoringStrategy());
+    githubRepository.upsertAll(repos);
+    short javaCode = languageDictionary.findCode("java");
+    long createdFrom = LocalDate.parse("2025-01-01").atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+
+    // score descending, ties broken on repository id
+    List<Long> expected = repos.stream()
+            .sorted(Comparator.comparing(GithubRepo::getScore).reversed()
+                    .thenComparing(GithubRepo::getRepositoryId))
+            .map(GithubRepo::getRepositoryId)
+            .collect(Collectors.toList());
+    GithubRepoPage page = githubRepository.fetchTopGithubRepoPage(javaCode, createdFrom, 8);
+    Assert.assertEquals(page.getTotalCount(), 20);
+    List<Long> repositoryIds = page.getGithubRepos().stream()
+            .map(GithubRepo::getRepositoryId).collect(Collectors.toList());
+    Assert.assertEquals(repositoryIds, expected.subList(0, 8));
+
+    // seek past last repo of previous page
+    GithubRepo last = page.getGithubRepos().get(7);
+    ScoreCursor cursor = ScoreCursor.decode(ScoreCursor.after(last).encode());
+    page = githubRepository.fetchTopGithubRepoPageAfter(javaCode, createdFrom, cursor.getScore(),
+            cursor.getRepositoryId(), 20);
+    repositoryIds = page.getGithubRepos().stream().map(GithubRepo::getRepositoryId).collect(Collectors.toList());
+    Assert.assertEquals(repositoryIds, expected.subList(8, 20));
+
+    // created date bound is applied before top repos are picked
+    page = githubRepository.fetchTopGithubRepoPage(javaCode, Long.MAX_VALUE, 8);
+    Assert.assertEquals(page.getTotalCount(), 0);
+    Assert.assertTrue(page.getGithubRepos().isEmpty());
+  }
+
+  @Test
+  public void testCountRollups() throws IOException {
+    Path filePath = Paths.get(getClass().getClassLoader().getResource(TEST_FILE).getPath());
+    String content = new String(Files.readAllBytes(Paths.get(filePath.toUri())));
+    List<GithubRepo> repos = dataMapper.toGithubRepo(content, new WeightedScoringStrategy());
+    short javaCode = languageDictionary.findCode("java");
+    long createdFrom = LocalDate.parse("2025-01-01").atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+
+    // upserting same repos again does not count them twice
+    githubRepository.upsertAll(repos);
+    githubRepository.upsertAll(repos);
+    Assert.assertEquals(githubRepository.fetchGithubRepoPage(javaCode, createdFrom, 1, 0).getTotalCount(), 20);
+
+    // repo moved to another language is counted under new language only
+    GithubRepo movedRepo = repos.get(0);
+    movedRepo.setLanguage("python");
+    githubRepository.upsertAll(Collections.singletonList(movedRepo));
+    short pythonCode = languageDictionary.findCode("python");
+    Assert.assertEquals(githubRepository.fetchGithubRepoPage(javaCode, createdFrom, 1, 0).getTotalCount(), 19);
+    Assert.assertEquals(githubRepository.fetchGithubRepoPage(pythonCode, createdFrom, 1, 0).getTotalCount(), 1);
+
+    // repos deleted and updated through JPA are counted once rollups are repaired
+    githubRepository.delete(githubRepository.findByRepositoryId(repos.get(1).getRepositoryId()));
+    GithubRepo updatedRepo = githubRepository.findByRepositoryId(repos.get(2).getRepositoryId());
+    updatedRepo.setLanguage("python");
+    githubRepository.save(updatedRepo);
+    Assert.assertEquals(githubRepository.fetchGithubRepoPage(javaCode, createdFrom, 1, 0).getTotalCount(), 19);
+    Assert.assertTrue(githubRepository.repairCountRollups() > 0);
+    Assert.assertEquals(githubRepository.fetchGithubRepoPage(javaCode, createdFrom, 1, 0).getTotalCount(), 17);
+    Assert.assertEquals(githubRepository.fetchGithubRepoPage(pythonCode, createdFrom, 1, 0).getTotalCount(), 2);
 
-    List<GithubRepo> paginatedList = githubRepository.fetchGithubRepos("java", LocalDate.parse("2025-01-01").atStartOfDay()
-            .atOffset(ZoneOffset.UTC), 10, 0);
-    Assert.assertEquals(paginatedList.size(), 10);
+    // rollups which drifted from stored repos are repaired
+    Assert.assertEquals(githubRepository.repairCountRollups(), 0);
+    jdbcTemplate.update("UPDATE repo_count_rollup SET repo_count = repo_count + 5 WHERE language = ?", javaCode);
+    Assert.assertTrue(githubRepository.repairCountRollups() > 0);
+    Assert.assertEquals(githubRepository.fetchGithubRepoPage(javaCode, createdFrom, 1, 0).getTotalCount(), 17);
+    Assert.assertEquals(githubRepository.repairCountRollups(), 0);
   }
 
 }
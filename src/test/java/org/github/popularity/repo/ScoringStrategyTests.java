@@ -61,4 +61,75 @@ class ScoringStrategyTests {
     Assert.assertEquals(score, Double.valueOf(0));
   }
 
+  @Test
+  public void scoringStrategyValidUntil() {
+    ScoringStrategy scoringStrategy = new WeightedScoringStrategy();
+    OffsetDateTime lastUpdated = OffsetDateTime.parse("2025-01-01T10:00:00Z");
+
+    // score drops when days since last update goes past 28
+    OffsetDateTime validUntil = scoringStrategy.scoreValidUntil(10L, 10L, lastUpdated, lastUpdated.plusDays(5));
+    Assert.assertEquals(validUntil, lastUpdated.plusDays(29));
+    Assert.assertEquals(scoringStrategy.score(10L, 10L, lastUpdated, validUntil.minusSeconds(1)),
+            scoringStrategy.score(10L, 10L, lastUpdated, lastUpdated.plusDays(5)));
+    Assert.assertNotEquals(scoringStrategy.score(10L, 10L, lastUpdated, validUntil),
+            scoringStrategy.score(10L, 10L, lastUpdated, lastUpdated.plusDays(5)));
+
+    // then when it goes past 56
+    validUntil = scoringStrategy.scoreValidUntil(10L, 10L, lastUpdated, lastUpdated.plusDays(30));
+    Assert.assertEquals(validUntil, lastUpdated.plusDays(57));
+
+    // no more changes afterwards
+    Assert.assertNull(scoringStrategy.scoreValidUntil(10L, 10L, lastUpdated, lastUpdated.plusDays(60)));
+  }
+
+
+  @Test
+  public void scoringStrategyBatch() {
+    ScoringStrategy scoringStrategy = new WeightedScoringStrategy();
+    long day = 86400;
+    long scoredDate = OffsetDateTime.parse("2025-06-01T00:00:00Z").toEpochSecond();
+    long[] counts = {0, 1, 99, 100, 499, 500, 999, 1000, 99999, 100000, 5000000};
+    long[] ages = {-day, 0, 28 * day, 29 * day - 1, 29 * day, 56 * day, 57 * day - 1, 57 * day, 400 * day};
+
+    int length = counts.length * counts.length * ages.length;
+    long[] stargazersCounts = new long[length];
+    long[] forksCounts = new long[length];
+    long[] lastUpdated = new long[length];
+    int i = 0;
+    for (long stargazersCount : counts) {
+      for (long forksCount : counts) {
+        for (long age : ages) {
+          stargazersCounts[i] = stargazersCount;
+          forksCounts[i] = forksCount;
+          lastUpdated[i] = scoredDate - age;
+          i++;
+        }
+      }
+    }
+    double[] scores = new double[length + 1];
+    scoringStrategy.score(stargazersCounts, forksCounts, lastUpdated, scoredDate, scores, length);
+    long[] scoreValidUntil = new long[length];
+    scoringStrategy.scoreValidUntil(stargazersCounts, forksCounts, lastUpdated, scoredDate, scoreValidUntil, length);
+
+    // same scores as per repo method and as if/else level rules
+    for (i = 0; i < length; i++) {
+      Assert.assertEquals(scores[i], scoringStrategy.score(stargazersCounts[i], forksCounts[i], lastUpdated[i],
+              scoredDate), 0.0);
+      Assert.assertEquals(scores[i], expectedScore(stargazersCounts[i], forksCounts[i],
+              (scoredDate - lastUpdated[i]) / day), 0.0);
+      Assert.assertEquals(scoreValidUntil[i], scoringStrategy.scoreValidUntil(stargazersCounts[i], forksCounts[i],
+              lastUpdated[i], scoredDate));
+    }
+    // only given length is filled
+    Assert.assertEquals(scores[length], 0.0, 0.0);
+  }
+
+  private double expectedScore(long stargazersCount, long forksCount, long daysSinceLastUpdate) {
+    int stargazersPoints = stargazersCount >= 100000 ? 4 : stargazersCount >= 1000 ? 3
+            : stargazersCount >= 100 ? 2 : stargazersCount > 0 ? 1 : 0;
+    int forksPoints = forksCount >= 1000 ? 4 : forksCount >= 500 ? 3 : forksCount >= 100 ? 2 : forksCount > 0 ? 1 : 0;
+    int lastUpdatedPoints = daysSinceLastUpdate <= 28 ? 2 : daysSinceLastUpdate <= 56 ? 1 : 0;
+    return (4.0 * stargazersPoints + 4.0 * forksPoints + 2.0 * lastUpdatedPoints) / 36 * 100;
+  }
+
 }
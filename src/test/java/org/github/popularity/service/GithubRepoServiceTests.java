@@ -20,6 +20,7 @@ import org.github.popularity.dto.GithubSearchResponseDTO;
 import org.github.popularity.mapper.DataMapper;
 import org.github.popularity.model.GithubRepo;
 import org.github.popularity.repo.GithubRepository;
+import org.github.popularity.repo.LanguageDictionary;
 import org.github.popularity.scoring.WeightedScoringStrategy;
 import org.junit.Assert;
 import org.junit.jupiter.api.AfterEach;
@@ -47,6 +48,8 @@ class GithubRepoServiceTests {
   @Autowired
   private GithubRepository githubRepository;
   @Autowired
+  private LanguageDictionary languageDictionary;
+  @Autowired
   private DataMapper dataMapper;
   @Autowired
   private GithubRepoDataService githubRepoDataService;
@@ -73,8 +76,10 @@ class GithubRepoServiceTests {
       githubRepository.save(repo);
     });
     Assert.assertEquals(githubRepository.count(), 20);
-    long repoCount = githubRepository.countGithubRepos("java", LocalDate.parse("2025-01-01").atStartOfDay()
-            .atOffset(ZoneOffset.UTC));
+    // repos saved through JPA are counted once rollups are repaired
+    githubRepository.repairCountRollups();
+    long repoCount = githubRepository.fetchGithubRepoPage(languageDictionary.findCode("java"),
+            LocalDate.parse("2025-01-01").atStartOfDay().toEpochSecond(ZoneOffset.UTC), 1, 0).getTotalCount();
     Assert.assertEquals(repoCount, 20);
 
     GithubSearchResponseDTO responseDTO = githubRepoDataService.searchFromDatabase("java",
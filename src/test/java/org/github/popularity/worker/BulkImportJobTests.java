@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.worker;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.github.popularity.mapper.DataMapper;
+import org.github.popularity.repo.GithubRepository;
+import org.github.popularity.scoring.WeightedScoringStrategy;
+import org.github.popularity.service.IngestionService;
+import org.junit.Assert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+class BulkImportJobTests {
+
+  private static final String TEST_FILE = "test.json";
+
+  @Autowired
+  private GithubRepository githubRepository;
+  @Autowired
+  private IngestionService ingestionService;
+  @Autowired
+  private DataMapper dataMapper;
+
+  @TempDir
+  Path tempDir;
+
+  @BeforeEach
+  public void setup() {
+    githubRepository.deleteAll();
+    githubRepository.repairCountRollups();
+  }
+
+  @AfterEach
+  public void destroy() {
+    githubRepository.deleteAll();
+    githubRepository.repairCountRollups();
+  }
+
+  @Test
+  public void testBulkImportGzipDump() throws Exception {
+    Path filePath = Paths.get(getClass().getClassLoader().getResource(TEST_FILE).getPath());
+    JsonNode root = new ObjectMapper().readTree(Files.readAllBytes(Paths.get(filePath.toUri())));
+    Path dump = tempDir.resolve("repos.ndjson.gz");
+    try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(dump)),
+            StandardCharsets.UTF_8)) {
+      for (JsonNode item : root.get("items")) {
+        writer.write(item.toString());
+        writer.write("\n");
+      }
+      writer.write("\n");
+      writer.write("{\"id\": 1, \"broken\": \n");
+    }
+
+    BulkImportJob bulkImportJob = new BulkImportJob(ingestionService, dataMapper, new WeightedScoringStrategy(), 2, 3);
+    BulkImportResult result = bulkImportJob.run(dump);
+    Assert.assertEquals(result.getRecords(), 20);
+    Assert.assertEquals(result.getWritten(), 20);
+    Assert.assertEquals(result.getFailedLines(), 1);
+    Assert.assertTrue(result.getRecordsPerSecond() > 0);
+    Assert.assertEquals(githubRepository.count(), 20);
+
+    // same dump again, every record matches stored fingerprint
+    result = bulkImportJob.run(dump);
+    Assert.assertEquals(result.getRecords(), 20);
+    Assert.assertEquals(result.getWritten(), 0);
+    Assert.assertEquals(githubRepository.count(), 20);
+  }
+
+  @Test
+  public void testBulkImportWorkerFailure() throws Exception {
+    Path filePath = Paths.get(getClass().getClassLoader().getResource(TEST_FILE).getPath());
+    JsonNode root = new ObjectMapper().readTree(Files.readAllBytes(Paths.get(filePath.toUri())));
+    Path dump = tempDir.resolve("repos.ndjson");
+    try (Writer writer = new OutputStreamWriter(Files.newOutputStream(dump), StandardCharsets.UTF_8)) {
+      // more chunks than queue and workers hold, reader must not wait for failed workers
+      for (int i = 0; i < 10; i++) {
+        for (JsonNode item : root.get("items")) {
+          writer.write(item.toString());
+          writer.write("\n");
+        }
+      }
+    }
+
+    WeightedScoringStrategy failingStrategy = new WeightedScoringStrategy() {
+      @Override
+      public double score(long stargazersCount, long forksCount, long lastUpdated, long scoredDate) {
+        throw new AssertionError("scoring failed");
+      }
+    };
+    BulkImportJob bulkImportJob = new BulkImportJob(ingestionService, dataMapper, failingStrategy, 2, 3);
+    IllegalStateException ex = Assert.assertThrows(IllegalStateException.class, () -> bulkImportJob.run(dump));
+    Assert.assertTrue(ex.getCause() instanceof AssertionError);
+    Assert.assertEquals(githubRepository.count(), 0);
+  }
+
+  @Test
+  public void testBulkImportJobPausedAndCancelled() throws Exception {
+    Path filePath = Paths.get(getClass().getClassLoader().getResource(TEST_FILE).getPath());
+    JsonNode root = new ObjectMapper().readTree(Files.readAllBytes(Paths.get(filePath.toUri())));
+    Path dump = tempDir.resolve("repos.ndjson");
+    try (Writer writer = new OutputStreamWriter(Files.newOutputStream(dump), StandardCharsets.UTF_8)) {
+      for (JsonNode item : root.get("items")) {
+        writer.write(item.toString());
+        writer.write("\n");
+      }
+    }
+
+    // paused job reads no chunk
+    IngestionJob ingestionJob = new IngestionJob(1, "repos.ndjson", 2);
+    ingestionJob.pause();
+    BulkImportJob bulkImportJob = new BulkImportJob(ingestionService, dataMapper, new WeightedScoringStrategy(), 2, 3,
+            ingestionJob);
+    ExecutorService executorService = Executors.newSingleThreadExecutor();
+    try {
+      Future<BulkImportResult> future = executorService.submit(() -> bulkImportJob.run(dump));
+      Thread.sleep(500);
+      Assert.assertFalse(future.isDone());
+      Assert.assertEquals(githubRepository.count(), 0);
+
+      // cancelled job is interrupted while paused
+      future.cancel(true);
+      executorService.shutdown();
+      Assert.assertTrue(executorService.awaitTermination(10, TimeUnit.SECONDS));
+      Assert.assertEquals(githubRepository.count(), 0);
+    } finally {
+      executorService.shutdownNow();
+    }
+
+    // resumed job imports the whole file, progress is tracked on the job
+    ingestionJob.resume();
+    BulkImportResult result = bulkImportJob.run(dump);
+    Assert.assertEquals(result.getRecords(), 20);
+    Assert.assertEquals(ingestionJob.getPagesDone(), 7);
+    Assert.assertEquals(ingestionJob.getReposIngested(), 20);
+    Assert.assertEquals(ingestionJob.getFailedLines(), 0);
+    Assert.assertEquals(githubRepository.count(), 20);
+  }
+
+}
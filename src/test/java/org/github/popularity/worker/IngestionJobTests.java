@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.worker;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+
+class IngestionJobTests {
+
+  @Test
+  public void testIngestionJobPauseResume() throws InterruptedException {
+    IngestionJob ingestionJob = new IngestionJob(1, "java", OffsetDateTime.parse("2025-01-01T00:00:00Z"), null, null);
+    Assert.assertEquals(ingestionJob.getStatus(), IngestionJob.Status.QUEUED);
+    ingestionJob.started();
+    ingestionJob.pagesPlanned(4);
+    ingestionJob.pause();
+    Assert.assertEquals(ingestionJob.getStatus(), IngestionJob.Status.PAUSED);
+    Assert.assertTrue(ingestionJob.isActive());
+
+    // fetch thread blocks while job is paused
+    Thread thread = new Thread(() -> {
+      try {
+        ingestionJob.awaitResumed();
+        ingestionJob.pageDone(100);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    thread.start();
+    thread.join(TimeUnit.MILLISECONDS.toMillis(200));
+    Assert.assertTrue(thread.isAlive());
+    Assert.assertEquals(ingestionJob.getPagesDone(), 0);
+    Assert.assertNull(ingestionJob.getEtaSeconds());
+
+    ingestionJob.resume();
+    thread.join(TimeUnit.SECONDS.toMillis(10));
+    Assert.assertEquals(ingestionJob.getStatus(), IngestionJob.Status.RUNNING);
+    Assert.assertEquals(ingestionJob.getPagesDone(), 1);
+    Assert.assertEquals(ingestionJob.getReposIngested(), 100);
+    Assert.assertNotNull(ingestionJob.getEtaSeconds());
+  }
+
+  @Test
+  public void testIngestionJobCancel() {
+    IngestionJob ingestionJob = new IngestionJob(1, "java", OffsetDateTime.parse("2025-01-01T00:00:00Z"), null, null);
+    ingestionJob.started();
+    ingestionJob.pause();
+    ingestionJob.cancelRequested();
+    // interrupted job winds down normally, still reported as cancelled
+    ingestionJob.finished(IngestionJob.Status.COMPLETED);
+    Assert.assertEquals(ingestionJob.getStatus(), IngestionJob.Status.CANCELLED);
+    Assert.assertFalse(ingestionJob.isActive());
+    Assert.assertNull(ingestionJob.getEtaSeconds());
+  }
+
+}
@@ -0,0 +1,531 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.worker;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.github.popularity.client.Client;
+import org.github.popularity.client.Response;
+import org.github.popularity.mapper.DataMapper;
+import org.github.popularity.model.DeadLetterPage;
+import org.github.popularity.model.IngestionCheckpoint;
+import org.github.popularity.repo.DeadLetterPageRepository;
+import org.github.popularity.repo.GithubRepository;
+import org.github.popularity.repo.IngestionCheckpointRepository;
+import org.github.popularity.scoring.WeightedScoringStrategy;
+import org.github.popularity.service.IngestionService;
+import org.junit.Assert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+class IngestionPipelineTests {
+
+  @Autowired
+  private GithubRepository githubRepository;
+  @Autowired
+  private IngestionCheckpointRepository ingestionCheckpointRepository;
+  @Autowired
+  private DeadLetterPageRepository deadLetterPageRepository;
+  @Autowired
+  private IngestionService ingestionService;
+  @Autowired
+  private DataMapper dataMapper;
+  @Autowired
+  private RateLimitBudget rateLimitBudget;
+  @Autowired
+  private IngestionMetrics ingestionMetrics;
+
+  @BeforeEach
+  public void setup() {
+    githubRepository.deleteAll();
+    githubRepository.repairCountRollups();
+    ingestionCheckpointRepository.deleteAll();
+    deadLetterPageRepository.deleteAll();
+  }
+
+  @AfterEach
+  public void destroy() {
+    githubRepository.deleteAll();
+    githubRepository.repairCountRollups();
+    ingestionCheckpointRepository.deleteAll();
+    deadLetterPageRepository.deleteAll();
+  }
+
+  private static final String TEST_FILE = "test.json";
+
+  @Test
+  public void testIngestionPipeline() throws Exception {
+    Path filePath = Paths.get(getClass().getClassLoader().getResource(TEST_FILE).getPath());
+    String content = new String(Files.readAllBytes(Paths.get(filePath.toUri())));
+    AtomicInteger requestCount = new AtomicInteger();
+    Client client = new TestClient(content, requestCount);
+
+    IngestionSettings ingestionSettings = new IngestionSettings();
+    ingestionSettings.setFetchConcurrency(3);
+    ingestionSettings.setParseConcurrency(2);
+    ingestionSettings.setPersistConcurrency(2);
+    // smallest queues so that stages block on each other
+    ingestionSettings.setQueueCapacity(1);
+
+    SearchWindow window = new SearchWindow(OffsetDateTime.parse("2025-01-01T00:00:00Z"),
+            OffsetDateTime.parse("2025-03-01T00:00:00Z"));
+    List<SearchPage> pages = new ArrayList<>();
+    for (int page = 0; page < 10; page++) {
+      pages.add(new SearchPage("java", window, page));
+    }
+    long pagesFetched = ingestionMetrics.getPagesFetched();
+    long reposIngested = ingestionMetrics.getReposIngested();
+    IngestionJob ingestionJob = new IngestionJob(1, "java", window.getStart(), window.getEnd(), 3);
+    ingestionJob.started();
+    ingestionJob.pagesPlanned(pages.size());
+    new IngestionPipeline(ingestionService, client, dataMapper, rateLimitBudget, ingestionMetrics,
+            ingestionSettings, new WeightedScoringStrategy(), ingestionJob).run(pages);
+
+    Assert.assertEquals(requestCount.get(), 10);
+    Assert.assertEquals(ingestionMetrics.getPagesFetched() - pagesFetched, 10);
+    Assert.assertEquals(ingestionMetrics.getReposIngested() - reposIngested, 200);
+    // job progress follows persisted pages
+    Assert.assertEquals(ingestionJob.getPagesDone(), 10);
+    Assert.assertEquals(ingestionJob.getReposIngested(), 200);
+    Assert.assertEquals(ingestionJob.getEtaSeconds().longValue(), 0);
+    // every page returns same repositories, upsert keeps them unique
+    Assert.assertEquals(githubRepository.count(), 20);
+  }
+
+  @Test
+  public void testIngestionPipelineUnchangedRows() throws Exception {
+    Path filePath = Paths.get(getClass().getClassLoader().getResource(TEST_FILE).getPath());
+    String content = new String(Files.readAllBytes(Paths.get(filePath.toUri())));
+    AtomicInteger requestCount = new AtomicInteger();
+    Client client = new TestClient(content, requestCount);
+    IngestionSettings ingestionSettings = new IngestionSettings();
+    ingestionSettings.setFetchConcurrency(1);
+    ingestionSettings.setParseConcurrency(1);
+    ingestionSettings.setPersistConcurrency(1);
+    ingestionSettings.setQueueCapacity(1);
+
+    SearchWindow window = new SearchWindow(OffsetDateTime.parse("2025-01-01T00:00:00Z"),
+            OffsetDateTime.parse("2025-03-01T00:00:00Z"));
+    List<SearchPage> pages = new ArrayList<>();
+    for (int page = 0; page < 3; page++) {
+      pages.add(new SearchPage("java", window, page));
+    }
+    long unchangedRowsSkipped = ingestionMetrics.getUnchangedRowsSkipped();
+    new IngestionPipeline(ingestionService, client, dataMapper, rateLimitBudget, ingestionMetrics,
+            ingestionSettings, new WeightedScoringStrategy()).run(pages);
+
+    // every page returns same repositories, only first page writes them
+    Assert.assertEquals(ingestionMetrics.getUnchangedRowsSkipped() - unchangedRowsSkipped, 40);
+    Assert.assertEquals(githubRepository.count(), 20);
+    githubRepository.findAll().forEach(repo -> Assert.assertNotNull(repo.getFingerprint()));
+  }
+
+  @Test
+  public void testIngestionPipelineCheckpoint() throws Exception {
+    Path filePath = Paths.get(getClass().getClassLoader().getResource(TEST_FILE).getPath());
+    String content = new String(Files.readAllBytes(Paths.get(filePath.toUri())));
+    AtomicInteger requestCount = new AtomicInteger();
+    Client client = new TestClient(content, requestCount);
+
+    IngestionSettings ingestionSettings = new IngestionSettings();
+    ingestionSettings.setFetchConcurrency(2);
+    ingestionSettings.setParseConcurrency(2);
+    ingestionSettings.setPersistConcurrency(3);
+    ingestionSettings.setQueueCapacity(2);
+
+    SearchWindow window = new SearchWindow(OffsetDateTime.parse("2025-01-01T00:00:00Z"),
+            OffsetDateTime.parse("2025-03-01T00:00:00Z"));
+    IngestionCheckpoint checkpoint = ingestionService.startCheckpoint("java", window.getStart(), window.getEnd(), 1000L);
+    Assert.assertEquals(checkpoint.getLastPage(), Integer.valueOf(-1));
+
+    // pages 0 to 4 stored, simulate a stop
+    CheckpointTracker checkpointTracker = new CheckpointTracker(checkpoint.getJobKey(), checkpoint.getLastPage(), 10);
+    List<SearchPage> pages = new ArrayList<>();
+    for (int page = 0; page < 5; page++) {
+      SearchPage searchPage = new SearchPage("java", window, page);
+      searchPage.setCheckpointTracker(checkpointTracker);
+      pages.add(searchPage);
+    }
+    new IngestionPipeline(ingestionService, client, dataMapper, rateLimitBudget, ingestionMetrics,
+            ingestionSettings, new WeightedScoringStrategy()).run(pages);
+    Assert.assertEquals(checkpointTracker.getLastPage(), 4);
+    ingestionService.advanceCheckpoint(checkpoint.getJobKey(), checkpointTracker.getLastPage());
+
+    // restarted job resumes after last stored page
+    Assert.assertFalse(checkpointTracker.isCompleted());
+    Assert.assertEquals(ingestionService.findOpenWindows("java", window.getStart()).size(), 1);
+    IngestionCheckpoint resumed = ingestionService.startCheckpoint("java", window.getStart(), window.getEnd(), null);
+    Assert.assertEquals(resumed.getJobKey(), checkpoint.getJobKey());
+    Assert.assertEquals(resumed.getLastPage(), Integer.valueOf(4));
+    Assert.assertNotNull(resumed.getLastPushedAt());
+    Assert.assertFalse(resumed.getCompleted());
+    Assert.assertEquals(resumed.getTotalCount(), Long.valueOf(1000L));
+
+    // completed job starts over on next run
+    ingestionService.completeCheckpoint(checkpoint.getJobKey());
+    Assert.assertTrue(ingestionService.findOpenWindows("java", window.getStart()).isEmpty());
+    IngestionCheckpoint restarted = ingestionService.startCheckpoint("java", window.getStart(), window.getEnd(), null);
+    Assert.assertEquals(restarted.getLastPage(), Integer.valueOf(-1));
+  }
+
+  @Test
+  public void testIngestionPipelineUnchangedPages() throws Exception {
+    AtomicInteger requestCount = new AtomicInteger();
+    Client client = new TestClient("", requestCount, 304);
+
+    IngestionSettings ingestionSettings = new IngestionSettings();
+    ingestionSettings.setFetchConcurrency(2);
+    ingestionSettings.setParseConcurrency(1);
+    ingestionSettings.setPersistConcurrency(1);
+    ingestionSettings.setQueueCapacity(2);
+
+    SearchWindow window = new SearchWindow(OffsetDateTime.parse("2025-01-01T00:00:00Z"),
+            OffsetDateTime.parse("2025-03-01T00:00:00Z"));
+    IngestionCheckpoint checkpoint = ingestionService.startCheckpoint("java", window.getStart(), window.getEnd(), 300L);
+    CheckpointTracker checkpointTracker = new CheckpointTracker(checkpoint.getJobKey(), checkpoint.getLastPage(), 3);
+    List<SearchPage> pages = new ArrayList<>();
+    for (int page = 0; page < 3; page++) {
+      SearchPage searchPage = new SearchPage("java", window, page);
+      searchPage.setCheckpointTracker(checkpointTracker);
+      pages.add(searchPage);
+    }
+    long unchangedPages = ingestionMetrics.getUnchangedPages();
+    long failedPages = ingestionMetrics.getFailedPages();
+    new IngestionPipeline(ingestionService, client, dataMapper, rateLimitBudget, ingestionMetrics,
+            ingestionSettings, new WeightedScoringStrategy()).run(pages);
+
+    // nothing parsed or stored, window still completes
+    Assert.assertEquals(ingestionMetrics.getUnchangedPages() - unchangedPages, 3);
+    Assert.assertEquals(ingestionMetrics.getFailedPages() - failedPages, 0);
+    Assert.assertEquals(githubRepository.count(), 0);
+    Assert.assertTrue(checkpointTracker.isCompleted());
+    Assert.assertTrue(ingestionService.findOpenWindows("java", window.getStart()).isEmpty());
+  }
+
+  @Test
+  public void testIngestionPipelineDeadLetterPages() throws Exception {
+    AtomicInteger requestCount = new AtomicInteger();
+    Client client = new TestClient("", requestCount, 500);
+
+    IngestionSettings ingestionSettings = new IngestionSettings();
+    ingestionSettings.setFetchConcurrency(2);
+    ingestionSettings.setParseConcurrency(1);
+    ingestionSettings.setPersistConcurrency(1);
+    ingestionSettings.setQueueCapacity(2);
+    ingestionSettings.setRetryMaxAttempts(3);
+    ingestionSettings.setRetryBaseDelayMillis(1L);
+    ingestionSettings.setRetryMaxDelayMillis(4L);
+
+    SearchWindow window = new SearchWindow(OffsetDateTime.parse("2025-01-01T00:00:00Z"),
+            OffsetDateTime.parse("2025-03-01T00:00:00Z"));
+    IngestionCheckpoint checkpoint = ingestionService.startCheckpoint("java", window.getStart(), window.getEnd(), 200L);
+    CheckpointTracker checkpointTracker = new CheckpointTracker(checkpoint.getJobKey(), checkpoint.getLastPage(), 2);
+    List<SearchPage> pages = new ArrayList<>();
+    for (int page = 0; page < 2; page++) {
+      SearchPage searchPage = new SearchPage("java", window, page);
+      searchPage.setCheckpointTracker(checkpointTracker);
+      pages.add(searchPage);
+    }
+    long retriedRequests = ingestionMetrics.getRetriedRequests();
+    new IngestionPipeline(ingestionService, client, dataMapper, rateLimitBudget, ingestionMetrics,
+            ingestionSettings, new WeightedScoringStrategy()).run(pages);
+
+    // every page retried, then dead lettered, window completes regardless
+    Assert.assertEquals(requestCount.get(), 6);
+    Assert.assertEquals(ingestionMetrics.getRetriedRequests() - retriedRequests, 4);
+    Assert.assertTrue(checkpointTracker.isCompleted());
+    Assert.assertTrue(ingestionService.findOpenWindows("java", window.getStart()).isEmpty());
+    List<DeadLetterPage> deadLetterPages = ingestionService.findDeadLetterPages("java");
+    Assert.assertEquals(deadLetterPages.size(), 2);
+    Assert.assertEquals(deadLetterPages.get(0).getStatus(), Integer.valueOf(500));
+    Assert.assertEquals(deadLetterPages.get(0).getAttempts(), Integer.valueOf(1));
+
+    // later run drains dead letter pages
+    Path filePath = Paths.get(getClass().getClassLoader().getResource(TEST_FILE).getPath());
+    String content = new String(Files.readAllBytes(Paths.get(filePath.toUri())));
+    List<SearchPage> retryPages = new ArrayList<>();
+    for (DeadLetterPage deadLetterPage : deadLetterPages) {
+      SearchPage searchPage = new SearchPage("java", new SearchWindow(deadLetterPage.getWindowStart(),
+              deadLetterPage.getWindowEnd()), deadLetterPage.getPage());
+      searchPage.setDeadLetterId(deadLetterPage.getId());
+      retryPages.add(searchPage);
+    }
+    new IngestionPipeline(ingestionService, new TestClient(content, requestCount), dataMapper, rateLimitBudget,
+            ingestionMetrics, ingestionSettings, new WeightedScoringStrategy()).run(retryPages);
+    Assert.assertTrue(ingestionService.findDeadLetterPages("java").isEmpty());
+    Assert.assertEquals(githubRepository.count(), 20);
+  }
+
+  @Test
+  public void testIngestionPipelineStoreFailure() throws Exception {
+    Path filePath = Paths.get(getClass().getClassLoader().getResource(TEST_FILE).getPath());
+    String content = new String(Files.readAllBytes(Paths.get(filePath.toUri())));
+    // repo url longer than its column, page fails to store
+    ObjectNode root = (ObjectNode) new ObjectMapper().readTree(content);
+    StringBuilder url = new StringBuilder("https://github.com/");
+    while (url.length() < 300) {
+      url.append("repo");
+    }
+    ((ObjectNode) root.get("items").get(0)).put("clone_url", url.toString());
+    AtomicInteger requestCount = new AtomicInteger();
+    Client client = new TestClient(root.toString(), requestCount);
+
+    IngestionSettings ingestionSettings = new IngestionSettings();
+    ingestionSettings.setFetchConcurrency(1);
+    ingestionSettings.setParseConcurrency(1);
+    ingestionSettings.setPersistConcurrency(1);
+    ingestionSettings.setQueueCapacity(1);
+
+    SearchWindow window = new SearchWindow(OffsetDateTime.parse("2025-01-01T00:00:00Z"),
+            OffsetDateTime.parse("2025-03-01T00:00:00Z"));
+    IngestionCheckpoint checkpoint = ingestionService.startCheckpoint("java", window.getStart(), window.getEnd(), 100L);
+    CheckpointTracker checkpointTracker = new CheckpointTracker(checkpoint.getJobKey(), checkpoint.getLastPage(), 1);
+    SearchPage searchPage = new SearchPage("java", window, 0);
+    searchPage.setCheckpointTracker(checkpointTracker);
+    long deadLettered = ingestionMetrics.getDeadLetterPages();
+    new IngestionPipeline(ingestionService, client, dataMapper, rateLimitBudget, ingestionMetrics,
+            ingestionSettings, new WeightedScoringStrategy()).run(Collections.singletonList(searchPage));
+
+    // page is dead lettered, window completes regardless
+    Assert.assertEquals(githubRepository.count(), 0);
+    Assert.assertEquals(ingestionMetrics.getDeadLetterPages() - deadLettered, 1);
+    Assert.assertTrue(checkpointTracker.isCompleted());
+    List<DeadLetterPage> deadLetterPages = ingestionService.findDeadLetterPages("java");
+    Assert.assertEquals(deadLetterPages.size(), 1);
+    Assert.assertNull(deadLetterPages.get(0).getStatus());
+    Assert.assertTrue(deadLetterPages.get(0).getError().startsWith("Unable to store Github repositories"));
+
+    // later run drains dead letter page
+    SearchPage retryPage = new SearchPage("java", window, deadLetterPages.get(0).getPage());
+    retryPage.setDeadLetterId(deadLetterPages.get(0).getId());
+    new IngestionPipeline(ingestionService, new TestClient(content, requestCount), dataMapper, rateLimitBudget,
+            ingestionMetrics, ingestionSettings, new WeightedScoringStrategy())
+            .run(Collections.singletonList(retryPage));
+    Assert.assertTrue(ingestionService.findDeadLetterPages("java").isEmpty());
+    Assert.assertEquals(githubRepository.count(), 20);
+  }
+
+  @Test
+  public void testDeltaSyncStopsAtHighWaterMark() throws Exception {
+    Path filePath = Paths.get(getClass().getClassLoader().getResource(TEST_FILE).getPath());
+    // full page of repos, all pushed before high water mark
+    ObjectNode root = (ObjectNode) new ObjectMapper().readTree(Files.readAllBytes(Paths.get(filePath.toUri())));
+    ArrayNode items = (ArrayNode) root.get("items");
+    ArrayNode fullPage = items.deepCopy();
+    while (fullPage.size() < 100) {
+      fullPage.addAll(items);
+    }
+    root.set("items", fullPage);
+    AtomicInteger requestCount = new AtomicInteger();
+    Client client = new TestClient(root.toString(), requestCount);
+
+    OffsetDateTime createdFrom = OffsetDateTime.parse("2025-01-01T00:00:00Z");
+    IngestionCheckpoint synced = ingestionService.startCheckpoint("java", createdFrom,
+            OffsetDateTime.parse("2025-03-01T00:00:00Z"), 20L);
+    synced.setLastPushedAt(OffsetDateTime.parse("2025-03-05T00:00:00Z"));
+    synced.setCompleted(true);
+    ingestionCheckpointRepository.save(synced);
+
+    IngestionSettings ingestionSettings = new IngestionSettings();
+    ingestionSettings.setFetchConcurrency(2);
+    ingestionSettings.setParseConcurrency(1);
+    ingestionSettings.setPersistConcurrency(1);
+    ingestionSettings.setQueueCapacity(1);
+    ingestionSettings.setRetryMaxAttempts(1);
+    ingestionSettings.setDeltaEnabled(true);
+    IngestionJob ingestionJob = new IngestionJob(1, "java", createdFrom, null, null);
+    new GithubDataProcessor(ingestionService, client, dataMapper, rateLimitBudget, ingestionMetrics,
+            ingestionSettings, ingestionJob).run();
+
+    // first batch already holds only repos seen by last sync, no window planning or full sweep
+    Assert.assertEquals(ingestionJob.getStatus(), IngestionJob.Status.COMPLETED);
+    Assert.assertEquals(requestCount.get(), 2);
+    Assert.assertEquals(githubRepository.count(), 20);
+    IngestionCheckpoint delta = ingestionCheckpointRepository.findByJobKey("java:" + createdFrom.toInstant() + ":");
+    Assert.assertTrue(delta.getCompleted());
+    Assert.assertEquals(ingestionService.findHighWaterMark("java"), synced.getLastPushedAt());
+  }
+
+  @Test
+  public void testCheckpointTrackerOutOfOrderPages() {
+    CheckpointTracker checkpointTracker = new CheckpointTracker("java", -1, 2);
+    Assert.assertEquals(checkpointTracker.lastPageWith(1), -1);
+    checkpointTracker.stored(1);
+    Assert.assertEquals(checkpointTracker.getLastPage(), -1);
+    Assert.assertEquals(checkpointTracker.lastPageWith(0), 1);
+    checkpointTracker.stored(0);
+    Assert.assertEquals(checkpointTracker.getLastPage(), 1);
+    Assert.assertTrue(checkpointTracker.isCompleted());
+  }
+
+  @Test
+  public void testPlannedWindowsReused() throws Exception {
+    Path filePath = Paths.get(getClass().getClassLoader().getResource(TEST_FILE).getPath());
+    String content = new String(Files.readAllBytes(Paths.get(filePath.toUri())));
+    AtomicInteger countRequests = new AtomicInteger();
+    Client client = new PlanningClient(content, countRequests);
+    IngestionSettings ingestionSettings = new IngestionSettings();
+    ingestionSettings.setFetchConcurrency(2);
+    ingestionSettings.setParseConcurrency(1);
+    ingestionSettings.setPersistConcurrency(1);
+    ingestionSettings.setQueueCapacity(2);
+    ingestionSettings.setRetryMaxAttempts(1);
+    ingestionSettings.setRetryBaseDelayMillis(1L);
+    ingestionSettings.setRetryMaxDelayMillis(1L);
+    ingestionSettings.setDeltaEnabled(false);
+    OffsetDateTime createdFrom = OffsetDateTime.parse("2025-01-01T00:00:00Z");
+    OffsetDateTime createdTo = OffsetDateTime.parse("2025-03-01T00:00:00Z");
+
+    // planning interrupted after first window, its checkpoint is already stored
+    ingestionService.startCheckpoint("java", createdFrom, OffsetDateTime.parse("2025-01-31T23:59:59Z"), 150L);
+    IngestionJob ingestionJob = new IngestionJob(1, "java", createdFrom, createdTo, 2);
+    new GithubDataProcessor(ingestionService, client, dataMapper, rateLimitBudget, ingestionMetrics,
+            ingestionSettings, ingestionJob).run();
+    Assert.assertEquals(ingestionJob.getStatus(), IngestionJob.Status.COMPLETED);
+    // only rest of the range is planned
+    Assert.assertEquals(countRequests.get(), 1);
+    List<IngestionCheckpoint> windows = ingestionService.findPlannedWindows("java", createdFrom, createdTo);
+    Assert.assertEquals(windows.size(), 2);
+    Assert.assertEquals(windows.get(1).getWindowStart(), OffsetDateTime.parse("2025-02-01T00:00:00Z"));
+    Assert.assertEquals(windows.get(1).getWindowEnd(), createdTo);
+    windows.forEach(window -> Assert.assertTrue(window.getCompleted()));
+
+    // next run reuses completed windows, no windows piling up
+    ingestionJob = new IngestionJob(2, "java", createdFrom, createdTo, 2);
+    new GithubDataProcessor(ingestionService, client, dataMapper, rateLimitBudget, ingestionMetrics,
+            ingestionSettings, ingestionJob).run();
+    Assert.assertEquals(ingestionJob.getStatus(), IngestionJob.Status.COMPLETED);
+    Assert.assertEquals(countRequests.get(), 1);
+    Assert.assertEquals(ingestionCheckpointRepository.count(), 2);
+    ingestionService.findPlannedWindows("java", createdFrom, createdTo)
+            .forEach(window -> Assert.assertTrue(window.getCompleted()));
+
+    // completed window which does not fit the plan of a wider range is removed
+    OffsetDateTime widerFrom = OffsetDateTime.parse("2024-12-01T00:00:00Z");
+    ingestionJob = new IngestionJob(3, "java", widerFrom, createdTo, 2);
+    new GithubDataProcessor(ingestionService, client, dataMapper, rateLimitBudget, ingestionMetrics,
+            ingestionSettings, ingestionJob).run();
+    Assert.assertEquals(ingestionJob.getStatus(), IngestionJob.Status.COMPLETED);
+    windows = ingestionService.findPlannedWindows("java", widerFrom, createdTo);
+    Assert.assertEquals(windows.size(), 1);
+    Assert.assertEquals(ingestionCheckpointRepository.count(), 1);
+  }
+
+  // answers count requests with a fixed total count under the search result cap, pages with given body
+  private static class PlanningClient extends TestClient {
+
+    private AtomicInteger countRequests;
+
+    PlanningClient(String body, AtomicInteger countRequests) {
+      super(body, new AtomicInteger());
+      this.countRequests = countRequests;
+    }
+
+    @Override
+    public Response sendSearchRequest(String language, OffsetDateTime createdFrom, OffsetDateTime createdTo,
+                                      int page, int limit) {
+      if (limit > 1) {
+        return super.sendSearchRequest(language, createdFrom, createdTo, page, limit);
+      }
+      countRequests.incrementAndGet();
+      return new Response() {
+        @Override
+        public String getBody() {
+          return "{\"total_count\": 150, \"items\": []}";
+        }
+
+        @Override
+        public int getStatus() {
+          return 200;
+        }
+
+        @Override
+        public String getHeader(String key) {
+          return null;
+        }
+      };
+    }
+
+  }
+
+  private static class TestClient implements Client {
+
+    private String body;
+    private AtomicInteger requestCount;
+    private int status;
+
+    TestClient(String body, AtomicInteger requestCount) {
+      this(body, requestCount, 200);
+    }
+
+    TestClient(String body, AtomicInteger requestCount, int status) {
+      this.body = body;
+      this.requestCount = requestCount;
+      this.status = status;
+    }
+
+    @Override
+    public Response sendSearchRequest(String language, LocalDate createdDate, int offset, int limit) {
+      return sendSearchRequest(language, createdDate.atStartOfDay().atOffset(ZoneOffset.UTC), null, offset, limit);
+    }
+
+    @Override
+    public Response sendSearchRequest(String language, OffsetDateTime createdFrom, OffsetDateTime createdTo,
+                                      int page, int limit) {
+      requestCount.incrementAndGet();
+      return new Response() {
+        @Override
+        public String getBody() {
+          return body;
+        }
+
+        @Override
+        public int getStatus() {
+          return status;
+        }
+
+        @Override
+        public String getHeader(String key) {
+          return null;
+        }
+      };
+    }
+
+  }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.worker;
+
+import org.github.popularity.model.IngestionCheckpoint;
+import org.github.popularity.service.IngestionServiceImpl;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+class IngestionSchedulerTests {
+
+  private static final String CREATED_DATE = "2014-02-01";
+
+  @Test
+  public void testScheduleMostStaleFirst() {
+    OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+    TestIngestionService ingestionService = new TestIngestionService();
+    ingestionService.lastSyncDates.put("java", now.minusMinutes(5));
+    ingestionService.lastSyncDates.put("python", now.minusDays(10));
+    ingestionService.lastSyncDates.put("go", now.minusDays(20));
+    ingestionService.lastSyncDates.put("rust", now.minusMinutes(5));
+    // rust has unfinished windows although synced recently, kotlin never synced
+    ingestionService.resumable.add("rust");
+    TestIngestionJobManager ingestionJobManager = new TestIngestionJobManager();
+    IngestionScheduler ingestionScheduler = new IngestionScheduler(ingestionService, ingestionJobManager, 3,
+            1440L, Arrays.asList("java", "python", "go", "rust", "kotlin"), CREATED_DATE);
+
+    ingestionScheduler.schedule();
+    // at most pool size jobs, python is due but waits for a free slot, java is not due
+    Assert.assertEquals(ingestionJobManager.submitted, Arrays.asList("rust", "kotlin", "go"));
+
+    // no free slot, running languages are not submitted again
+    ingestionScheduler.schedule();
+    Assert.assertEquals(ingestionJobManager.submitted.size(), 3);
+
+    // kotlin finishes, freed slot goes to next most stale language
+    IngestionJob kotlinJob = ingestionJobManager.jobs.get("kotlin");
+    kotlinJob.started();
+    kotlinJob.finished(IngestionJob.Status.COMPLETED);
+    ingestionService.lastSyncDates.put("kotlin", now);
+    ingestionScheduler.schedule();
+    Assert.assertEquals(ingestionJobManager.submitted, Arrays.asList("rust", "kotlin", "go", "python"));
+    Assert.assertEquals(ingestionJobManager.jobs.get("python").getCreatedFrom(),
+            OffsetDateTime.parse(CREATED_DATE + "T00:00:00Z"));
+  }
+
+  @Test
+  public void testScheduleSkipsLanguageRunningByAdminJob() {
+    TestIngestionService ingestionService = new TestIngestionService();
+    TestIngestionJobManager ingestionJobManager = new TestIngestionJobManager();
+    // job submitted through admin API
+    ingestionJobManager.submit("java", OffsetDateTime.parse(CREATED_DATE + "T00:00:00Z"), null, null);
+    IngestionScheduler ingestionScheduler = new IngestionScheduler(ingestionService, ingestionJobManager, 2,
+            1440L, Arrays.asList("java", "python"), CREATED_DATE);
+
+    ingestionScheduler.schedule();
+    Assert.assertEquals(ingestionJobManager.submitted, Arrays.asList("java", "python"));
+  }
+
+  private static class TestIngestionService extends IngestionServiceImpl {
+
+    private Map<String, OffsetDateTime> lastSyncDates = new HashMap<>();
+    private List<String> resumable = new ArrayList<>();
+
+    @Override
+    public List<IngestionCheckpoint> findOpenWindows(String language,
+                                                     OffsetDateTime windowStart) {
+      return resumable.contains(language) ? Collections.singletonList(new IngestionCheckpoint())
+              : Collections.emptyList();
+    }
+
+    @Override
+    public OffsetDateTime findLastSyncDate(String language) {
+      return lastSyncDates.get(language);
+    }
+
+  }
+
+  private static class TestIngestionJobManager extends IngestionJobManager {
+
+    private List<String> submitted = new ArrayList<>();
+    private Map<String, IngestionJob> jobs = new HashMap<>();
+
+    @Override
+    public synchronized IngestionJob submit(String language,
+                                            OffsetDateTime createdFrom,
+                                            OffsetDateTime createdTo,
+                                            Integer concurrency) {
+      // jobs are not run, they stay queued until finished by test
+      IngestionJob ingestionJob = new IngestionJob(submitted.size() + 1, language, createdFrom, createdTo,
+              concurrency);
+      submitted.add(language);
+      jobs.put(language, ingestionJob);
+      return ingestionJob;
+    }
+
+    @Override
+    public synchronized boolean isActive(String language) {
+      IngestionJob ingestionJob = jobs.get(language);
+      return Objects.nonNull(ingestionJob) && ingestionJob.isActive();
+    }
+
+  }
+
+}
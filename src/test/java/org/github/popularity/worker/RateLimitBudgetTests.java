@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.worker;
+
+import org.github.popularity.client.Response;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.github.popularity.constant.GithubConstants.GITHUB_API_RATE_LIMIT_REMAINING_KEY;
+import static org.github.popularity.constant.GithubConstants.GITHUB_API_RATE_LIMIT_RESET_KEY;
+
+class RateLimitBudgetTests {
+
+  @Test
+  public void testBudgetRefreshedFromHeaders() throws InterruptedException {
+    RateLimitBudget rateLimitBudget = new RateLimitBudget();
+    long reset = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + 60;
+    // probe request
+    rateLimitBudget.acquire();
+    rateLimitBudget.update(response(3, reset));
+    Assert.assertEquals(rateLimitBudget.getRemaining(), 3);
+    Assert.assertEquals(rateLimitBudget.getResetEpochSecond(), reset);
+
+    rateLimitBudget.acquire();
+    rateLimitBudget.acquire();
+    Assert.assertEquals(rateLimitBudget.getRemaining(), 1);
+
+    // stale header value in same window should not give back tokens already handed out
+    rateLimitBudget.update(response(2, reset));
+    Assert.assertEquals(rateLimitBudget.getRemaining(), 1);
+
+    rateLimitBudget.exhaust(response(0, reset));
+    Assert.assertEquals(rateLimitBudget.getRemaining(), 0);
+  }
+
+  @Test
+  public void testBudgetRefilledAfterExhaustion() throws InterruptedException {
+    RateLimitBudget rateLimitBudget = new RateLimitBudget();
+    long now = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+    rateLimitBudget.acquire();
+    // window already reset
+    rateLimitBudget.exhaust(response(0, now - 10));
+    Assert.assertEquals(rateLimitBudget.getRemaining(), 0);
+
+    // single probe is let through, a second request waits for the probe response
+    rateLimitBudget.acquire();
+    Thread waiting = new Thread(() -> {
+      try {
+        rateLimitBudget.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    waiting.start();
+    waiting.join(TimeUnit.MILLISECONDS.toMillis(500));
+    Assert.assertTrue(waiting.isAlive());
+
+    // probe response refills the budget, even with a reset close to now
+    long reset = now + 5;
+    rateLimitBudget.update(response(100, reset));
+    waiting.join(TimeUnit.SECONDS.toMillis(10));
+    Assert.assertFalse(waiting.isAlive());
+    Assert.assertEquals(rateLimitBudget.getResetEpochSecond(), reset);
+    Assert.assertEquals(rateLimitBudget.getRemaining(), 99);
+  }
+
+  @Test
+  public void testBudgetUnlimitedWithoutHeaders() throws InterruptedException {
+    RateLimitBudget rateLimitBudget = new RateLimitBudget();
+    rateLimitBudget.acquire();
+    rateLimitBudget.update(new TestResponse(new HashMap<>()));
+    Assert.assertEquals(rateLimitBudget.getRemaining(), Long.MAX_VALUE);
+  }
+
+  @Test
+  public void testBudgetSharedFairlyBetweenJobs() throws InterruptedException {
+    RateLimitBudget rateLimitBudget = new RateLimitBudget();
+    long reset = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + 60;
+    rateLimitBudget.acquire("java");
+    rateLimitBudget.update(response(1000, reset));
+    rateLimitBudget.acquire("java");
+    rateLimitBudget.acquire("java");
+
+    // both jobs compete for tokens, job behind on tokens is served until it catches up
+    List<Thread> threads = new ArrayList<>();
+    for (String job : new String[]{"java", "python"}) {
+      Thread thread = new Thread(() -> {
+        try {
+          for (int i = 0; i < 20; i++) {
+            rateLimitBudget.acquire(job);
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+    Map<String, Long> grantedTokens = rateLimitBudget.getGrantedTokens();
+    Assert.assertEquals(grantedTokens.get("java").longValue(), 22);
+    Assert.assertEquals(grantedTokens.get("python").longValue(), 20);
+    Assert.assertEquals(rateLimitBudget.getRemaining(), 1000 - 42);
+  }
+
+  private Response response(long remaining, long reset) {
+    Map<String, String> headers = new HashMap<>();
+    headers.put(GITHUB_API_RATE_LIMIT_REMAINING_KEY, String.valueOf(remaining));
+    headers.put(GITHUB_API_RATE_LIMIT_RESET_KEY, String.valueOf(reset));
+    return new TestResponse(headers);
+  }
+
+  private static class TestResponse implements Response {
+
+    private Map<String, String> headers;
+
+    TestResponse(Map<String, String> headers) {
+      this.headers = headers;
+    }
+
+    @Override
+    public String getBody() {
+      return "";
+    }
+
+    @Override
+    public int getStatus() {
+      return 200;
+    }
+
+    @Override
+    public String getHeader(String key) {
+      return headers.get(key);
+    }
+
+  }
+
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.worker;
+
+import org.github.popularity.mapper.DataMapper;
+import org.github.popularity.model.GithubRepo;
+import org.github.popularity.repo.GithubRepository;
+import org.github.popularity.scoring.WeightedScoringStrategy;
+import org.junit.Assert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.List;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+class RescoringJobTests {
+
+  @Autowired
+  private GithubRepository githubRepository;
+  @Autowired
+  private DataMapper dataMapper;
+  @Autowired
+  private IngestionMetrics ingestionMetrics;
+
+  @BeforeEach
+  public void setup() {
+    githubRepository.deleteAll();
+    githubRepository.repairCountRollups();
+  }
+
+  @AfterEach
+  public void destroy() {
+    githubRepository.deleteAll();
+    githubRepository.repairCountRollups();
+  }
+
+  private static final String TEST_FILE = "test.json";
+
+  @Test
+  public void testRescoringJob() throws Exception {
+    Path filePath = Paths.get(getClass().getClassLoader().getResource(TEST_FILE).getPath());
+    String content = new String(Files.readAllBytes(Paths.get(filePath.toUri())));
+    List<GithubRepo> repos = dataMapper.toGithubRepo(content, new WeightedScoringStrategy());
+    // stale scores, only first half of repos expired
+    long staleDate = OffsetDateTime.parse("2020-01-01T00:00:00Z").toEpochSecond();
+    long validDate = OffsetDateTime.now(ZoneOffset.UTC).plusDays(10).toEpochSecond();
+    for (int i = 0; i < repos.size(); i++) {
+      repos.get(i).setScore(-1.0);
+      repos.get(i).setScoredDate(staleDate);
+      repos.get(i).setScoreValidUntil(i < repos.size() / 2 ? staleDate : validDate);
+    }
+    githubRepository.upsertAll(repos);
+
+    long rowsRescored = ingestionMetrics.getRowsRescored();
+    // small chunks so that every key range is read in several chunks
+    long rescored = new RescoringJob(githubRepository, ingestionMetrics, new WeightedScoringStrategy(), 3, 4).run();
+
+    Assert.assertEquals(rescored, 10);
+    Assert.assertEquals(ingestionMetrics.getRowsRescored() - rowsRescored, 10);
+    long now = OffsetDateTime.now(ZoneOffset.UTC).toEpochSecond();
+    for (int i = 0; i < repos.size(); i++) {
+      GithubRepo repo = githubRepository.findByRepositoryId(repos.get(i).getRepositoryId());
+      if (i < repos.size() / 2) {
+        Assert.assertTrue(repo.getScoredDate() > staleDate);
+        Assert.assertEquals(repo.getScore(), new WeightedScoringStrategy().score(repo.getStargazersCount(),
+                repo.getForksCount(), repo.getUpdatedDate(), now), 0.0);
+        Assert.assertEquals(repo.getScoreValidUntil(), new WeightedScoringStrategy().scoreValidUntil(
+                repo.getStargazersCount(), repo.getForksCount(), repo.getUpdatedDate(), now));
+      } else {
+        // score still valid, row not touched
+        Assert.assertEquals(repo.getScore(), -1.0, 0.0);
+      }
+    }
+
+    // nothing expired anymore
+    Assert.assertEquals(new RescoringJob(githubRepository, ingestionMetrics, new WeightedScoringStrategy(), 3, 4)
+            .run(), 0);
+  }
+
+  @Test
+  public void testRescoringSkipsRowsUpsertedMeanwhile() throws Exception {
+    Path filePath = Paths.get(getClass().getClassLoader().getResource(TEST_FILE).getPath());
+    String content = new String(Files.readAllBytes(Paths.get(filePath.toUri())));
+    List<GithubRepo> repos = dataMapper.toGithubRepo(content, new WeightedScoringStrategy());
+    long staleDate = OffsetDateTime.parse("2020-01-01T00:00:00Z").toEpochSecond();
+    for (GithubRepo repo : repos) {
+      repo.setScore(-1.0);
+      repo.setScoredDate(staleDate);
+      repo.setScoreValidUntil(staleDate);
+    }
+    githubRepository.upsertAll(repos);
+    long now = OffsetDateTime.now(ZoneOffset.UTC).toEpochSecond();
+    List<GithubRepo> chunk = githubRepository.findScoringChunk(now, 0, Long.MAX_VALUE, repos.size());
+    Assert.assertEquals(chunk.size(), repos.size());
+
+    // ingestion writes fresh values of a repo after the chunk was read
+    GithubRepo freshRepo = repos.get(0);
+    freshRepo.setStargazersCount(freshRepo.getStargazersCount() + 1);
+    freshRepo.setScore(42.0);
+    freshRepo.setScoredDate(now);
+    freshRepo.setScoreValidUntil(now + 3600);
+    githubRepository.upsertAll(Collections.singletonList(freshRepo));
+
+    for (GithubRepo githubRepo : chunk) {
+      githubRepo.setScore(1.0);
+      githubRepo.setScoredDate(now);
+      githubRepo.setScoreValidUntil(now + 60);
+    }
+    Assert.assertEquals(githubRepository.updateScores(chunk, now), repos.size() - 1);
+    GithubRepo dbRepo = githubRepository.findByRepositoryId(freshRepo.getRepositoryId());
+    Assert.assertEquals(dbRepo.getScore(), 42.0, 0.0);
+    Assert.assertEquals(dbRepo.getScoreValidUntil(), now + 3600);
+  }
+
+  @Test
+  public void testRescoringJobEmptyTable() throws Exception {
+    long rescored = new RescoringJob(githubRepository, ingestionMetrics, new WeightedScoringStrategy(), 3, 4).run();
+    Assert.assertEquals(rescored, 0);
+  }
+
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.worker;
+
+import org.github.popularity.client.Client;
+import org.github.popularity.client.Response;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.github.popularity.constant.GithubConstants.GITHUB_API_RETRY_AFTER_KEY;
+
+class SearchRequestExecutorTests {
+
+  private static final SearchWindow WINDOW = new SearchWindow(OffsetDateTime.parse("2025-01-01T00:00:00Z"),
+          OffsetDateTime.parse("2025-02-01T00:00:00Z"));
+
+  @Test
+  public void testBackoff() {
+    SearchRequestExecutor searchRequestExecutor = executor(new ScriptedClient(Collections.emptyList()));
+    for (int attempt = 1; attempt <= 6; attempt++) {
+      long ceiling = Math.min(40, 10L << (attempt - 1));
+      long delay = searchRequestExecutor.backoffMillis(attempt, response(500, null));
+      Assert.assertTrue(delay >= ceiling / 2 && delay <= ceiling);
+    }
+    // Retry-After is honoured as is
+    Assert.assertEquals(searchRequestExecutor.backoffMillis(1, response(503, "7")), 7000);
+    // secondary rate limit without Retry-After waits a minute
+    Assert.assertEquals(searchRequestExecutor.backoffMillis(1, response(429, null)), 60000);
+  }
+
+  @Test
+  public void testRetryUntilSuccess() throws IOException, InterruptedException {
+    IngestionMetrics ingestionMetrics = new IngestionMetrics();
+    ScriptedClient client = new ScriptedClient(Arrays.asList(502, null, 200));
+    SearchRequestExecutor searchRequestExecutor = new SearchRequestExecutor(client, unlimitedBudget(),
+            ingestionMetrics, settings());
+    Response response = searchRequestExecutor.send("java", WINDOW, 1, 100, true);
+    Assert.assertEquals(response.getStatus(), 200);
+    Assert.assertEquals(ingestionMetrics.getRetriedRequests(), 2);
+  }
+
+  @Test
+  public void testGiveUp() throws IOException, InterruptedException {
+    // not worth retrying
+    SearchRequestExecutor searchRequestExecutor = executor(new ScriptedClient(Arrays.asList(422, 200)));
+    Assert.assertEquals(searchRequestExecutor.send("java", WINDOW, 1, 100, true).getStatus(), 422);
+
+    // retries exhausted
+    searchRequestExecutor = executor(new ScriptedClient(Arrays.asList(500, 500, 500, 200)));
+    Assert.assertEquals(searchRequestExecutor.send("java", WINDOW, 1, 100, true).getStatus(), 500);
+
+    // last attempt failed with IO error
+    try {
+      executor(new ScriptedClient(Arrays.asList(500, 500, null))).send("java", WINDOW, 1, 100, true);
+      Assert.fail();
+    } catch (IOException ex) {
+      Assert.assertEquals(ex.getMessage(), "connection reset");
+    }
+  }
+
+  private SearchRequestExecutor executor(Client client) {
+    return new SearchRequestExecutor(client, unlimitedBudget(), new IngestionMetrics(), settings());
+  }
+
+  private IngestionSettings settings() {
+    IngestionSettings ingestionSettings = new IngestionSettings();
+    ingestionSettings.setRetryMaxAttempts(3);
+    ingestionSettings.setRetryBaseDelayMillis(10L);
+    ingestionSettings.setRetryMaxDelayMillis(40L);
+    return ingestionSettings;
+  }
+
+  private RateLimitBudget unlimitedBudget() {
+    RateLimitBudget rateLimitBudget = new RateLimitBudget();
+    rateLimitBudget.update(response(200, null));
+    return rateLimitBudget;
+  }
+
+  private static Response response(int status, String retryAfter) {
+    Map<String, String> headers = new HashMap<>();
+    if (retryAfter != null) {
+      headers.put(GITHUB_API_RETRY_AFTER_KEY, retryAfter);
+    }
+    return new Response() {
+      @Override
+      public String getBody() {
+        return "";
+      }
+
+      @Override
+      public int getStatus() {
+        return status;
+      }
+
+      @Override
+      public String getHeader(String key) {
+        return headers.get(key);
+      }
+    };
+  }
+
+  // answers with given statuses in order, null means IO error
+  private static class ScriptedClient implements Client {
+
+    private Deque<Integer> statuses;
+
+    ScriptedClient(List<Integer> statuses) {
+      this.statuses = new ArrayDeque<>();
+      statuses.forEach(status -> this.statuses.add(status == null ? -1 : status));
+    }
+
+    @Override
+    public Response sendSearchRequest(String language, LocalDate createdDate, int offset, int limit) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Response sendSearchRequest(String language, OffsetDateTime createdFrom, OffsetDateTime createdTo,
+                                      int page, int limit) throws IOException {
+      int status = statuses.pop();
+      if (status == -1) {
+        throw new IOException("connection reset");
+      }
+      return response(status, null);
+    }
+
+  }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.github.popularity.worker;
+
+import org.github.popularity.client.Client;
+import org.github.popularity.client.Response;
+import org.github.popularity.mapper.DataMapper;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.github.popularity.constant.GithubConstants.GITHUB_SEARCH_RESULT_CAP;
+
+class SearchWindowPlannerTests {
+
+  // simulated repository created every given number of seconds
+  private static final long SECONDS_PER_REPO = 20;
+
+  @Test
+  public void testSplitWindow() {
+    SearchWindow window = new SearchWindow(OffsetDateTime.parse("2025-01-01T00:00:00Z"),
+            OffsetDateTime.parse("2025-01-01T00:00:09Z"));
+    List<SearchWindow> split = window.split(3);
+    Assert.assertEquals(split.size(), 3);
+    Assert.assertEquals(split.get(0).getStart(), window.getStart());
+    Assert.assertEquals(split.get(2).getEnd(), window.getEnd());
+    for (int i = 1; i < split.size(); i++) {
+      // adjacent and non overlapping
+      Assert.assertEquals(split.get(i).getStart(), split.get(i - 1).getEnd().plusSeconds(1));
+    }
+    // window can not be split below one second
+    Assert.assertEquals(new SearchWindow(window.getStart(), window.getStart().plusSeconds(1)).split(5).size(), 2);
+  }
+
+  @Test
+  public void testPlanWindowsUnderResultCap() throws IOException, InterruptedException {
+    SearchWindowPlanner searchWindowPlanner = new SearchWindowPlanner(new CountingClient(), new DataMapper(),
+            new RateLimitBudget(), new IngestionMetrics(), new IngestionSettings());
+    SearchWindow range = new SearchWindow(OffsetDateTime.parse("2025-01-01T00:00:00Z"),
+            OffsetDateTime.parse("2025-03-01T00:00:00Z"));
+    List<SearchWindow> windows = searchWindowPlanner.plan("java", range);
+
+    Assert.assertTrue(windows.size() > 1);
+    Assert.assertEquals(windows.get(0).getStart(), range.getStart());
+    Assert.assertEquals(windows.get(windows.size() - 1).getEnd(), range.getEnd());
+    long totalCount = 0;
+    for (int i = 0; i < windows.size(); i++) {
+      Assert.assertTrue(windows.get(i).getTotalCount() <= GITHUB_SEARCH_RESULT_CAP);
+      if (i > 0) {
+        Assert.assertEquals(windows.get(i).getStart(), windows.get(i - 1).getEnd().plusSeconds(1));
+      }
+      totalCount += windows.get(i).getTotalCount();
+    }
+    // planned windows cover whole range
+    Assert.assertEquals(totalCount, count(range));
+  }
+
+  private static long count(SearchWindow window) {
+    return Math.floorDiv(window.getEnd().toEpochSecond(), SECONDS_PER_REPO)
+            - Math.floorDiv(window.getStart().toEpochSecond() - 1, SECONDS_PER_REPO);
+  }
+
+  private static class CountingClient implements Client {
+
+    @Override
+    public Response sendSearchRequest(String language, LocalDate createdDate, int offset, int limit) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Response sendSearchRequest(String language, OffsetDateTime createdFrom, OffsetDateTime createdTo,
+                                      int page, int limit) {
+      String body = "{\"total_count\": " + count(new SearchWindow(createdFrom, createdTo)) + ", \"items\": []}";
+      return new Response() {
+        @Override
+        public String getBody() {
+          return body;
+        }
+
+        @Override
+        public int getStatus() {
+          return 200;
+        }
+
+        @Override
+        public String getHeader(String key) {
+          return null;
+        }
+      };
+    }
+
+  }
+
+}